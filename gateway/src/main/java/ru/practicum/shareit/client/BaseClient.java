@@ -1,20 +1,42 @@
 package ru.practicum.shareit.client;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
+import static ru.practicum.shareit.constants.HttpHeaders.NEXT_CURSOR;
 import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 
 public class BaseClient {
     protected final RestTemplate rest;
+    /**
+     * Шаблон долгих потоков: отдельный пул соединений и передача ошибок сервера без исключений.
+     */
+    protected final RestTemplate streamRest;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, rest);
+    }
+
+    public BaseClient(RestTemplate rest, RestTemplate streamRest) {
         this.rest = rest;
+        this.streamRest = streamRest;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -76,23 +98,94 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Тело ответа сервера не разбирается. Внутри запроса к шлюзу оно копируется прямо в ответ клиенту
+     * вместе со статусом и заголовками, а контроллеру возвращается только статус. Вне запроса
+     * (и для ошибок сервера) байты буферизуются и передаются в ResponseEntity вместе с Content-Type.
+     */
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path,
                                                           @Nullable Long userId,
                                                           @Nullable Map<String, Object> parameters,
                                                           @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        RequestCallback requestCallback = rest.httpEntityCallback(requestEntity);
+        ResponseExtractor<ResponseEntity<Object>> responseExtractor = this::relay;
 
-        ResponseEntity<Object> shareitServerResponse;
         try {
             if (parameters != null && !parameters.isEmpty()) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                return rest.execute(path, method, requestCallback, responseExtractor, parameters);
             }
+            return rest.execute(path, method, requestCallback, responseExtractor);
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return passThrough(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+    }
+
+    private ResponseEntity<Object> relay(ClientHttpResponse response) throws IOException {
+        HttpStatusCode status = response.getStatusCode();
+        HttpHeaders serverHeaders = response.getHeaders();
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getResponse() == null) {
+            return passThrough(status, serverHeaders, StreamUtils.copyToByteArray(response.getBody()));
+        }
+
+        HttpServletRequest servletRequest = attributes.getRequest();
+        HttpServletResponse servletResponse = attributes.getResponse();
+        String etag = serverHeaders.getETag();
+        // Совпадающий If-None-Match клиента: 304 без тела, поток сервера не читается
+        if (etag != null && HttpMethod.GET.matches(servletRequest.getMethod())
+                && new ServletWebRequest(servletRequest, servletResponse).checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        servletResponse.setStatus(status.value());
+        if (serverHeaders.getContentType() != null) {
+            servletResponse.setContentType(serverHeaders.getContentType().toString());
+        }
+        if (etag != null) {
+            servletResponse.setHeader(HttpHeaders.ETAG, etag);
+        }
+        if (serverHeaders.getFirst(NEXT_CURSOR) != null) {
+            servletResponse.setHeader(NEXT_CURSOR, serverHeaders.getFirst(NEXT_CURSOR));
+        }
+        if (serverHeaders.getContentLength() >= 0) {
+            servletResponse.setContentLengthLong(serverHeaders.getContentLength());
+        }
+        StreamUtils.copy(response.getBody(), servletResponse.getOutputStream());
+        return ResponseEntity.status(status).build();
+    }
+
+    /**
+     * Проксирует поток сервера: каждый прочитанный кусок сразу сбрасывается клиенту.
+     * Пульс сервера приходит чаще таймаута чтения пула, поэтому простаивающий SSE-поток не обрывается.
+     * Статус и Content-Type сервера выставляются до первой записи, так что ошибка (например, 404)
+     * доходит до клиента своим статусом и телом.
+     */
+    protected void stream(String path, @Nullable Long userId, MediaType accept,
+                          HttpServletResponse servletResponse, OutputStream out) {
+        streamRest.execute(path, HttpMethod.GET,
+                request -> {
+                    // JSON в Accept нужен, чтобы ошибка сервера пришла телом, а не 406
+                    request.getHeaders().setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+                    if (userId != null) {
+                        request.getHeaders().set(SHARER_USER_ID, String.valueOf(userId));
+                    }
+                },
+                response -> {
+                    servletResponse.setStatus(response.getStatusCode().value());
+                    MediaType contentType = response.getHeaders().getContentType();
+                    if (contentType != null) {
+                        servletResponse.setContentType(contentType.toString());
+                    }
+                    InputStream in = response.getBody();
+                    byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        out.flush();
+                    }
+                    return null;
+                });
     }
 
     private HttpHeaders defaultHeaders(@Nullable Long userId) {
@@ -105,17 +198,26 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static ResponseEntity<Object> passThrough(HttpStatusCode status, @Nullable HttpHeaders serverHeaders,
+                                                      @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
+        // Заголовки соединения и длины сервера не переносятся, их выставит контейнер шлюза
+        if (serverHeaders != null && serverHeaders.getContentType() != null) {
+            responseBuilder.contentType(serverHeaders.getContentType());
+        }
+        // По ETag сервера контроллер шлюза сам ответит 304 на совпадающий If-None-Match клиента
+        if (serverHeaders != null && serverHeaders.getETag() != null) {
+            responseBuilder.eTag(serverHeaders.getETag());
+        }
+        // Курсор следующей страницы ленты должен дойти до клиента вместе с телом
+        if (serverHeaders != null && serverHeaders.getFirst(NEXT_CURSOR) != null) {
+            responseBuilder.header(NEXT_CURSOR, serverHeaders.getFirst(NEXT_CURSOR));
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
     }
-}
\ No newline at end of file
+}
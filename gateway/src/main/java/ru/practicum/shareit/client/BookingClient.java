@@ -1,22 +1,34 @@
 package ru.practicum.shareit.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
+import static ru.practicum.shareit.config.RestTemplateConfig.STREAM_REST_TEMPLATE_BUILDER;
+
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            @Qualifier(STREAM_REST_TEMPLATE_BUILDER) RestTemplateBuilder streamBuilder) {
         super(
                 builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .build(),
+                streamBuilder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
@@ -35,13 +47,39 @@ public class BookingClient extends BaseClient {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllBookingsByBooker(Long bookerId, String state) {
-        Map<String, Object> parameters = Map.of("state", state);
-        return get("?state={state}", bookerId, parameters);
+    public ResponseEntity<Object> getAllBookingsByBooker(Long bookerId, String state, Integer from, Integer size,
+                                                         LocalDateTime cursorStart, Long cursorId) {
+        return getPage("", bookerId, state, from, size, cursorStart, cursorId);
+    }
+
+    public ResponseEntity<Object> getAllBookingsByOwner(Long ownerId, String state, Integer from, Integer size,
+                                                        LocalDateTime cursorStart, Long cursorId) {
+        return getPage("/owner", ownerId, state, from, size, cursorStart, cursorId);
+    }
+
+    private ResponseEntity<Object> getPage(String path, Long userId, String state, Integer from, Integer size,
+                                           LocalDateTime cursorStart, Long cursorId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        String query = "?state={state}&from={from}&size={size}";
+        // Части курсора передаются как есть: неполный курсор сервер отклоняет с 400, а не подменяет смещением
+        if (cursorStart != null) {
+            parameters.put("cursorStart", cursorStart);
+            query += "&cursorStart={cursorStart}";
+        }
+        if (cursorId != null) {
+            parameters.put("cursorId", cursorId);
+            query += "&cursorId={cursorId}";
+        }
+        return get(path + query, userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllBookingsByOwner(Long ownerId, String state) {
-        Map<String, Object> parameters = Map.of("state", state);
-        return get("/owner?state={state}", ownerId, parameters);
+    /**
+     * Проксирует SSE-поток изменений бронирований арендатора и владельца.
+     */
+    public void streamBookings(Long userId, HttpServletResponse response, OutputStream out) {
+        stream("/stream", userId, MediaType.TEXT_EVENT_STREAM, response, out);
     }
-}
\ No newline at end of file
+}
@@ -10,6 +10,7 @@ import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.NewItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -29,6 +30,14 @@ public class ItemClient extends BaseClient {
         return post("", ownerId, newItemDto);
     }
 
+    public ResponseEntity<Object> createItems(List<NewItemDto> newItemDtos, Long ownerId) {
+        return post("/batch", ownerId, newItemDtos);
+    }
+
+    public ResponseEntity<Object> updateItems(List<UpdateItemDto> updateItemDtos, Long ownerId) {
+        return patch("/batch", ownerId, updateItemDtos);
+    }
+
     public ResponseEntity<Object> updateItem(Long itemId, UpdateItemDto updateItemDto, Long ownerId) {
         return patch("/" + itemId, ownerId, updateItemDto);
     }
@@ -37,12 +46,20 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getAllItemsByOwner(Long ownerId, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllItemsByOwner(Long ownerId, Integer from, Integer size, Long after) {
+        if (after == null) {
+            Map<String, Object> parameters = Map.of(
+                    "from", from,
+                    "size", size
+            );
+            return get("?from={from}&size={size}", ownerId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "size", size,
+                "after", after
         );
-        return get("?from={from}&size={size}", ownerId, parameters);
+        return get("?from={from}&size={size}&after={after}", ownerId, parameters);
     }
 
     public ResponseEntity<Object> searchItems(String text, Integer from, Integer size) {
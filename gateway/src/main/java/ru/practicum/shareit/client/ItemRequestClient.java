@@ -1,23 +1,34 @@
 package ru.practicum.shareit.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.io.OutputStream;
 import java.util.Map;
 
+import static ru.practicum.shareit.config.RestTemplateConfig.STREAM_REST_TEMPLATE_BUILDER;
+
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            @Qualifier(STREAM_REST_TEMPLATE_BUILDER) RestTemplateBuilder streamBuilder) {
         super(
                 builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .build(),
+                streamBuilder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
@@ -31,15 +42,34 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size) {
+    /**
+     * Страница ленты чужих запросов. Курсор из заголовка X-Next-Cursor предыдущего ответа
+     * продолжает ленту по ключу сервера и важнее from.
+     */
+    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size, @Nullable String cursor) {
+        if (cursor == null) {
+            Map<String, Object> parameters = Map.of(
+                    "from", from,
+                    "size", size
+            );
+            return get("/all?from={from}&size={size}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "size", size,
+                "cursor", cursor
         );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return get("/all?from={from}&size={size}&cursor={cursor}", userId, parameters);
     }
 
     public ResponseEntity<Object> getRequestById(Long requestId, Long userId) {
         return get("/" + requestId, userId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Проксирует SSE-поток вещей, добавленных в ответ на запросы пользователя.
+     */
+    public void streamAnswers(Long userId, HttpServletResponse response, OutputStream out) {
+        stream("/stream", userId, MediaType.TEXT_EVENT_STREAM, response, out);
+    }
+}
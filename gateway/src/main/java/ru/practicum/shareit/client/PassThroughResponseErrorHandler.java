@@ -0,0 +1,20 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseErrorHandler;
+
+/**
+ * Не считает ответы сервера ошибками: статус и тело 4xx/5xx получает ResponseExtractor потока
+ * и передаёт клиенту как есть, вместо исключения в асинхронном потоке, которое шлюз отдал бы оборванным 500.
+ */
+public class PassThroughResponseErrorHandler implements ResponseErrorHandler {
+
+    @Override
+    public boolean hasError(ClientHttpResponse response) {
+        return false;
+    }
+
+    @Override
+    public void handleError(ClientHttpResponse response) {
+    }
+}
@@ -0,0 +1,255 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StreamUtils;
+import ru.practicum.shareit.config.ResponseCacheProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.constants.HttpHeaders.NEXT_CURSOR;
+import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
+
+/**
+ * Кэш ответов сервера на GET-запросы к путям из списка shareit-server.response-cache.paths.
+ * Ключ: путь с параметрами и X-Sharer-User-Id. Размер кэша ограничен суммарным объёмом тел ответов.
+ * Ответ моложе ttl отдаётся без обращения к серверу, более старый с ETag перепроверяется через If-None-Match.
+ * Изменяющий запрос через шлюз сбрасывает ответы всех ресурсов, представления которых он может изменить
+ * (AFFECTED_RESOURCES): бронирование или комментарий меняют и карточку вещи, а новый запрос вещи - нет.
+ */
+public class ResponseCacheInterceptor implements ClientHttpRequestInterceptor {
+    private static final String METRIC = "gateway.response.cache";
+
+    /**
+     * Первый сегмент пути изменяющего запроса -> ресурсы, чьи ответы после него могли устареть.
+     * Вещь показывает бронирования и комментарии с именами авторов, бронирование - вещь и арендатора,
+     * запрос - ответившие на него вещи; удаление пользователя каскадно задевает всё.
+     */
+    private static final Map<String, Set<String>> AFFECTED_RESOURCES = Map.of(
+            "items", Set.of("items", "bookings", "requests"),
+            "bookings", Set.of("bookings", "items"),
+            "requests", Set.of("requests"),
+            "users", Set.of("users", "items", "bookings", "requests"));
+
+    private final Cache<String, CachedResponse> cache;
+    private final List<String> paths;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Ticker ticker;
+    private final long ttlNanos;
+    // Поколение ресурса меняется при каждом затрагивающем его изменении: ответ, полученный до изменения,
+    // не попадёт в кэш. Ответы ресурсов вне AFFECTED_RESOURCES не кэшируются
+    private final Map<String, AtomicLong> generations = AFFECTED_RESOURCES.keySet().stream()
+            .collect(Collectors.toUnmodifiableMap(Function.identity(), resource -> new AtomicLong()));
+
+    private final Counter hits;
+    private final Counter revalidations;
+    private final Counter misses;
+
+    public ResponseCacheInterceptor(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    public ResponseCacheInterceptor(ResponseCacheProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.ticker = ticker;
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.paths = List.copyOf(properties.getPaths());
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .expireAfterWrite(properties.getRetention().compareTo(properties.getTtl()) > 0
+                        ? properties.getRetention() : properties.getTtl())
+                .ticker(ticker)
+                .build();
+
+        this.hits = counter(meterRegistry, "hit");
+        this.revalidations = counter(meterRegistry, "revalidated");
+        this.misses = counter(meterRegistry, "miss");
+        Gauge.builder(METRIC + ".size", cache, Cache::estimatedSize)
+                .description("Ответов сервера в кэше шлюза")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            try {
+                return execution.execute(request, body);
+            } finally {
+                invalidate(request.getURI().getPath());
+            }
+        }
+
+        AtomicLong generation = generations.get(resource(request.getURI().getPath()));
+        if (generation == null || !isCacheable(request.getURI())) {
+            return execution.execute(request, body);
+        }
+
+        String key = key(request);
+        long now = ticker.read();
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && now - cached.storedAt() < ttlNanos) {
+            hits.increment();
+            return cached.toResponse();
+        }
+
+        long requestGeneration = generation.get();
+        String etag = cached != null ? cached.headers().getETag() : null;
+        if (etag != null) {
+            request.getHeaders().setIfNoneMatch(etag);
+        }
+        ClientHttpResponse response = execution.execute(request, body);
+
+        if (etag != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            response.close();
+            revalidations.increment();
+            CachedResponse refreshed = cached.storedAgainAt(now);
+            store(key, refreshed, generation, requestGeneration);
+            return refreshed.toResponse();
+        }
+
+        misses.increment();
+        // Потоковые выгрузки (NDJSON) и SSE проходят без буферизации: их размер не ограничен
+        if (!response.getStatusCode().isSameCodeAs(HttpStatus.OK)
+                || MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType())
+                || MediaType.TEXT_EVENT_STREAM.isCompatibleWith(response.getHeaders().getContentType())) {
+            return response;
+        }
+        CachedResponse fresh;
+        try (response) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(response.getHeaders().getContentType());
+            if (response.getHeaders().getETag() != null) {
+                headers.setETag(response.getHeaders().getETag());
+            }
+            if (response.getHeaders().getFirst(NEXT_CURSOR) != null) {
+                headers.set(NEXT_CURSOR, response.getHeaders().getFirst(NEXT_CURSOR));
+            }
+            fresh = new CachedResponse(response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers),
+                    StreamUtils.copyToByteArray(response.getBody()), now);
+        }
+        store(key, fresh, generation, requestGeneration);
+        return fresh.toResponse();
+    }
+
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        cache.invalidateAll();
+    }
+
+    private void invalidate(String path) {
+        Set<String> affected = AFFECTED_RESOURCES.get(resource(path));
+        if (affected == null) {
+            invalidateAll();
+            return;
+        }
+        affected.forEach(resource -> generations.get(resource).incrementAndGet());
+        cache.asMap().keySet().removeIf(key -> affected.contains(resource(key.substring(key.indexOf(' ') + 1))));
+    }
+
+    private void store(String key, CachedResponse response, AtomicLong generation, long requestGeneration) {
+        if (generation.get() != requestGeneration) {
+            return;
+        }
+        cache.put(key, response);
+        // Изменение могло пройти между проверкой и записью
+        if (generation.get() != requestGeneration) {
+            cache.asMap().remove(key, response);
+        }
+    }
+
+    private boolean isCacheable(URI uri) {
+        String path = uri.getPath();
+        for (String pattern : paths) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Первый сегмент пути: "/items/5/comment" -> "items".
+     */
+    private static String resource(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '?') {
+            end++;
+        }
+        return path.substring(start, end);
+    }
+
+    private static String key(HttpRequest request) {
+        URI uri = request.getURI();
+        String query = uri.getRawQuery();
+        return request.getHeaders().getFirst(SHARER_USER_ID) + " " + uri.getRawPath()
+                + (query != null ? "?" + query : "");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC)
+                .description("Обращения к кэшу ответов сервера")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long storedAt) {
+
+        CachedResponse storedAgainAt(long now) {
+            return new CachedResponse(status, headers, body, now);
+        }
+
+        ClientHttpResponse toResponse() {
+            return new ClientHttpResponse() {
+                @Override
+                public HttpStatusCode getStatusCode() {
+                    return status;
+                }
+
+                @Override
+                public String getStatusText() {
+                    return status instanceof HttpStatus httpStatus ? httpStatus.getReasonPhrase() : "";
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(body);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
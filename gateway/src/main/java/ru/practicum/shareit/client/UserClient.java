@@ -1,20 +1,32 @@
 package ru.practicum.shareit.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import java.io.OutputStream;
+import java.util.Map;
+
+import static ru.practicum.shareit.config.RestTemplateConfig.STREAM_REST_TEMPLATE_BUILDER;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            @Qualifier(STREAM_REST_TEMPLATE_BUILDER) RestTemplateBuilder streamBuilder) {
         super(
                 builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .build(),
+                streamBuilder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
@@ -32,8 +44,27 @@ public class UserClient extends BaseClient {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
-        return get("");
+    public ResponseEntity<Object> getAllUsers(Integer from, Integer size, Long after) {
+        if (after == null) {
+            Map<String, Object> parameters = Map.of(
+                    "from", from,
+                    "size", size
+            );
+            return get("?from={from}&size={size}", null, parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size,
+                "after", after
+        );
+        return get("?from={from}&size={size}&after={after}", null, parameters);
+    }
+
+    /**
+     * Копирует выгрузку сервера в out по мере чтения, не собирая её в памяти шлюза.
+     */
+    public void exportUsers(HttpServletResponse response, OutputStream out) {
+        stream("/export", null, MediaType.APPLICATION_NDJSON, response, out);
     }
 
     public ResponseEntity<Object> deleteUser(Long userId) {
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки пулов HTTP-соединений шлюза с сервером: общего и отдельного для долгих потоков.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class HttpClientProperties {
+    /**
+     * Всего соединений в пуле.
+     */
+    private int maxTotal = 200;
+
+    /**
+     * Соединений на один маршрут (хост сервера).
+     */
+    private int maxPerRoute = 200;
+
+    /**
+     * Соединений в отдельном пуле долгих ответов (SSE-потоки и выгрузка): каждое занято, пока клиент слушает,
+     * и не должно отнимать место у обычных запросов.
+     */
+    private int streamMaxTotal = 1000;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Таймаут ожидания ответа сервера (чтения из сокета).
+     */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Сколько ждать свободного соединения из пула.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Время keep-alive, если сервер не прислал заголовок Keep-Alive.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /**
+     * Простаивающие дольше этого соединения закрываются фоновым потоком.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Соединение, не использовавшееся дольше этого времени, проверяется перед выдачей из пула.
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
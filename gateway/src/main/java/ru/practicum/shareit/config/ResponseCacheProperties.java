@@ -0,0 +1,39 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Настройки кэша ответов сервера на GET-запросы.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+
+    /**
+     * Сколько ответ отдаётся из кэша без обращения к серверу.
+     */
+    private Duration ttl = Duration.ofSeconds(5);
+
+    /**
+     * Сколько устаревший ответ с ETag хранится для перепроверки через If-None-Match.
+     */
+    private Duration retention = Duration.ofMinutes(10);
+
+    /**
+     * Ant-шаблоны путей, ответы на которые кэшируются. Остальные GET-запросы проходят к серверу напрямую.
+     */
+    private List<String> paths = List.of("/items", "/items/{itemId:[0-9]+}", "/items/search", "/bookings",
+            "/bookings/owner", "/bookings/{bookingId:[0-9]+}", "/requests", "/requests/all", "/requests/{requestId:[0-9]+}",
+            "/users", "/users/{userId:[0-9]+}");
+
+    /**
+     * Предельный суммарный размер тел ответов и ключей в кэше.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+}
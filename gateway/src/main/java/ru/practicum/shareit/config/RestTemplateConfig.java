@@ -1,16 +1,144 @@
 package ru.practicum.shareit.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.client.RestTemplateBuilderConfigurer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.client.PassThroughResponseErrorHandler;
+import ru.practicum.shareit.client.ResponseCacheInterceptor;
 
+/**
+ * Один пул соединений к серверу на весь шлюз: RestTemplateBuilder, из которого клиенты строят свои RestTemplate,
+ * использует общую фабрику запросов поверх этого пула и общий кэш ответов на GET-запросы.
+ * Долгие потоки (SSE, выгрузка) идут через отдельный пул без кэша, чтобы не вытеснять обычные запросы.
+ */
 @Configuration
+@EnableConfigurationProperties({HttpClientProperties.class, ResponseCacheProperties.class})
 public class RestTemplateConfig {
+    public static final String STREAM_REST_TEMPLATE_BUILDER = "shareItServerStreamRestTemplateBuilder";
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(HttpClients.createDefault()));
+    @Primary
+    public PoolingHttpClientConnectionManager shareItServerConnectionManager(HttpClientProperties properties) {
+        return connectionManager(properties, properties.getMaxTotal(), properties.getMaxPerRoute());
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManager shareItServerStreamConnectionManager(HttpClientProperties properties) {
+        return connectionManager(properties, properties.getStreamMaxTotal(), properties.getStreamMaxTotal());
+    }
+
+    private static PoolingHttpClientConnectionManager connectionManager(HttpClientProperties properties,
+                                                                        int maxTotal, int maxPerRoute) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setValidateAfterInactivity(TimeValue.of(properties.getValidateAfterInactivity()))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public CloseableHttpClient shareItServerHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                       HttpClientProperties properties) {
+        return httpClient(connectionManager, properties);
+    }
+
+    @Bean
+    public CloseableHttpClient shareItServerStreamHttpClient(
+            @Qualifier("shareItServerStreamConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            HttpClientProperties properties) {
+        return httpClient(connectionManager, properties);
+    }
+
+    private static CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                  HttpClientProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(properties.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getMaxIdleTime()))
+                .build();
+    }
+
+    @Bean
+    public HttpComponentsClientHttpRequestFactory shareItServerRequestFactory(CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit-server.response-cache", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public ResponseCacheInterceptor responseCacheInterceptor(ResponseCacheProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        return new ResponseCacheInterceptor(properties, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public RestTemplateBuilder restTemplateBuilder(RestTemplateBuilderConfigurer configurer,
+                                                   HttpComponentsClientHttpRequestFactory requestFactory,
+                                                   ObjectProvider<ResponseCacheInterceptor> responseCache) {
+        return configurer.configure(new RestTemplateBuilder())
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(responseCache.stream().toList());
+    }
+
+    /**
+     * Построитель для потоков: свой пул, без кэша ответов и с передачей ошибок сервера клиенту как есть.
+     */
+    @Bean(STREAM_REST_TEMPLATE_BUILDER)
+    public RestTemplateBuilder shareItServerStreamRestTemplateBuilder(
+            RestTemplateBuilderConfigurer configurer,
+            @Qualifier("shareItServerStreamHttpClient") CloseableHttpClient httpClient) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        return configurer.configure(new RestTemplateBuilder())
+                .requestFactory(() -> requestFactory)
+                .errorHandler(new PassThroughResponseErrorHandler());
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Метрики пула httpcomponents.httpclient.pool.* в /actuator/metrics.
+     */
+    @Bean
+    public MeterBinder shareItServerConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "shareit-server");
+    }
+
+    @Bean
+    public MeterBinder shareItServerStreamConnectionPoolMetrics(
+            @Qualifier("shareItServerStreamConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "shareit-server-stream");
     }
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Отдельный исполнитель для StreamingResponseBody: проксируемый поток занят, пока клиент слушает,
+ * поэтому каждый получает свой виртуальный поток, а не место в общем applicationTaskExecutor
+ * (8 потоков по умолчанию), где девятый подписчик ждал бы, пока кто-то отключится.
+ * Исполнитель не объявлен бином, чтобы не отключать автоконфигурацию applicationTaskExecutor; настройщик без @Order
+ * вызывается после настроек Spring Boot (@Order(0)), поэтому применяется именно этот исполнитель.
+ */
+@Configuration
+public class StreamingAsyncConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("gateway-stream-");
+        executor.setVirtualThreads(true);
+        configurer.setTaskExecutor(executor);
+    }
+}
@@ -1,13 +1,21 @@
 package ru.practicum.shareit.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.client.BookingClient;
 
+import java.time.LocalDateTime;
+
 import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 
 /**
@@ -23,51 +31,52 @@ public class BookingController {
     @PostMapping
     public ResponseEntity<Object> createBooking(@Valid @RequestBody BookingDto bookingDto,
                                                 @RequestHeader(SHARER_USER_ID) Long bookerId) {
-        ResponseEntity<Object> response = bookingClient.createBooking(bookingDto, bookerId);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        return bookingClient.createBooking(bookingDto, bookerId);
     }
 
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> approveBooking(@PathVariable Long bookingId,
                                                  @RequestParam boolean approved,
                                                  @RequestHeader(SHARER_USER_ID) Long ownerId) {
-        ResponseEntity<Object> response = bookingClient.approveBooking(bookingId, approved, ownerId);  // Исправлено: порядок параметров теперь bookingId, approved, ownerId
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        return bookingClient.approveBooking(bookingId, approved, ownerId);  // Исправлено: порядок параметров теперь bookingId, approved, ownerId
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookings(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                                HttpServletResponse response) {
+        // Тип по умолчанию; ответ сервера с ошибкой заменит его своим при копировании
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(out -> bookingClient.streamBookings(userId, response, out));
     }
 
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBookingById(@PathVariable Long bookingId,
                                                  @RequestHeader(SHARER_USER_ID) Long userId) {
-        ResponseEntity<Object> response = bookingClient.getBookingById(bookingId, userId);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+        return bookingClient.getBookingById(bookingId, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllBookingsByBooker(@RequestHeader(SHARER_USER_ID) Long bookerId,
-                                                         @RequestParam(defaultValue = "ALL") String state) {
-        ResponseEntity<Object> response = bookingClient.getAllBookingsByBooker(bookerId, state);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+    public ResponseEntity<Object> getAllBookingsByBooker(
+            @RequestHeader(SHARER_USER_ID) Long bookerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorStart,
+            @RequestParam(required = false) Long cursorId) {
+        return bookingClient.getAllBookingsByBooker(
+                bookerId, state, from, size, cursorStart, cursorId);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllBookingsByOwner(@RequestHeader(SHARER_USER_ID) Long ownerId,
-                                                        @RequestParam(defaultValue = "ALL") String state) {
-        ResponseEntity<Object> response = bookingClient.getAllBookingsByOwner(ownerId, state);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+    public ResponseEntity<Object> getAllBookingsByOwner(
+            @RequestHeader(SHARER_USER_ID) Long ownerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorStart,
+            @RequestParam(required = false) Long cursorId) {
+        return bookingClient.getAllBookingsByOwner(
+                ownerId, state, from, size, cursorStart, cursorId);
     }
 }
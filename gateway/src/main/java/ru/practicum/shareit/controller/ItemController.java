@@ -1,6 +1,9 @@
 package ru.practicum.shareit.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -10,6 +13,8 @@ import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.NewItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 
+import java.util.List;
+
 import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 
 /**
@@ -20,59 +25,58 @@ import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 @RequiredArgsConstructor
 @Validated
 public class ItemController {
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final ItemClient itemClient;
 
     @PostMapping
     public ResponseEntity<Object> createItem(@Valid @RequestBody NewItemDto newItemDto,
                                              @RequestHeader(SHARER_USER_ID) Long ownerId) {
-        ResponseEntity<Object> response = itemClient.createItem(newItemDto, ownerId);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        return itemClient.createItem(newItemDto, ownerId);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createItems(@RequestBody @Size(min = 1, max = MAX_BATCH_SIZE,
+                                                      message = "В пакете должно быть от 1 до 1000 вещей")
+                                              List<@Valid NewItemDto> newItemDtos,
+                                              @RequestHeader(SHARER_USER_ID) Long ownerId) {
+        return itemClient.createItems(newItemDtos, ownerId);
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> updateItems(@RequestBody @Size(min = 1, max = MAX_BATCH_SIZE,
+                                                      message = "В пакете должно быть от 1 до 1000 вещей")
+                                              List<UpdateItemDto> updateItemDtos,
+                                              @RequestHeader(SHARER_USER_ID) Long ownerId) {
+        return itemClient.updateItems(updateItemDtos, ownerId);
     }
 
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@PathVariable Long itemId,
                                              @RequestBody UpdateItemDto updateItemDto,
                                              @RequestHeader(SHARER_USER_ID) Long ownerId) {
-        ResponseEntity<Object> response = itemClient.updateItem(itemId, updateItemDto, ownerId);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        return itemClient.updateItem(itemId, updateItemDto, ownerId);
     }
 
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> getItemById(@PathVariable Long itemId,
                                               @RequestHeader(SHARER_USER_ID) Long userId) {
-        ResponseEntity<Object> response = itemClient.getItemById(itemId, userId);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+        return itemClient.getItemById(itemId, userId);
     }
 
     @GetMapping
     public ResponseEntity<Object> getAllItemsByOwner(@RequestHeader(SHARER_USER_ID) Long ownerId,
-                                                     @RequestParam(defaultValue = "0") int from,
-                                                     @RequestParam(defaultValue = "10") int size) {
-        ResponseEntity<Object> response = itemClient.getAllItemsByOwner(ownerId, from, size);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+                                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                     @RequestParam(defaultValue = "10") @Positive int size,
+                                                     @RequestParam(required = false) Long after) {
+        return itemClient.getAllItemsByOwner(ownerId, from, size, after);
     }
 
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@RequestParam String text,
                                               @RequestParam(defaultValue = "0") int from,
                                               @RequestParam(defaultValue = "10") int size) {
-        ResponseEntity<Object> response = itemClient.searchItems(text, from, size);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+        return itemClient.searchItems(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -81,10 +85,6 @@ public class ItemController {
                                              @Valid @RequestBody CommentDto commentDto,
                                              @RequestParam(defaultValue = "0") int from,
                                              @RequestParam(defaultValue = "10") int size) {
-        ResponseEntity<Object> response = itemClient.addComment(itemId, userId, commentDto, from, size);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        return itemClient.addComment(itemId, userId, commentDto, from, size);
     }
 }
\ No newline at end of file
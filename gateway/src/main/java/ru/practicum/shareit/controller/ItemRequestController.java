@@ -1,10 +1,13 @@
 package ru.practicum.shareit.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.client.ItemRequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -23,40 +26,34 @@ public class ItemRequestController {
     @PostMapping
     public ResponseEntity<Object> createRequest(@Valid @RequestBody ItemRequestDto itemRequestDto,
                                                 @RequestHeader(SHARER_USER_ID) Long requestorId) {
-        ResponseEntity<Object> response = itemRequestClient.createRequest(itemRequestDto, requestorId);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        return itemRequestClient.createRequest(itemRequestDto, requestorId);
     }
 
     @GetMapping
     public ResponseEntity<Object> getUserRequests(@RequestHeader(SHARER_USER_ID) Long requestorId) {
-        ResponseEntity<Object> response = itemRequestClient.getUserRequests(requestorId);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+        return itemRequestClient.getUserRequests(requestorId);
     }
 
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequests(@RequestHeader(SHARER_USER_ID) Long userId,
                                                  @RequestParam(defaultValue = "0") int from,
-                                                 @RequestParam(defaultValue = "10") int size) {
-        ResponseEntity<Object> response = itemRequestClient.getAllRequests(userId, from, size);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+                                                 @RequestParam(defaultValue = "10") int size,
+                                                 @RequestParam(required = false) String cursor) {
+        return itemRequestClient.getAllRequests(userId, from, size, cursor);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAnswers(@RequestHeader(SHARER_USER_ID) Long userId,
+                                                               HttpServletResponse response) {
+        // Тип по умолчанию; ответ сервера с ошибкой заменит его своим при копировании
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(out -> itemRequestClient.streamAnswers(userId, response, out));
     }
 
     @GetMapping("/{requestId}")
     public ResponseEntity<Object> getRequestById(@PathVariable Long requestId,
                                                  @RequestHeader(SHARER_USER_ID) Long userId) {
-        ResponseEntity<Object> response = itemRequestClient.getRequestById(requestId, userId);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+        return itemRequestClient.getRequestById(requestId, userId);
     }
 }
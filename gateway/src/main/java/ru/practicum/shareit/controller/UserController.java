@@ -1,10 +1,15 @@
 package ru.practicum.shareit.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.client.UserClient;
 import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
@@ -21,39 +26,33 @@ public class UserController {
 
     @PostMapping
     public ResponseEntity<Object> createUser(@Valid @RequestBody NewUserDto userDto) {
-        ResponseEntity<Object> response = userClient.createUser(userDto);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        return userClient.createUser(userDto);
     }
 
     @PatchMapping("/{userId}")
     public ResponseEntity<Object> updateUser(@PathVariable Long userId, @Valid @RequestBody UpdateUserDto request) {
         request.setId(userId);
-        ResponseEntity<Object> response = userClient.updateUser(userId, request);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        return userClient.updateUser(userId, request);
     }
 
     @GetMapping("/{userId}")
     public ResponseEntity<Object> getUserById(@PathVariable Long userId) {
-        ResponseEntity<Object> response = userClient.getUserById(userId);
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+        return userClient.getUserById(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAll() {
-        ResponseEntity<Object> response = userClient.getAllUsers();
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-        return ResponseEntity.ok(response.getBody());
+    public ResponseEntity<Object> findAll(@RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                          @RequestParam(defaultValue = "10") @Positive int size,
+                                          @RequestParam(required = false) Long after) {
+        return userClient.getAllUsers(from, size, after);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(HttpServletResponse response) {
+        // Тип по умолчанию; ответ сервера с ошибкой заменит его своим при копировании
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> userClient.exportUsers(response, out));
     }
 
     @DeleteMapping("/{userId}")
@@ -16,6 +16,11 @@ public class UpdateItemDto {
     private String description;
     private Boolean available;
 
+    /**
+     * Нужен только в пакетном обновлении, в одиночном id берётся из пути.
+     */
+    private Long id;
+
     public boolean hasName() {
         return name != null && !name.isBlank();
     }
@@ -1,18 +1,26 @@
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import ru.practicum.shareit.client.BaseClient;
 
 import java.util.Map;
 
+import static client.ServerResponses.relay;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.constants.HttpHeaders.NEXT_CURSOR;
 
 @ExtendWith(MockitoExtension.class)
 public class BaseClientTest {
@@ -27,6 +35,11 @@ public class BaseClientTest {
         baseClient = new TestBaseClient(restTemplate);
     }
 
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
     private static class TestBaseClient extends BaseClient {
         public TestBaseClient(RestTemplate rest) {
             super(rest);
@@ -91,122 +104,120 @@ public class BaseClientTest {
 
     @Test
     void get_withoutParameters() {
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok("response");
-        when(restTemplate.exchange(eq("path"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expectedResponse);
+        ResponseEntity<byte[]> expectedResponse = ResponseEntity.ok("response".getBytes());
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expectedResponse));
 
         ResponseEntity<Object> response = baseClient.testGet("path");
 
         assertEquals(expectedResponse, response);
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class));
+        verify(restTemplate).execute(eq("path"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class));
     }
 
     @Test
     void get_withUserId() {
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok("response");
-        when(restTemplate.exchange(eq("path"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expectedResponse);
+        ResponseEntity<byte[]> expectedResponse = ResponseEntity.ok("response".getBytes());
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expectedResponse));
 
         ResponseEntity<Object> response = baseClient.testGet("path", 1L);
 
         assertEquals(expectedResponse, response);
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class));
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.GET),
-                argThat(entity -> entity.getHeaders().getFirst("X-Sharer-User-Id").equals("1")), eq(Object.class));
+        verify(restTemplate).execute(eq("path"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class));
+        verify(restTemplate).httpEntityCallback(
+                argThat((HttpEntity<?> entity) -> entity.getHeaders().getFirst("X-Sharer-User-Id").equals("1")));
     }
 
     @Test
     void get_withUserIdAndParameters() {
         Map<String, Object> parameters = Map.of("key", "value");
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok("response");
-        when(restTemplate.exchange(eq("path"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class), eq(parameters)))
-                .thenReturn(expectedResponse);
+        ResponseEntity<byte[]> expectedResponse = ResponseEntity.ok("response".getBytes());
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(parameters)))
+                .thenAnswer(relay(expectedResponse));
 
         ResponseEntity<Object> response = baseClient.testGet("path", 1L, parameters);
 
         assertEquals(expectedResponse, response);
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class), eq(parameters));
+        verify(restTemplate).execute(eq("path"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(parameters));
     }
 
     @Test
     void post_withBody() {
         String body = "testBody";
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok("response");
-        when(restTemplate.exchange(eq("path"), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expectedResponse);
+        ResponseEntity<byte[]> expectedResponse = ResponseEntity.ok("response".getBytes());
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expectedResponse));
 
         ResponseEntity<Object> response = baseClient.testPost("path", body);
 
         assertEquals(expectedResponse, response);
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.POST),
-                argThat(entity -> entity.getBody().equals(body)), eq(Object.class));
+        verify(restTemplate).httpEntityCallback(argThat((HttpEntity<?> entity) -> entity.getBody().equals(body)));
     }
 
     @Test
     void post_withUserIdAndBody() {
         String body = "testBody";
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok("response");
-        when(restTemplate.exchange(eq("path"), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expectedResponse);
+        ResponseEntity<byte[]> expectedResponse = ResponseEntity.ok("response".getBytes());
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expectedResponse));
 
         ResponseEntity<Object> response = baseClient.testPost("path", 1L, body);
 
         assertEquals(expectedResponse, response);
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.POST),
-                argThat(entity -> entity.getHeaders().getFirst("X-Sharer-User-Id").equals("1") && entity.getBody().equals(body)),
-                eq(Object.class));
+        verify(restTemplate).httpEntityCallback(argThat((HttpEntity<?> entity) ->
+                entity.getHeaders().getFirst("X-Sharer-User-Id").equals("1") && entity.getBody().equals(body)));
     }
 
     @Test
     void post_withUserIdParametersAndBody() {
         Map<String, Object> parameters = Map.of("key", "value");
         String body = "testBody";
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok("response");
-        when(restTemplate.exchange(eq("path"), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class), eq(parameters)))
-                .thenReturn(expectedResponse);
+        ResponseEntity<byte[]> expectedResponse = ResponseEntity.ok("response".getBytes());
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.POST), any(), any(ResponseExtractor.class), eq(parameters)))
+                .thenAnswer(relay(expectedResponse));
 
         ResponseEntity<Object> response = baseClient.testPost("path", 1L, parameters, body);
 
         assertEquals(expectedResponse, response);
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class), eq(parameters));
+        verify(restTemplate).execute(eq("path"), eq(HttpMethod.POST), any(), any(ResponseExtractor.class), eq(parameters));
     }
 
     @Test
     void put_withUserIdAndBody() {
         String body = "testBody";
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok("response");
-        when(restTemplate.exchange(eq("path"), eq(HttpMethod.PUT), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expectedResponse);
+        ResponseEntity<byte[]> expectedResponse = ResponseEntity.ok("response".getBytes());
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.PUT), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expectedResponse));
 
         ResponseEntity<Object> response = baseClient.testPut("path", 1L, body);
 
         assertEquals(expectedResponse, response);
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.PUT), any(HttpEntity.class), eq(Object.class));
+        verify(restTemplate).execute(eq("path"), eq(HttpMethod.PUT), any(), any(ResponseExtractor.class));
     }
 
     @Test
     void patch_withUserIdAndBody() {
         String body = "testBody";
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok("response");
-        when(restTemplate.exchange(eq("path"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expectedResponse);
+        ResponseEntity<byte[]> expectedResponse = ResponseEntity.ok("response".getBytes());
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.PATCH), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expectedResponse));
 
         ResponseEntity<Object> response = baseClient.testPatch("path", 1L, body);
 
         assertEquals(expectedResponse, response);
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class));
+        verify(restTemplate).execute(eq("path"), eq(HttpMethod.PATCH), any(), any(ResponseExtractor.class));
     }
 
     @Test
     void delete_withUserId() {
-        ResponseEntity<Object> expectedResponse = ResponseEntity.noContent().build();
-        when(restTemplate.exchange(eq("path"), eq(HttpMethod.DELETE), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expectedResponse);
+        ResponseEntity<byte[]> expectedResponse = ResponseEntity.noContent().build();
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.DELETE), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expectedResponse));
 
         ResponseEntity<Object> response = baseClient.testDelete("path", 1L);
 
         assertEquals(expectedResponse, response);
-        verify(restTemplate).exchange(eq("path"), eq(HttpMethod.DELETE), any(HttpEntity.class), eq(Object.class));
+        verify(restTemplate).execute(eq("path"), eq(HttpMethod.DELETE), any(), any(ResponseExtractor.class));
     }
 
     @Test
@@ -215,7 +226,7 @@ public class BaseClientTest {
         when(exception.getStatusCode()).thenReturn(HttpStatus.BAD_REQUEST);
         when(exception.getResponseBodyAsByteArray()).thenReturn("error body".getBytes());
 
-        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(Object.class)))
+        when(restTemplate.execute(anyString(), any(HttpMethod.class), any(), any(ResponseExtractor.class)))
                 .thenThrow(exception);
 
         ResponseEntity<Object> response = baseClient.testGet("path");
@@ -223,4 +234,87 @@ public class BaseClientTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertArrayEquals("error body".getBytes(), (byte[]) response.getBody());
     }
-}
\ No newline at end of file
+
+    @Test
+    void makeAndSendRequest_passesServerBytesAndContentTypeThrough() {
+        byte[] json = "{\"id\":1}".getBytes();
+        HttpHeaders serverHeaders = new HttpHeaders();
+        serverHeaders.setContentType(MediaType.APPLICATION_JSON);
+        serverHeaders.setETag("\"item-1\"");
+        serverHeaders.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(new ResponseEntity<>(json, serverHeaders, HttpStatus.OK)));
+
+        ResponseEntity<Object> response = baseClient.testGet("path");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(json, (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("\"item-1\"", response.getHeaders().getETag());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.TRANSFER_ENCODING));
+    }
+
+    @Test
+    void makeAndSendRequest_keepsErrorContentType() {
+        HttpHeaders serverHeaders = new HttpHeaders();
+        serverHeaders.setContentType(MediaType.APPLICATION_JSON);
+        HttpStatusCodeException exception = mock(HttpStatusCodeException.class);
+        when(exception.getStatusCode()).thenReturn(HttpStatus.NOT_FOUND);
+        when(exception.getResponseHeaders()).thenReturn(serverHeaders);
+        when(exception.getResponseBodyAsByteArray()).thenReturn("{\"error\":\"not found\"}".getBytes());
+
+        when(restTemplate.execute(anyString(), any(HttpMethod.class), any(), any(ResponseExtractor.class)))
+                .thenThrow(exception);
+
+        ResponseEntity<Object> response = baseClient.testGet("path");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void makeAndSendRequest_insideGatewayRequest_copiesServerBodyToServletResponse() throws Exception {
+        byte[] json = "{\"id\":1}".getBytes();
+        HttpHeaders serverHeaders = new HttpHeaders();
+        serverHeaders.setContentType(MediaType.APPLICATION_JSON);
+        serverHeaders.setETag("\"item-1\"");
+        serverHeaders.set(NEXT_CURSOR, "next");
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(new ResponseEntity<>(json, serverHeaders, HttpStatus.OK)));
+        MockHttpServletResponse servletResponse = bindGatewayRequest(new MockHttpServletRequest("GET", "/items/1"));
+
+        ResponseEntity<Object> response = baseClient.testGet("path");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(200, servletResponse.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, servletResponse.getContentType());
+        assertEquals("\"item-1\"", servletResponse.getHeader(HttpHeaders.ETAG));
+        assertEquals("next", servletResponse.getHeader(NEXT_CURSOR));
+        assertArrayEquals(json, servletResponse.getContentAsByteArray());
+    }
+
+    @Test
+    void makeAndSendRequest_insideGatewayRequest_answersNotModifiedOnMatchingEtag() {
+        HttpHeaders serverHeaders = new HttpHeaders();
+        serverHeaders.setContentType(MediaType.APPLICATION_JSON);
+        serverHeaders.setETag("\"item-1\"");
+        when(restTemplate.execute(eq("path"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(new ResponseEntity<>("{\"id\":1}".getBytes(), serverHeaders, HttpStatus.OK)));
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/items/1");
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"item-1\"");
+        MockHttpServletResponse servletResponse = bindGatewayRequest(servletRequest);
+
+        ResponseEntity<Object> response = baseClient.testGet("path");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(304, servletResponse.getStatus());
+        assertEquals(0, servletResponse.getContentAsByteArray().length);
+    }
+
+    private static MockHttpServletResponse bindGatewayRequest(MockHttpServletRequest servletRequest) {
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(servletRequest, servletResponse));
+        return servletResponse;
+    }
+}
@@ -1,6 +1,15 @@
 package booking;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,18 +20,29 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriTemplateHandler;
 import ru.practicum.shareit.client.BookingClient;
 
+import static client.ServerResponses.relay;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 
 @ExtendWith(MockitoExtension.class)
 public class BookingClientTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
 
     @Mock
     private RestTemplateBuilder builder;
@@ -37,15 +57,15 @@ public class BookingClientTest {
         MockitoAnnotations.openMocks(this);
         when(builder.uriTemplateHandler(any(UriTemplateHandler.class))).thenReturn(builder);
         when(builder.build()).thenReturn(rest);
-        client = new BookingClient("http://test-server", builder);
+        client = new BookingClient("http://test-server", builder, builder);
     }
 
     @Test
     void createBooking_shouldReturnCreated() {
         Object bookingDto = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.CREATED).body(bookingDto);
-        when(rest.exchange(eq(""), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.CREATED).body(json(bookingDto));
+        when(rest.execute(eq(""), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.createBooking(bookingDto, 1L);
 
@@ -54,9 +74,9 @@ public class BookingClientTest {
 
     @Test
     void approveBooking_shouldReturnOk() {
-        ResponseEntity<Object> expected = ResponseEntity.ok().build();
-        when(rest.exchange(eq("/1?approved={approved}"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class), eq(Map.of("approved", true))))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok().build();
+        when(rest.execute(eq("/1?approved={approved}"), eq(HttpMethod.PATCH), any(), any(ResponseExtractor.class), eq(Map.of("approved", true))))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.approveBooking(1L, true, 1L);
 
@@ -66,9 +86,9 @@ public class BookingClientTest {
     @Test
     void getBookingById_shouldReturnOk() {
         Object booking = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.ok(booking);
-        when(rest.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(booking));
+        when(rest.execute(eq("/1"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getBookingById(1L, 1L);
 
@@ -78,11 +98,11 @@ public class BookingClientTest {
     @Test
     void getAllBookingsByBooker_shouldReturnOk() {
         Object bookings = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.ok(bookings);
-        when(rest.exchange(eq("?state={state}"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class), eq(Map.of("state", "ALL"))))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(bookings));
+        when(rest.execute(eq("?state={state}&from={from}&size={size}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(Map.of("state", "ALL", "from", 0, "size", 10))))
+                .thenAnswer(relay(expected));
 
-        ResponseEntity<Object> response = client.getAllBookingsByBooker(1L, "ALL");
+        ResponseEntity<Object> response = client.getAllBookingsByBooker(1L, "ALL", 0, 10, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -90,22 +110,50 @@ public class BookingClientTest {
     @Test
     void getAllBookingsByOwner_shouldReturnOk() {
         Object bookings = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.ok(bookings);
-        when(rest.exchange(eq("/owner?state={state}"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class), eq(Map.of("state", "ALL"))))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(bookings));
+        when(rest.execute(eq("/owner?state={state}&from={from}&size={size}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(Map.of("state", "ALL", "from", 0, "size", 10))))
+                .thenAnswer(relay(expected));
 
-        ResponseEntity<Object> response = client.getAllBookingsByOwner(1L, "ALL");
+        ResponseEntity<Object> response = client.getAllBookingsByOwner(1L, "ALL", 0, 10, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
+    @Test
+    void getAllBookingsByBooker_shouldSendCursor() {
+        LocalDateTime cursorStart = LocalDateTime.of(2026, 1, 1, 10, 0);
+        Object bookings = new Object();
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(bookings));
+        when(rest.execute(eq("?state={state}&from={from}&size={size}&cursorStart={cursorStart}&cursorId={cursorId}"),
+                eq(HttpMethod.GET), any(), any(ResponseExtractor.class),
+                eq(Map.of("state", "ALL", "from", 0, "size", 10, "cursorStart", cursorStart, "cursorId", 3L))))
+                .thenAnswer(relay(expected));
+
+        ResponseEntity<Object> response = client.getAllBookingsByBooker(1L, "ALL", 0, 10, cursorStart, 3L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void getAllBookingsByBooker_shouldForwardIncompleteCursor() {
+        ResponseEntity<byte[]> expected = ResponseEntity.badRequest().body(json(Map.of("error", "Некорректный курсор")));
+        when(rest.execute(eq("?state={state}&from={from}&size={size}&cursorId={cursorId}"),
+                eq(HttpMethod.GET), any(), any(ResponseExtractor.class),
+                eq(Map.of("state", "ALL", "from", 0, "size", 10, "cursorId", 3L))))
+                .thenAnswer(relay(expected));
+
+        ResponseEntity<Object> response = client.getAllBookingsByBooker(1L, "ALL", 0, 10, null, 3L);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     // Error case tests
     @Test
     void createBooking_shouldHandleBadRequest() {
         Object bookingDto = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.badRequest().body(Map.of("error", "Validation error"));
-        when(rest.exchange(eq(""), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.badRequest().body(json(Map.of("error", "Validation error")));
+        when(rest.execute(eq(""), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.createBooking(bookingDto, 1L);
 
@@ -114,9 +162,9 @@ public class BookingClientTest {
 
     @Test
     void approveBooking_shouldHandleInternalServerError() {
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Internal server error"));
-        when(rest.exchange(eq("/1?approved={approved}"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class), eq(Map.of("approved", true))))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(json(Map.of("error", "Internal server error")));
+        when(rest.execute(eq("/1?approved={approved}"), eq(HttpMethod.PATCH), any(), any(ResponseExtractor.class), eq(Map.of("approved", true))))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.approveBooking(1L, true, 1L);
 
@@ -125,12 +173,66 @@ public class BookingClientTest {
 
     @Test
     void getBookingById_shouldHandleNotFound() {
-        ResponseEntity<Object> expected = ResponseEntity.notFound().build();
-        when(rest.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.notFound().build();
+        when(rest.execute(eq("/1"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getBookingById(1L, 1L);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamBookings_shouldForwardUserAndFlushEachChunk() throws IOException {
+        byte[] events = "id:1\nevent:booking\ndata:{\"id\":1}\n\n".getBytes(StandardCharsets.UTF_8);
+        MockClientHttpRequest request = new MockClientHttpRequest();
+        when(rest.execute(eq("/stream"), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    RequestCallback callback = invocation.getArgument(2);
+                    callback.doWithRequest(request);
+                    ResponseExtractor<?> extractor = invocation.getArgument(3);
+                    return extractor.extractData(new MockClientHttpResponse(events, HttpStatus.OK));
+                });
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        client.streamBookings(2L, new MockHttpServletResponse(), out);
+
+        assertEquals("2", request.getHeaders().getFirst(SHARER_USER_ID));
+        assertEquals(MediaType.TEXT_EVENT_STREAM, request.getHeaders().getAccept().get(0));
+        assertArrayEquals(events, out.toByteArray());
+        assertEquals(1, flushes.get());
+    }
+
+    @Test
+    void streamBookings_shouldRelayServerErrorStatusAndBody() throws IOException {
+        byte[] error = "{\"error\":\"Пользователь не найден\"}".getBytes(StandardCharsets.UTF_8);
+        MockClientHttpResponse serverResponse = new MockClientHttpResponse(error, HttpStatus.NOT_FOUND);
+        serverResponse.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        when(rest.execute(eq("/stream"), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    ResponseExtractor<?> extractor = invocation.getArgument(3);
+                    return extractor.extractData(serverResponse);
+                });
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        client.streamBookings(2L, servletResponse, servletResponse.getOutputStream());
+
+        assertEquals(404, servletResponse.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, servletResponse.getContentType());
+        assertArrayEquals(error, servletResponse.getContentAsByteArray());
+    }
+
+    private static byte[] json(Object body) {
+        try {
+            return MAPPER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package booking;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -10,15 +11,19 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.ShareItGateway;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.client.BookingClient;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -132,7 +137,7 @@ class BookingControllerTest {
         List<BookingResponseDto> responseList = List.of(new BookingResponseDto(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
                 new BookingResponseDto.Item(1L, "Item Name"), new BookingResponseDto.Booker(2L), "WAITING"));
 
-        when(bookingClient.getAllBookingsByBooker(eq(2L), eq("ALL"))).thenReturn(ResponseEntity.ok(responseList));
+        when(bookingClient.getAllBookingsByBooker(eq(2L), eq("ALL"), eq(0), eq(10), isNull(), isNull())).thenReturn(ResponseEntity.ok(responseList));
 
         mockMvc.perform(get("/bookings")
                         .header(userIdHeader, 2L)
@@ -143,7 +148,7 @@ class BookingControllerTest {
 
     @Test
     void getAllBookingsByBooker_invalidState() throws Exception {
-        when(bookingClient.getAllBookingsByBooker(eq(2L), eq("INVALID"))).thenReturn(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Недопустимое состояние"));
+        when(bookingClient.getAllBookingsByBooker(eq(2L), eq("INVALID"), eq(0), eq(10), isNull(), isNull())).thenReturn(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Недопустимое состояние"));
 
         mockMvc.perform(get("/bookings")
                         .header(userIdHeader, 2L)
@@ -156,7 +161,7 @@ class BookingControllerTest {
         List<BookingResponseDto> responseList = List.of(new BookingResponseDto(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
                 new BookingResponseDto.Item(1L, "Item Name"), new BookingResponseDto.Booker(2L), "WAITING"));
 
-        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("ALL"))).thenReturn(ResponseEntity.ok(responseList));
+        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("ALL"), eq(0), eq(10), isNull(), isNull())).thenReturn(ResponseEntity.ok(responseList));
 
         mockMvc.perform(get("/bookings/owner")
                         .header(userIdHeader, 1L)
@@ -170,7 +175,7 @@ class BookingControllerTest {
         List<BookingResponseDto> responseList = List.of(new BookingResponseDto(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
                 new BookingResponseDto.Item(1L, "Item Name"), new BookingResponseDto.Booker(2L), "WAITING"));
 
-        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("FUTURE"))).thenReturn(ResponseEntity.ok(responseList));
+        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("FUTURE"), eq(0), eq(10), isNull(), isNull())).thenReturn(ResponseEntity.ok(responseList));
 
         mockMvc.perform(get("/bookings/owner")
                         .header(userIdHeader, 1L)
@@ -184,7 +189,7 @@ class BookingControllerTest {
         List<BookingResponseDto> responseList = List.of(new BookingResponseDto(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
                 new BookingResponseDto.Item(1L, "Item Name"), new BookingResponseDto.Booker(2L), "WAITING"));
 
-        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("WAITING"))).thenReturn(ResponseEntity.ok(responseList));
+        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("WAITING"), eq(0), eq(10), isNull(), isNull())).thenReturn(ResponseEntity.ok(responseList));
 
         mockMvc.perform(get("/bookings/owner")
                         .header(userIdHeader, 1L)
@@ -198,7 +203,7 @@ class BookingControllerTest {
         List<BookingResponseDto> responseList = List.of(new BookingResponseDto(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
                 new BookingResponseDto.Item(1L, "Item Name"), new BookingResponseDto.Booker(2L), "REJECTED"));
 
-        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("REJECTED"))).thenReturn(ResponseEntity.ok(responseList));
+        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("REJECTED"), eq(0), eq(10), isNull(), isNull())).thenReturn(ResponseEntity.ok(responseList));
 
         mockMvc.perform(get("/bookings/owner")
                         .header(userIdHeader, 1L)
@@ -209,7 +214,7 @@ class BookingControllerTest {
 
     @Test
     void getAllBookingsByOwner_userNotFound() throws Exception {
-        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("ALL"))).thenReturn(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Пользователь не найден"));
+        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("ALL"), eq(0), eq(10), isNull(), isNull())).thenReturn(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Пользователь не найден"));
 
         mockMvc.perform(get("/bookings/owner")
                         .header(userIdHeader, 1L)
@@ -219,11 +224,30 @@ class BookingControllerTest {
 
     @Test
     void getAllBookingsByOwner_invalidState() throws Exception {
-        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("INVALID"))).thenReturn(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Недопустимое состояние"));
+        when(bookingClient.getAllBookingsByOwner(eq(1L), eq("INVALID"), eq(0), eq(10), isNull(), isNull())).thenReturn(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Недопустимое состояние"));
 
         mockMvc.perform(get("/bookings/owner")
                         .header(userIdHeader, 1L)
                         .param("state", "INVALID"))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamBookings_proxiesServerEvents() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id:1\nevent:booking\ndata:{\"id\":1}\n\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bookingClient).streamBookings(eq(1L), any(HttpServletResponse.class), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/bookings/stream")
+                        .header(userIdHeader, 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string("id:1\nevent:booking\ndata:{\"id\":1}\n\n"));
+    }
+}
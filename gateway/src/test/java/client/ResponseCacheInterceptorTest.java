@@ -0,0 +1,286 @@
+package client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.client.ResponseCacheInterceptor;
+import ru.practicum.shareit.config.ResponseCacheProperties;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ResponseCacheInterceptorTest {
+    private static final byte[] ITEM = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Deque<ClientHttpResponse> serverResponses = new ArrayDeque<>();
+    private final List<HttpRequest> serverRequests = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setTtl(Duration.ofSeconds(5));
+        properties.setRetention(Duration.ofMinutes(10));
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new ResponseCacheInterceptor(properties, meterRegistry, nanos::get);
+    }
+
+    @Test
+    void freshResponse_isServedWithoutCallingServer() throws IOException {
+        serverResponses.add(ok(ITEM, "\"1\""));
+
+        ClientHttpResponse first = send(HttpMethod.GET, "/items/1", 1L);
+        ClientHttpResponse second = send(HttpMethod.GET, "/items/1", 1L);
+
+        assertEquals(1, serverRequests.size());
+        assertEquals("{\"id\":1}", body(first));
+        assertEquals("{\"id\":1}", body(second));
+        assertEquals(MediaType.APPLICATION_JSON, second.getHeaders().getContentType());
+        assertEquals(1.0, count("hit"));
+        assertEquals(1.0, count("miss"));
+    }
+
+    @Test
+    void staleResponse_isRevalidatedWithIfNoneMatch() throws IOException {
+        serverResponses.add(ok(ITEM, "\"1\""));
+        serverResponses.add(new MockClientHttpResponse(new byte[0], HttpStatus.NOT_MODIFIED));
+
+        send(HttpMethod.GET, "/items/1", 1L);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        ClientHttpResponse revalidated = send(HttpMethod.GET, "/items/1", 1L);
+
+        assertEquals(2, serverRequests.size());
+        assertEquals("\"1\"", serverRequests.get(1).getHeaders().getIfNoneMatch().get(0));
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertEquals("{\"id\":1}", body(revalidated));
+        assertEquals(1.0, count("revalidated"));
+    }
+
+    @Test
+    void staleResponseWithoutEtag_isFetchedAgain() throws IOException {
+        serverResponses.add(ok(ITEM, null));
+        serverResponses.add(ok("{\"id\":2}".getBytes(StandardCharsets.UTF_8), null));
+
+        send(HttpMethod.GET, "/items/1", 1L);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        ClientHttpResponse refetched = send(HttpMethod.GET, "/items/1", 1L);
+
+        assertNull(serverRequests.get(1).getHeaders().getFirst("If-None-Match"));
+        assertEquals("{\"id\":2}", body(refetched));
+        assertEquals(2.0, count("miss"));
+    }
+
+    @Test
+    void mutatingRequest_invalidatesCache() throws IOException {
+        serverResponses.add(ok(ITEM, "\"1\""));
+        serverResponses.add(ok(ITEM, null));
+        serverResponses.add(ok("{\"id\":1,\"name\":\"new\"}".getBytes(StandardCharsets.UTF_8), "\"2\""));
+
+        send(HttpMethod.GET, "/items/1", 1L);
+        send(HttpMethod.PATCH, "/items/1", 1L);
+        ClientHttpResponse afterUpdate = send(HttpMethod.GET, "/items/1", 1L);
+
+        assertEquals(3, serverRequests.size());
+        assertNull(serverRequests.get(2).getHeaders().getFirst("If-None-Match"));
+        assertEquals("{\"id\":1,\"name\":\"new\"}", body(afterUpdate));
+    }
+
+    @Test
+    void responses_areKeptPerUser() throws IOException {
+        serverResponses.add(ok(ITEM, "\"1\""));
+        serverResponses.add(ok(ITEM, "\"1\""));
+
+        send(HttpMethod.GET, "/items/1", 1L);
+        send(HttpMethod.GET, "/items/1", 2L);
+
+        assertEquals(2, serverRequests.size());
+        assertEquals(0.0, count("hit"));
+    }
+
+    @Test
+    void errorResponses_areNotCached() throws IOException {
+        serverResponses.add(new MockClientHttpResponse(new byte[0], HttpStatus.NOT_FOUND));
+        serverResponses.add(ok(ITEM, "\"1\""));
+
+        ClientHttpResponse notFound = send(HttpMethod.GET, "/items/1", 1L);
+        ClientHttpResponse found = send(HttpMethod.GET, "/items/1", 1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        assertEquals(2, serverRequests.size());
+    }
+
+    @Test
+    void streamedResponses_areNotBuffered() throws IOException {
+        MockClientHttpResponse export = new MockClientHttpResponse(ITEM, HttpStatus.OK);
+        export.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+        serverResponses.add(export);
+        serverResponses.add(ok(ITEM, null));
+
+        ClientHttpResponse first = send(HttpMethod.GET, "/users/export", 1L);
+        send(HttpMethod.GET, "/users/export", 1L);
+
+        assertSame(export, first);
+        assertEquals(2, serverRequests.size());
+    }
+
+    @Test
+    void eventStreams_areNotBuffered() throws IOException {
+        MockClientHttpResponse events = new MockClientHttpResponse(ITEM, HttpStatus.OK);
+        events.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        serverResponses.add(events);
+
+        assertSame(events, send(HttpMethod.GET, "/bookings/stream", 1L));
+    }
+
+    @Test
+    void pathsOutsideAllowList_areNotCached() throws IOException {
+        serverResponses.add(ok(ITEM, "\"1\""));
+        serverResponses.add(ok(ITEM, "\"1\""));
+
+        send(HttpMethod.GET, "/requests/stream", 1L);
+        send(HttpMethod.GET, "/requests/stream", 1L);
+
+        assertEquals(2, serverRequests.size());
+        assertEquals(0.0, count("miss"));
+        assertEquals(0.0, cacheSize());
+    }
+
+    @Test
+    void search_isCachedPerQuery() throws IOException {
+        serverResponses.add(ok(ITEM, "\"1\""));
+        serverResponses.add(ok("[]".getBytes(StandardCharsets.UTF_8), "\"2\""));
+
+        send(HttpMethod.GET, "/items/search?text=drill", 1L);
+        ClientHttpResponse other = send(HttpMethod.GET, "/items/search?text=saw", 1L);
+        ClientHttpResponse repeated = send(HttpMethod.GET, "/items/search?text=drill", 1L);
+
+        assertEquals(2, serverRequests.size());
+        assertEquals("[]", body(other));
+        assertEquals("{\"id\":1}", body(repeated));
+        assertEquals(1.0, count("hit"));
+    }
+
+    @Test
+    void booking_invalidatesItemViewsButNotUsers() throws IOException {
+        serverResponses.add(ok(ITEM, "\"1\""));
+        serverResponses.add(ok(ITEM, "\"u1\""));
+        serverResponses.add(ok(ITEM, null));
+        serverResponses.add(ok(ITEM, "\"2\""));
+
+        send(HttpMethod.GET, "/items/1", 1L);
+        send(HttpMethod.GET, "/users/1", 1L);
+        send(HttpMethod.POST, "/bookings", 2L);
+        send(HttpMethod.GET, "/items/1", 1L);
+        send(HttpMethod.GET, "/users/1", 1L);
+
+        assertEquals(4, serverRequests.size());
+        assertEquals("/items/1", serverRequests.get(3).getURI().getPath());
+        assertEquals(1.0, count("hit"));
+    }
+
+    @Test
+    void newRequest_keepsItemViews() throws IOException {
+        serverResponses.add(ok(ITEM, "\"1\""));
+        serverResponses.add(ok(ITEM, null));
+
+        send(HttpMethod.GET, "/items/1", 1L);
+        send(HttpMethod.POST, "/requests", 2L);
+        send(HttpMethod.GET, "/items/1", 1L);
+
+        assertEquals(2, serverRequests.size());
+        assertEquals(1.0, count("hit"));
+    }
+
+    @Test
+    void userChange_invalidatesEverything() throws IOException {
+        serverResponses.add(ok(ITEM, "\"1\""));
+        serverResponses.add(ok(ITEM, "\"r1\""));
+        serverResponses.add(ok(ITEM, null));
+        serverResponses.add(ok(ITEM, "\"1\""));
+        serverResponses.add(ok(ITEM, "\"r1\""));
+
+        send(HttpMethod.GET, "/items/1", 1L);
+        send(HttpMethod.GET, "/requests/1", 1L);
+        send(HttpMethod.DELETE, "/users/3", 3L);
+        send(HttpMethod.GET, "/items/1", 1L);
+        send(HttpMethod.GET, "/requests/1", 1L);
+
+        assertEquals(5, serverRequests.size());
+        assertEquals(0.0, count("hit"));
+    }
+
+    @Test
+    void cacheSize_isBoundedByBodyBytes() throws Exception {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxSize(DataSize.ofBytes(100));
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new ResponseCacheInterceptor(properties, meterRegistry, nanos::get);
+        byte[] large = new byte[60];
+        serverResponses.add(ok(large, null));
+        serverResponses.add(ok(large, null));
+
+        send(HttpMethod.GET, "/items/1", 1L);
+        send(HttpMethod.GET, "/items/2", 1L);
+
+        // Вытеснение Caffeine выполняет асинхронно
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (cacheSize() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1.0, cacheSize());
+    }
+
+    private ClientHttpResponse send(HttpMethod method, String path, Long userId) throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(method, URI.create("http://server" + path));
+        request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+        return interceptor.intercept(request, new byte[0], (req, body) -> {
+            serverRequests.add(req);
+            return serverResponses.poll();
+        });
+    }
+
+    private static MockClientHttpResponse ok(byte[] body, String etag) {
+        MockClientHttpResponse response = new MockClientHttpResponse(body, HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        if (etag != null) {
+            response.getHeaders().setETag(etag);
+        }
+        return response;
+    }
+
+    private static String body(ClientHttpResponse response) throws IOException {
+        return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private double cacheSize() {
+        return meterRegistry.get("gateway.response.cache.size").gauge().value();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.response.cache").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,25 @@
+package client;
+
+import org.mockito.stubbing.Answer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+/**
+ * Ответ сервера для заглушки RestTemplate.execute: статус, заголовки и тело передаются извлекателю клиента.
+ */
+public final class ServerResponses {
+
+    private ServerResponses() {
+    }
+
+    public static Answer<Object> relay(ResponseEntity<byte[]> serverResponse) {
+        return invocation -> {
+            ResponseExtractor<?> extractor = invocation.getArgument(3);
+            byte[] body = serverResponse.getBody() != null ? serverResponse.getBody() : new byte[0];
+            MockClientHttpResponse response = new MockClientHttpResponse(body, serverResponse.getStatusCode());
+            response.getHeaders().putAll(serverResponse.getHeaders());
+            return extractor.extractData(response);
+        };
+    }
+}
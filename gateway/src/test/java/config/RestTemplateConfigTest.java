@@ -0,0 +1,89 @@
+package config;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.ShareItGateway;
+import ru.practicum.shareit.client.PassThroughResponseErrorHandler;
+import ru.practicum.shareit.client.ResponseCacheInterceptor;
+import ru.practicum.shareit.config.RestTemplateConfig;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest(classes = ShareItGateway.class, properties = {
+        "shareit-server.http-client.max-total=50",
+        "shareit-server.http-client.max-per-route=20",
+        "shareit-server.http-client.stream-max-total=300"
+})
+class RestTemplateConfigTest {
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    private HttpComponentsClientHttpRequestFactory requestFactory;
+
+    @Autowired
+    private RestTemplateBuilder restTemplateBuilder;
+
+    @Autowired
+    private ResponseCacheInterceptor responseCache;
+
+    @Autowired
+    @Qualifier("shareItServerStreamConnectionManager")
+    private PoolingHttpClientConnectionManager streamConnectionManager;
+
+    @Autowired
+    @Qualifier(RestTemplateConfig.STREAM_REST_TEMPLATE_BUILDER)
+    private RestTemplateBuilder streamRestTemplateBuilder;
+
+    @Test
+    void connectionManager_usesConfiguredLimits() {
+        assertEquals(50, connectionManager.getMaxTotal());
+        assertEquals(20, connectionManager.getDefaultMaxPerRoute());
+    }
+
+    @Test
+    void restTemplatesFromBuilder_shareOneRequestFactory() {
+        RestTemplate first = restTemplateBuilder.build();
+        RestTemplate second = restTemplateBuilder.build();
+
+        // getRequestFactory() при наличии перехватчиков возвращает обёртку, поэтому смотрим исходную фабрику
+        assertSame(requestFactory, ReflectionTestUtils.getField(first, "requestFactory"));
+        assertSame(requestFactory, ReflectionTestUtils.getField(second, "requestFactory"));
+    }
+
+    @Test
+    void streamConnectionManager_isSeparateWithOwnLimit() {
+        assertNotSame(connectionManager, streamConnectionManager);
+        assertEquals(300, streamConnectionManager.getMaxTotal());
+        assertEquals(300, streamConnectionManager.getDefaultMaxPerRoute());
+    }
+
+    @Test
+    void streamRestTemplate_bypassesCacheAndPassesErrorsThrough() {
+        RestTemplate stream = streamRestTemplateBuilder.build();
+
+        assertNotSame(requestFactory, ReflectionTestUtils.getField(stream, "requestFactory"));
+        assertTrue(stream.getInterceptors().isEmpty());
+        assertInstanceOf(PassThroughResponseErrorHandler.class, stream.getErrorHandler());
+    }
+
+    @Test
+    void restTemplatesFromBuilder_shareOneResponseCache() {
+        assertEquals(List.of(responseCache), restTemplateBuilder.build().getInterceptors());
+        assertEquals(List.of(responseCache), restTemplateBuilder.build().getInterceptors());
+    }
+}
@@ -1,6 +1,11 @@
 package item;
 
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Map;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +17,7 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriTemplateHandler;
 import ru.practicum.shareit.client.ItemClient;
@@ -19,6 +25,8 @@ import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.NewItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 
+import static client.ServerResponses.relay;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -26,6 +34,8 @@ import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class ItemClientTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
 
     @Mock
     private RestTemplateBuilder builder;
@@ -51,14 +61,32 @@ public class ItemClientTest {
                 .available(true)
                 .build();
         Object responseBody = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.CREATED).body(responseBody);
-        when(rest.exchange(eq(""), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.CREATED).body(json(responseBody));
+        when(rest.execute(eq(""), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.createItem(newItemDto, 1L);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
-        assertEquals(responseBody, response.getBody());
+        assertArrayEquals(json(responseBody), (byte[]) response.getBody());
+    }
+
+    @Test
+    void createItems_shouldPostBatch() {
+        NewItemDto newItemDto = NewItemDto.builder()
+                .name("Test Item")
+                .description("Test Description")
+                .available(true)
+                .build();
+        Object responseBody = new Object();
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.CREATED).body(json(responseBody));
+        when(rest.execute(eq("/batch"), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
+
+        ResponseEntity<Object> response = client.createItems(List.of(newItemDto), 1L);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertArrayEquals(json(responseBody), (byte[]) response.getBody());
     }
 
     @Test
@@ -67,67 +95,80 @@ public class ItemClientTest {
                 .name("Updated Name")
                 .build();
         Object responseBody = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.ok(responseBody);
-        when(rest.exchange(eq("/1"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(responseBody));
+        when(rest.execute(eq("/1"), eq(HttpMethod.PATCH), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.updateItem(1L, updateItemDto, 1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(responseBody, response.getBody());
+        assertArrayEquals(json(responseBody), (byte[]) response.getBody());
     }
 
     @Test
     void getItemById_shouldReturnOk() {
         Object item = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.ok(item);
-        when(rest.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(item));
+        when(rest.execute(eq("/1"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getItemById(1L, 1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(item, response.getBody());
+        assertArrayEquals(json(item), (byte[]) response.getBody());
     }
 
     @Test
     void getAllItemsByOwner_shouldReturnOk() {
         Object items = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.ok(items);
-        when(rest.exchange(eq("?from={from}&size={size}"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class), eq(Map.of("from", 0, "size", 10))))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(items));
+        when(rest.execute(eq("?from={from}&size={size}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(Map.of("from", 0, "size", 10))))
+                .thenAnswer(relay(expected));
+
+        ResponseEntity<Object> response = client.getAllItemsByOwner(1L, 0, 10, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(json(items), (byte[]) response.getBody());
+    }
+
+    @Test
+    void getAllItemsByOwner_shouldSendCursor() {
+        Object items = new Object();
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(items));
+        when(rest.execute(eq("?from={from}&size={size}&after={after}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(Map.of("from", 0, "size", 10, "after", 7L))))
+                .thenAnswer(relay(expected));
 
-        ResponseEntity<Object> response = client.getAllItemsByOwner(1L, 0, 10);
+        ResponseEntity<Object> response = client.getAllItemsByOwner(1L, 0, 10, 7L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(items, response.getBody());
+        assertArrayEquals(json(items), (byte[]) response.getBody());
     }
 
     @Test
     void searchItems_shouldReturnOk() {
         Object items = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.ok(items);
-        when(rest.exchange(eq("/search?text={text}&from={from}&size={size}"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class), eq(Map.of("text", "test", "from", 0, "size", 10))))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(items));
+        when(rest.execute(eq("/search?text={text}&from={from}&size={size}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(Map.of("text", "test", "from", 0, "size", 10))))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.searchItems("test", 0, 10);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(items, response.getBody());
+        assertArrayEquals(json(items), (byte[]) response.getBody());
     }
 
     @Test
     void addComment_shouldReturnCreated() {
         CommentDto commentDto = new CommentDto(null, "Great item!", null, null);
         Object responseBody = new Object();
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.CREATED).body(responseBody);
-        when(rest.exchange(eq("/1/comment?from={from}&size={size}"), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class), eq(Map.of("from", 0, "size", 10))))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.CREATED).body(json(responseBody));
+        when(rest.execute(eq("/1/comment?from={from}&size={size}"), eq(HttpMethod.POST), any(), any(ResponseExtractor.class), eq(Map.of("from", 0, "size", 10))))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.addComment(1L, 1L, commentDto, 0, 10);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
-        assertEquals(responseBody, response.getBody());
+        assertArrayEquals(json(responseBody), (byte[]) response.getBody());
     }
 
     // Error case tests
@@ -138,9 +179,9 @@ public class ItemClientTest {
                 .description("Test Description")
                 .available(true)
                 .build();
-        ResponseEntity<Object> expected = ResponseEntity.badRequest().body("Invalid data");
-        when(rest.exchange(eq(""), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.badRequest().body(json("Invalid data"));
+        when(rest.execute(eq(""), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.createItem(newItemDto, 1L);
 
@@ -152,9 +193,9 @@ public class ItemClientTest {
         UpdateItemDto updateItemDto = UpdateItemDto.builder()
                 .name("Updated Name")
                 .build();
-        ResponseEntity<Object> expected = ResponseEntity.notFound().build();
-        when(rest.exchange(eq("/1"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.notFound().build();
+        when(rest.execute(eq("/1"), eq(HttpMethod.PATCH), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.updateItem(1L, updateItemDto, 1L);
 
@@ -163,9 +204,9 @@ public class ItemClientTest {
 
     @Test
     void getItemById_shouldHandleForbidden() {
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
-        when(rest.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.FORBIDDEN).body(json("Access denied"));
+        when(rest.execute(eq("/1"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getItemById(1L, 1L);
 
@@ -174,12 +215,20 @@ public class ItemClientTest {
 
     @Test
     void searchItems_shouldHandleInternalServerError() {
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error");
-        when(rest.exchange(eq("/search?text={text}&from={from}&size={size}"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class), eq(Map.of("text", "test", "from", 0, "size", 10))))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(json("Server error"));
+        when(rest.execute(eq("/search?text={text}&from={from}&size={size}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(Map.of("text", "test", "from", 0, "size", 10))))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.searchItems("test", 0, 10);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
+
+    private static byte[] json(Object body) {
+        try {
+            return MAPPER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
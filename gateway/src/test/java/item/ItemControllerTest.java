@@ -91,6 +91,67 @@ class ItemControllerTest {
                 .andExpect(content().string("Invalid data"));
     }
 
+    // Тесты для пакетных операций
+    @Test
+    void createItems_success() throws Exception {
+        NewItemDto newItemDto = NewItemDto.builder()
+                .name("Test Item")
+                .description("Test Description")
+                .available(true)
+                .build();
+        List<ItemDto> responseDtos = List.of(new ItemDto(1L, "Test Item", "Test Description", true, null));
+
+        when(itemClient.createItems(anyList(), eq(1L)))
+                .thenReturn(ResponseEntity.status(HttpStatus.CREATED).body(responseDtos));
+
+        mockMvc.perform(post("/items/batch")
+                        .header(SHARER_USER_ID, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(newItemDto))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void createItems_emptyBatch() throws Exception {
+        mockMvc.perform(post("/items/batch")
+                        .header(SHARER_USER_ID, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createItems_invalidItem() throws Exception {
+        NewItemDto invalidDto = new NewItemDto();
+        invalidDto.setDescription("Valid description");
+
+        mockMvc.perform(post("/items/batch")
+                        .header(SHARER_USER_ID, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(invalidDto))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateItems_success() throws Exception {
+        UpdateItemDto updateDto = UpdateItemDto.builder()
+                .id(1L)
+                .name("Updated Name")
+                .build();
+        List<ItemDto> responseDtos = List.of(new ItemDto(1L, "Updated Name", "Test Description", true, null));
+
+        when(itemClient.updateItems(anyList(), eq(1L)))
+                .thenReturn(ResponseEntity.ok(responseDtos));
+
+        mockMvc.perform(patch("/items/batch")
+                        .header(SHARER_USER_ID, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(updateDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Updated Name"));
+    }
+
     // Тесты для updateItem
     @Test
     void updateItem_success() throws Exception {
@@ -159,7 +220,7 @@ class ItemControllerTest {
                 new ItemDto(2L, "Item2", "Desc2", false, null)
         );
 
-        when(itemClient.getAllItemsByOwner(eq(1L), eq(0), eq(10)))
+        when(itemClient.getAllItemsByOwner(eq(1L), eq(0), eq(10), isNull()))
                 .thenReturn(ResponseEntity.ok(items));
 
         mockMvc.perform(get("/items")
@@ -174,7 +235,7 @@ class ItemControllerTest {
     void getAllItemsByOwner_pagination() throws Exception {
         List<ItemDto> items = List.of(new ItemDto(1L, "Item1", "Desc1", true, null));
 
-        when(itemClient.getAllItemsByOwner(eq(1L), eq(5), eq(20)))
+        when(itemClient.getAllItemsByOwner(eq(1L), eq(5), eq(20), isNull()))
                 .thenReturn(ResponseEntity.ok(items));
 
         mockMvc.perform(get("/items")
@@ -185,6 +246,20 @@ class ItemControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(items)));
     }
 
+    @Test
+    void getAllItemsByOwner_cursor() throws Exception {
+        List<ItemDto> items = List.of(new ItemDto(8L, "Item8", "Desc8", true, null));
+
+        when(itemClient.getAllItemsByOwner(eq(1L), eq(0), eq(10), eq(7L)))
+                .thenReturn(ResponseEntity.ok(items));
+
+        mockMvc.perform(get("/items")
+                        .header(SHARER_USER_ID, 1L)
+                        .param("after", "7"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(items)));
+    }
+
     @Test
     void searchItems_success() throws Exception {
         List<ItemDto> items = List.of(new ItemDto(1L, "Test Item", "Test Description", true, null));
@@ -0,0 +1,171 @@
+package load;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочное сравнение режимов шлюза: заглушка сервера отвечает с задержкой, шлюз проксирует к ней
+ * тысячи одновременных запросов. Пишет в лог пропускную способность и p99 и проверяет, что пропускная
+ * способность соответствует пределу одновременных запросов режима: не выше потолка, заданного пределом
+ * и задержкой сервера, и не ниже ожидаемого для режима минимума.
+ * Запуск: mvn -pl gateway test -Dtest='*GatewayLoadTest' -Dshareit.load-test=true
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.load-test", matches = "true")
+abstract class AbstractGatewayLoadTest {
+    private static final int SERVER_LATENCY_MS = 50;
+    protected static final int IN_FLIGHT = 1000;
+    private static final int REQUESTS = 20_000;
+    private static final byte[] SERVER_RESPONSE = "[]".getBytes(StandardCharsets.UTF_8);
+
+    // Одна заглушка на JVM для обоих режимов; останавливается вместе с JVM тестов
+    private static final HttpServer STUB_SERVER = startStubServer();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + STUB_SERVER.getAddress().getPort());
+        // Сравниваются режимы проксирования, а одинаковые GET-запросы иначе обслуживал бы кэш ответов
+        registry.add("shareit-server.response-cache.enabled", () -> "false");
+    }
+
+    protected abstract String mode();
+
+    /**
+     * Сколько запросов режим проксирует к серверу одновременно: меньшее из числа потоков и размера пула.
+     */
+    protected abstract int concurrencyLimit();
+
+    /**
+     * Пропускная способность, ниже которой режим считается не справившимся с нагрузкой, запр/с.
+     */
+    protected abstract long minThroughput();
+
+    /**
+     * Потолок пропускной способности при данном пределе одновременных запросов, запр/с.
+     */
+    protected static long throughputCeiling(int concurrencyLimit) {
+        return concurrencyLimit * 1000L / SERVER_LATENCY_MS;
+    }
+
+    @Test
+    void proxyManyConcurrentRequests() throws Exception {
+        assertTrue(connectionManager.getMaxTotal() >= concurrencyLimit()
+                        && connectionManager.getDefaultMaxPerRoute() >= concurrencyLimit(),
+                "Пул соединений к серверу меньше предела одновременных запросов режима");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/items"))
+                .header("X-Sharer-User-Id", "1")
+                .GET()
+                .build();
+
+        // Прогрев: JIT, пулы соединений, потоки Tomcat
+        runLoad(client, request, REQUESTS / 10);
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(REQUESTS));
+        long started = System.nanoTime();
+        int succeeded = runLoad(client, request, REQUESTS, latencies);
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1) / 1_000_000;
+        long throughput = Math.round(REQUESTS / seconds);
+        log.info("[{}] {} запросов, {} в полёте, предел {}: {} запр/с, p99 = {} мс",
+                mode(), REQUESTS, IN_FLIGHT, concurrencyLimit(), throughput, p99);
+
+        assertEquals(REQUESTS, succeeded);
+        // Небольшой запас на погрешность измерения времени
+        long ceiling = throughputCeiling(Math.min(concurrencyLimit(), IN_FLIGHT));
+        assertTrue(throughput <= ceiling * 11 / 10,
+                "Пропускная способность " + throughput + " выше потолка " + ceiling + " для предела режима");
+        assertTrue(throughput >= minThroughput(),
+                "Пропускная способность " + throughput + " ниже ожидаемой " + minThroughput());
+    }
+
+    private int runLoad(HttpClient client, HttpRequest request, int count) throws InterruptedException {
+        return runLoad(client, request, count, Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    private int runLoad(HttpClient client, HttpRequest request, int count, List<Long> latencies)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(IN_FLIGHT);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<CompletableFuture<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (error == null && response.statusCode() == 200) {
+                            succeeded.incrementAndGet();
+                            latencies.add(System.nanoTime() - sent);
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        return succeeded.get();
+    }
+
+    private static HttpServer startStubServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), IN_FLIGHT);
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            server.setExecutor(executor);
+            server.createContext("/", exchange -> {
+                try {
+                    Thread.sleep(SERVER_LATENCY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, SERVER_RESPONSE.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(SERVER_RESPONSE);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
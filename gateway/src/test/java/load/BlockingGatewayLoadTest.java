@@ -0,0 +1,28 @@
+package load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.ShareItGateway;
+
+/**
+ * Текущий режим: каждый проксируемый запрос занимает поток Tomcat (по умолчанию не больше 200).
+ */
+@SpringBootTest(classes = ShareItGateway.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BlockingGatewayLoadTest extends AbstractGatewayLoadTest {
+    // Потоков Tomcat по умолчанию; пул соединений к серверу того же размера
+    static final int CONCURRENCY_LIMIT = 200;
+
+    @Override
+    protected String mode() {
+        return "blocking";
+    }
+
+    @Override
+    protected int concurrencyLimit() {
+        return CONCURRENCY_LIMIT;
+    }
+
+    @Override
+    protected long minThroughput() {
+        return throughputCeiling(CONCURRENCY_LIMIT) / 2;
+    }
+}
@@ -0,0 +1,29 @@
+package load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.ShareItGateway;
+
+/**
+ * Режим на виртуальных потоках: предел задаёт пул соединений профиля virtual-threads, а не потоки Tomcat.
+ * Пропускная способность должна превысить потолок блокирующего режима.
+ */
+@SpringBootTest(classes = ShareItGateway.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("virtual-threads")
+class VirtualThreadGatewayLoadTest extends AbstractGatewayLoadTest {
+
+    @Override
+    protected String mode() {
+        return "virtual-threads";
+    }
+
+    @Override
+    protected int concurrencyLimit() {
+        return IN_FLIGHT;
+    }
+
+    @Override
+    protected long minThroughput() {
+        return throughputCeiling(BlockingGatewayLoadTest.CONCURRENCY_LIMIT) + 1;
+    }
+}
@@ -1,5 +1,8 @@
 package requestclient;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,23 +14,30 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriTemplateHandler;
 import ru.practicum.shareit.client.ItemRequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import static client.ServerResponses.relay;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static ru.practicum.shareit.constants.HttpHeaders.NEXT_CURSOR;
 
 @ExtendWith(MockitoExtension.class)
 public class ItemRequestClientTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
 
     @Mock
     private RestTemplateBuilder builder;
@@ -42,7 +52,7 @@ public class ItemRequestClientTest {
         MockitoAnnotations.openMocks(this);
         when(builder.uriTemplateHandler(any(UriTemplateHandler.class))).thenReturn(builder);
         when(builder.build()).thenReturn(rest);
-        client = new ItemRequestClient("http://test-server", builder);
+        client = new ItemRequestClient("http://test-server", builder, builder);
     }
 
     @Test
@@ -50,54 +60,67 @@ public class ItemRequestClientTest {
         ItemRequestDto requestDto = new ItemRequestDto();
         requestDto.setDescription("Нужна дрель");
         Object responseBody = new ItemRequestDto(1L, "Нужна дрель", 1L, LocalDateTime.now(), Collections.emptyList());
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.CREATED).body(responseBody);
-        when(rest.exchange(eq(""), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.CREATED).body(json(responseBody));
+        when(rest.execute(eq(""), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.createRequest(requestDto, 1L);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
-        assertEquals(responseBody, response.getBody());
+        assertArrayEquals(json(responseBody), (byte[]) response.getBody());
     }
 
     @Test
     void getUserRequests_shouldReturnOk() {
         Object requests = List.of(new ItemRequestDto(1L, "Нужна дрель", 1L, LocalDateTime.now(), Collections.emptyList()));
-        ResponseEntity<Object> expected = ResponseEntity.ok(requests);
-        when(rest.exchange(eq(""), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(requests));
+        when(rest.execute(eq(""), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getUserRequests(1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(requests, response.getBody());
+        assertArrayEquals(json(requests), (byte[]) response.getBody());
     }
 
     @Test
     void getAllRequests_shouldReturnOk() {
         Map<String, Object> parameters = Map.of("from", 0, "size", 10);
         Object requests = List.of(new ItemRequestDto(2L, "Нужен молоток", 2L, LocalDateTime.now(), Collections.emptyList()));
-        ResponseEntity<Object> expected = ResponseEntity.ok(requests);
-        when(rest.exchange(eq("/all?from={from}&size={size}"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class), eq(parameters)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(requests));
+        when(rest.execute(eq("/all?from={from}&size={size}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(parameters)))
+                .thenAnswer(relay(expected));
 
-        ResponseEntity<Object> response = client.getAllRequests(1L, 0, 10);
+        ResponseEntity<Object> response = client.getAllRequests(1L, 0, 10, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(requests, response.getBody());
+        assertArrayEquals(json(requests), (byte[]) response.getBody());
+    }
+
+    @Test
+    void getAllRequests_withCursor_shouldForwardCursorAndReturnNext() {
+        Map<String, Object> parameters = Map.of("from", 0, "size", 10, "cursor", "prev");
+        ResponseEntity<byte[]> expected = ResponseEntity.ok().header(NEXT_CURSOR, "next").body(json(List.of()));
+        when(rest.execute(eq("/all?from={from}&size={size}&cursor={cursor}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(parameters)))
+                .thenAnswer(relay(expected));
+
+        ResponseEntity<Object> response = client.getAllRequests(1L, 0, 10, "prev");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("next", response.getHeaders().getFirst(NEXT_CURSOR));
     }
 
     @Test
     void getRequestById_shouldReturnOk() {
         Object request = new ItemRequestDto(1L, "Нужна дрель", 1L, LocalDateTime.now(), Collections.emptyList());
-        ResponseEntity<Object> expected = ResponseEntity.ok(request);
-        when(rest.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(request));
+        when(rest.execute(eq("/1"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getRequestById(1L, 1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(request, response.getBody());
+        assertArrayEquals(json(request), (byte[]) response.getBody());
     }
 
     // Error case tests
@@ -105,9 +128,9 @@ public class ItemRequestClientTest {
     void createRequest_shouldHandleBadRequest() {
         ItemRequestDto requestDto = new ItemRequestDto();
         requestDto.setDescription("Нужна дрель");
-        ResponseEntity<Object> expected = ResponseEntity.badRequest().body("Invalid data");
-        when(rest.exchange(eq(""), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.badRequest().body(json("Invalid data"));
+        when(rest.execute(eq(""), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.createRequest(requestDto, 1L);
 
@@ -116,9 +139,9 @@ public class ItemRequestClientTest {
 
     @Test
     void getUserRequests_shouldHandleNotFound() {
-        ResponseEntity<Object> expected = ResponseEntity.notFound().build();
-        when(rest.exchange(eq(""), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.notFound().build();
+        when(rest.execute(eq(""), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getUserRequests(1L);
 
@@ -128,20 +151,20 @@ public class ItemRequestClientTest {
     @Test
     void getAllRequests_shouldHandleForbidden() {
         Map<String, Object> parameters = Map.of("from", 0, "size", 10);
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
-        when(rest.exchange(eq("/all?from={from}&size={size}"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class), eq(parameters)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.FORBIDDEN).body(json("Access denied"));
+        when(rest.execute(eq("/all?from={from}&size={size}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(parameters)))
+                .thenAnswer(relay(expected));
 
-        ResponseEntity<Object> response = client.getAllRequests(1L, 0, 10);
+        ResponseEntity<Object> response = client.getAllRequests(1L, 0, 10, null);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     void getRequestById_shouldHandleInternalServerError() {
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error");
-        when(rest.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(json("Server error"));
+        when(rest.execute(eq("/1"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getRequestById(1L, 1L);
 
@@ -149,4 +172,12 @@ public class ItemRequestClientTest {
     }
 
     // Add more error tests as needed for other methods and statuses
+
+    private static byte[] json(Object body) {
+        try {
+            return MAPPER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package requestclient;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -10,18 +11,23 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.ShareItGateway;
 import ru.practicum.shareit.client.ItemRequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static ru.practicum.shareit.constants.HttpHeaders.NEXT_CURSOR;
 import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 
 @SpringBootTest(classes = ShareItGateway.class)
@@ -107,7 +113,7 @@ public class ItemRequestControllerTest {
         request.setItems(Collections.emptyList());
         List<ItemRequestDto> requests = List.of(request);
 
-        when(itemRequestClient.getAllRequests(eq(1L), eq(0), eq(10)))
+        when(itemRequestClient.getAllRequests(eq(1L), eq(0), eq(10), isNull()))
                 .thenReturn(ResponseEntity.ok(requests));
 
         mockMvc.perform(get("/requests/all")
@@ -119,6 +125,18 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].description").value("Нужен молоток"));
     }
 
+    @Test
+    void getAllRequests_withCursor_passesCursorAndNextCursorHeader() throws Exception {
+        when(itemRequestClient.getAllRequests(eq(1L), eq(0), eq(10), eq("prev")))
+                .thenReturn(ResponseEntity.ok().header(NEXT_CURSOR, "next").body(List.of()));
+
+        mockMvc.perform(get("/requests/all")
+                        .header(SHARER_USER_ID, 1L)
+                        .param("cursor", "prev"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(NEXT_CURSOR, "next"));
+    }
+
     @Test
     void getRequestById_success() throws Exception {
         ItemRequestDto requestDto = new ItemRequestDto();
@@ -148,4 +166,23 @@ public class ItemRequestControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(content().string("Запрос не найден"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamAnswers_proxiesServerEvents() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id:10\nevent:item\ndata:{\"id\":10}\n\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(itemRequestClient).streamAnswers(eq(1L), any(HttpServletResponse.class), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/requests/stream")
+                        .header(SHARER_USER_ID, 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string("id:10\nevent:item\ndata:{\"id\":10}\n\n"));
+    }
+}
@@ -1,5 +1,8 @@
 package user;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +14,10 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriTemplateHandler;
 import ru.practicum.shareit.client.UserClient;
@@ -18,13 +25,24 @@ import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static client.ServerResponses.relay;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class UserClientTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
 
     @Mock
     private RestTemplateBuilder builder;
@@ -39,7 +57,7 @@ public class UserClientTest {
         MockitoAnnotations.openMocks(this);
         when(builder.uriTemplateHandler(any(UriTemplateHandler.class))).thenReturn(builder);
         when(builder.build()).thenReturn(rest);
-        client = new UserClient("http://test-server", builder);
+        client = new UserClient("http://test-server", builder, builder);
     }
 
     @Test
@@ -48,14 +66,14 @@ public class UserClientTest {
         newUserDto.setName("John Doe");
         newUserDto.setEmail("john@example.com");
         Object responseBody = new UserDto(1L, "John Doe", "john@example.com");
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.CREATED).body(responseBody);
-        when(rest.exchange(eq(""), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.CREATED).body(json(responseBody));
+        when(rest.execute(eq(""), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.createUser(newUserDto);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
-        assertEquals(responseBody, response.getBody());
+        assertArrayEquals(json(responseBody), (byte[]) response.getBody());
     }
 
     @Test
@@ -63,47 +81,73 @@ public class UserClientTest {
         UpdateUserDto updateUserDto = new UpdateUserDto();
         updateUserDto.setName("Updated Name");
         Object responseBody = new UserDto(1L, "Updated Name", "john@example.com");
-        ResponseEntity<Object> expected = ResponseEntity.ok(responseBody);
-        when(rest.exchange(eq("/1"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(responseBody));
+        when(rest.execute(eq("/1"), eq(HttpMethod.PATCH), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.updateUser(1L, updateUserDto);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(responseBody, response.getBody());
+        assertArrayEquals(json(responseBody), (byte[]) response.getBody());
     }
 
     @Test
     void getUserById_shouldReturnOk() {
         Object user = new UserDto(1L, "John Doe", "john@example.com");
-        ResponseEntity<Object> expected = ResponseEntity.ok(user);
-        when(rest.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(user));
+        when(rest.execute(eq("/1"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getUserById(1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(user, response.getBody());
+        assertArrayEquals(json(user), (byte[]) response.getBody());
     }
 
     @Test
     void getAllUsers_shouldReturnOk() {
         Object users = java.util.List.of(new UserDto(1L, "John Doe", "john@example.com"));
-        ResponseEntity<Object> expected = ResponseEntity.ok(users);
-        when(rest.exchange(eq(""), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(users));
+        when(rest.execute(eq("?from={from}&size={size}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), anyMap()))
+                .thenAnswer(relay(expected));
+
+        ResponseEntity<Object> response = client.getAllUsers(0, 10, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(json(users), (byte[]) response.getBody());
+    }
+
+    @Test
+    void getAllUsers_shouldPassCursor() {
+        ResponseEntity<byte[]> expected = ResponseEntity.ok(json(java.util.List.of()));
+        when(rest.execute(eq("?from={from}&size={size}&after={after}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), eq(Map.of("from", 0, "size", 10, "after", 5L))))
+                .thenAnswer(relay(expected));
 
-        ResponseEntity<Object> response = client.getAllUsers();
+        ResponseEntity<Object> response = client.getAllUsers(0, 10, 5L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(users, response.getBody());
+    }
+
+    @Test
+    void exportUsers_shouldCopyServerStream() throws IOException {
+        byte[] lines = "{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8);
+        when(rest.execute(eq("/export"), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    ResponseExtractor<?> extractor = invocation.getArgument(3);
+                    return extractor.extractData(new MockClientHttpResponse(lines, HttpStatus.OK));
+                });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        client.exportUsers(new MockHttpServletResponse(), out);
+
+        assertArrayEquals(lines, out.toByteArray());
     }
 
     @Test
     void deleteUser_shouldReturnNoContent() {
-        ResponseEntity<Object> expected = ResponseEntity.noContent().build();
-        when(rest.exchange(eq("/1"), eq(HttpMethod.DELETE), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.noContent().build();
+        when(rest.execute(eq("/1"), eq(HttpMethod.DELETE), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.deleteUser(1L);
 
@@ -116,9 +160,9 @@ public class UserClientTest {
         NewUserDto newUserDto = new NewUserDto();
         newUserDto.setName("John Doe");
         newUserDto.setEmail("john@example.com");
-        ResponseEntity<Object> expected = ResponseEntity.badRequest().body("Invalid data");
-        when(rest.exchange(eq(""), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.badRequest().body(json("Invalid data"));
+        when(rest.execute(eq(""), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.createUser(newUserDto);
 
@@ -129,9 +173,9 @@ public class UserClientTest {
     void updateUser_shouldHandleNotFound() {
         UpdateUserDto updateUserDto = new UpdateUserDto();
         updateUserDto.setName("Updated Name");
-        ResponseEntity<Object> expected = ResponseEntity.notFound().build();
-        when(rest.exchange(eq("/1"), eq(HttpMethod.PATCH), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.notFound().build();
+        when(rest.execute(eq("/1"), eq(HttpMethod.PATCH), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.updateUser(1L, updateUserDto);
 
@@ -140,9 +184,9 @@ public class UserClientTest {
 
     @Test
     void getUserById_shouldHandleForbidden() {
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
-        when(rest.exchange(eq("/1"), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.FORBIDDEN).body(json("Access denied"));
+        when(rest.execute(eq("/1"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.getUserById(1L);
 
@@ -151,20 +195,20 @@ public class UserClientTest {
 
     @Test
     void getAllUsers_shouldHandleInternalServerError() {
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error");
-        when(rest.exchange(eq(""), eq(HttpMethod.GET), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(json("Server error"));
+        when(rest.execute(eq("?from={from}&size={size}"), eq(HttpMethod.GET), any(), any(ResponseExtractor.class), anyMap()))
+                .thenAnswer(relay(expected));
 
-        ResponseEntity<Object> response = client.getAllUsers();
+        ResponseEntity<Object> response = client.getAllUsers(0, 10, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
 
     @Test
     void deleteUser_shouldHandleConflict() {
-        ResponseEntity<Object> expected = ResponseEntity.status(HttpStatus.CONFLICT).body("Cannot delete user");
-        when(rest.exchange(eq("/1"), eq(HttpMethod.DELETE), any(HttpEntity.class), eq(Object.class)))
-                .thenReturn(expected);
+        ResponseEntity<byte[]> expected = ResponseEntity.status(HttpStatus.CONFLICT).body(json("Cannot delete user"));
+        when(rest.execute(eq("/1"), eq(HttpMethod.DELETE), any(), any(ResponseExtractor.class)))
+                .thenAnswer(relay(expected));
 
         ResponseEntity<Object> response = client.deleteUser(1L);
 
@@ -172,4 +216,12 @@ public class UserClientTest {
     }
 
     // Add more error tests as needed for other methods and statuses
+
+    private static byte[] json(Object body) {
+        try {
+            return MAPPER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
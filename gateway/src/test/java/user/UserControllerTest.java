@@ -1,6 +1,7 @@
 package user;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -10,15 +11,19 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.ShareItGateway;
 import ru.practicum.shareit.client.UserClient;
 import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -117,7 +122,7 @@ public class UserControllerTest {
         UserDto user2 = new UserDto(2L, "Jane Doe", "jane@example.com");
         List<UserDto> users = List.of(user1, user2);
 
-        when(userClient.getAllUsers())
+        when(userClient.getAllUsers(0, 10, null))
                 .thenReturn(ResponseEntity.ok(users));
 
         mockMvc.perform(get("/users"))
@@ -126,6 +131,30 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[1].name").value("Jane Doe"));
     }
 
+    @Test
+    void findAll_invalidSize() throws Exception {
+        mockMvc.perform(get("/users").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportUsers_streamsServerResponse() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userClient).exportUsers(any(HttpServletResponse.class), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
     @Test
     void deleteUser_success() throws Exception {
         when(userClient.deleteUser(eq(1L)))
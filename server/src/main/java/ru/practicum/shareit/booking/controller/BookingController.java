@@ -2,23 +2,33 @@ package ru.practicum.shareit.booking.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.stream.EventBroadcaster;
+import ru.practicum.shareit.stream.Topic;
+import ru.practicum.shareit.version.Versioned;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 
 /**
  * TODO Sprint add-bookings.
+ * GET-запросы с совпадающим If-None-Match получают 304: бронирование по id сверяется без загрузки,
+ * а ETag списка считается по строкам запрошенной страницы, и 304 экономит сериализацию и передачу ответа.
  */
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
     private final BookingService bookingService;
+    private final EventBroadcaster eventBroadcaster;
 
     @PostMapping
     public BookingResponseDto createBooking(@Valid @RequestBody BookingDto bookingDto,
@@ -33,21 +43,55 @@ public class BookingController {
         return bookingService.approveBooking(bookingId, ownerId, approved);
     }
 
+    /**
+     * Поток изменений бронирований пользователя (как арендатора и как владельца) вместо опроса списков.
+     */
+    @GetMapping("/stream")
+    public SseEmitter streamBookings(@RequestHeader(SHARER_USER_ID) Long userId) {
+        return eventBroadcaster.subscribe(Topic.BOOKINGS, userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBookingById(@PathVariable Long bookingId,
-                                             @RequestHeader(SHARER_USER_ID) Long userId) {
+                                             @RequestHeader(SHARER_USER_ID) Long userId,
+                                             WebRequest request) {
+        if (request.checkNotModified(bookingService.getBookingEtag(bookingId, userId))) {
+            return null;
+        }
         return bookingService.getBookingById(bookingId, userId);
     }
 
     @GetMapping
-    public List<BookingResponseDto> getAllBookingsByBooker(@RequestHeader(SHARER_USER_ID) Long bookerId,
-                                                           @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getAllBookingsByBooker(bookerId, state);
+    public List<BookingResponseDto> getAllBookingsByBooker(
+            @RequestHeader(SHARER_USER_ID) Long bookerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorStart,
+            @RequestParam(required = false) Long cursorId,
+            WebRequest request) {
+        Versioned<List<BookingResponseDto>> page =
+                bookingService.getBookerBookingsPage(bookerId, state, from, size, cursorStart, cursorId);
+        if (request.checkNotModified(page.etag())) {
+            return null;
+        }
+        return page.body();
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getAllBookingsByOwner(@RequestHeader(SHARER_USER_ID) Long ownerId,
-                                                          @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getAllBookingsByOwner(ownerId, state);
+    public List<BookingResponseDto> getAllBookingsByOwner(
+            @RequestHeader(SHARER_USER_ID) Long ownerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorStart,
+            @RequestParam(required = false) Long cursorId,
+            WebRequest request) {
+        Versioned<List<BookingResponseDto>> page =
+                bookingService.getOwnerBookingsPage(ownerId, state, from, size, cursorStart, cursorId);
+        if (request.checkNotModified(page.etag())) {
+            return null;
+        }
+        return page.body();
     }
 }
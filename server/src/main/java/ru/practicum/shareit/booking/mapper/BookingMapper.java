@@ -29,6 +29,7 @@ public interface BookingMapper {
     @Mapping(target = "item", source = "item")
     @Mapping(target = "booker", source = "booker")
     @Mapping(target = "status", expression = "java(mapStatus(dto.getStatus()))")
+    @Mapping(target = "version", ignore = true)
     Booking toBooking(BookingDto dto, Item item, User booker);
 
     default BookingStatus mapStatus(String status) {
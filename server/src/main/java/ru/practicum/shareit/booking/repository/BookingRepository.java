@@ -1,36 +1,115 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.version.VersionStamp;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBookerId(Long bookerId, Sort sort);
-
-    List<Booking> findByItemOwnerId(Long ownerId, Sort sort);
+    @Override
+    @EntityGraph(attributePaths = "item")
+    Optional<Booking> findById(Long id);
 
     List<Booking> findByItemIdAndStatus(Long itemId, BookingStatus status, Sort sort);
 
-    List<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime end, Sort sort);
-
-    List<Booking> findByBookerIdAndStartAfter(Long bookerId, LocalDateTime start, Sort sort);
-
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime start, LocalDateTime end, Sort sort);
-
-    List<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Sort sort);
-
-    List<Booking> findByItemOwnerIdAndEndBefore(Long ownerId, LocalDateTime end, Sort sort);
-
-    List<Booking> findByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime start, Sort sort);
-
-    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime start, LocalDateTime end, Sort sort);
-
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Sort sort);
+    /**
+     * Меняет статус, только если бронирование всё ещё в ожидаемом статусе. Возвращает число изменённых строк.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.status = :expected")
+    int updateStatusIfCurrent(@Param("id") Long id,
+                              @Param("expected") BookingStatus expected,
+                              @Param("status") BookingStatus status);
+
+    /**
+     * Условие keyset-пагинации: строки строго после курсора (start, id) при сортировке по убыванию.
+     */
+    String AFTER_CURSOR = " AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))";
+
+    // Вещь подгружается через JOIN FETCH, так как BookingResponseDto нужен item.name;
+    // id бронирующего берётся из внешнего ключа без обращения к users.
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE b.booker.id = :bookerId" + AFTER_CURSOR)
+    List<Booking> findByBookerId(@Param("bookerId") Long bookerId,
+                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                 @Param("cursorId") Long cursorId,
+                                 Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE b.booker.id = :bookerId AND b.end < :end" + AFTER_CURSOR)
+    List<Booking> findByBookerIdAndEndBefore(@Param("bookerId") Long bookerId,
+                                             @Param("end") LocalDateTime end,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE b.booker.id = :bookerId AND b.start > :start" + AFTER_CURSOR)
+    List<Booking> findByBookerIdAndStartAfter(@Param("bookerId") Long bookerId,
+                                              @Param("start") LocalDateTime start,
+                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE b.booker.id = :bookerId AND b.start < :start AND b.end > :end" +
+            AFTER_CURSOR)
+    List<Booking> findByBookerIdAndStartBeforeAndEndAfter(@Param("bookerId") Long bookerId,
+                                                          @Param("start") LocalDateTime start,
+                                                          @Param("end") LocalDateTime end,
+                                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                                          @Param("cursorId") Long cursorId,
+                                                          Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE b.booker.id = :bookerId AND b.status = :status" + AFTER_CURSOR)
+    List<Booking> findByBookerIdAndStatus(@Param("bookerId") Long bookerId,
+                                          @Param("status") BookingStatus status,
+                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE i.owner.id = :ownerId" + AFTER_CURSOR)
+    List<Booking> findByItemOwnerId(@Param("ownerId") Long ownerId,
+                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                    @Param("cursorId") Long cursorId,
+                                    Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE i.owner.id = :ownerId AND b.end < :end" + AFTER_CURSOR)
+    List<Booking> findByItemOwnerIdAndEndBefore(@Param("ownerId") Long ownerId,
+                                                @Param("end") LocalDateTime end,
+                                                @Param("cursorStart") LocalDateTime cursorStart,
+                                                @Param("cursorId") Long cursorId,
+                                                Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE i.owner.id = :ownerId AND b.start > :start" + AFTER_CURSOR)
+    List<Booking> findByItemOwnerIdAndStartAfter(@Param("ownerId") Long ownerId,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE i.owner.id = :ownerId AND b.start < :start AND b.end > :end" +
+            AFTER_CURSOR)
+    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfter(@Param("ownerId") Long ownerId,
+                                                             @Param("start") LocalDateTime start,
+                                                             @Param("end") LocalDateTime end,
+                                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                                             @Param("cursorId") Long cursorId,
+                                                             Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i WHERE i.owner.id = :ownerId AND b.status = :status" + AFTER_CURSOR)
+    List<Booking> findByItemOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                             @Param("status") BookingStatus status,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable pageable);
 
     Optional<Booking> findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(
             Long itemId, LocalDateTime now, BookingStatus status);
@@ -38,6 +117,51 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     Optional<Booking> findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
             Long itemId, LocalDateTime now, BookingStatus status);
 
-    List<Booking> findByItemIdAndBookerIdAndEndBeforeAndStatus(
+    /**
+     * Есть ли у вещи бронирование с указанными статусами, пересекающееся с интервалом [start, end).
+     */
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.item.id = :itemId AND b.status IN :statuses " +
+            "AND b.start < :end AND b.end > :start")
+    boolean existsOverlapping(@Param("itemId") Long itemId,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end,
+                              @Param("statuses") List<BookingStatus> statuses);
+
+    boolean existsByItemIdAndBookerIdAndEndBeforeAndStatus(
             Long itemId, Long bookerId, LocalDateTime now, BookingStatus status);
+
+    /**
+     * Последнее и ближайшее подтверждённые бронирования для каждой вещи из списка одним запросом.
+     */
+    @Query(value = "SELECT r.id, r.start_date, r.end_date, r.item_id, r.booker_id, r.status, r.version FROM (" +
+            "SELECT b.*, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY " +
+            "CASE WHEN b.start_date < :now THEN b.start_date END DESC NULLS LAST) AS last_rn, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY " +
+            "CASE WHEN b.start_date > :now THEN b.start_date END ASC NULLS LAST) AS next_rn " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED') r " +
+            "WHERE (r.last_rn = 1 AND r.start_date < :now) OR (r.next_rn = 1 AND r.start_date > :now)",
+            nativeQuery = true)
+    List<Booking> findLastAndNextApprovedByItemIdIn(@Param("itemIds") List<Long> itemIds,
+                                                    @Param("now") LocalDateTime now);
+
+    /**
+     * Версия вещи входит в отпечаток, так как её название попадает в ответ; наступившие даты начала
+     * и окончания учитываются, так как от них зависят состояния CURRENT/PAST/FUTURE и last/next бронирования.
+     */
+    String VERSION_STAMP = "SELECT new ru.practicum.shareit.version.VersionStamp(COUNT(b), " +
+            "COALESCE(SUM(b.version + i.version), 0L), COALESCE(MAX(b.id), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.start < :now THEN 1L ELSE 0L END " +
+            "+ CASE WHEN b.end < :now THEN 1L ELSE 0L END), 0L)) FROM Booking b JOIN b.item i ";
+
+    /**
+     * Версия бронирования, видимая только его автору и владельцу вещи: иначе ETag выдавал бы,
+     * существует ли бронирование и менялось ли оно, до проверки доступа.
+     */
+    @Query(VERSION_STAMP + "WHERE b.id = :id AND (b.booker.id = :userId OR i.owner.id = :userId)")
+    VersionStamp findVersionStampByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId,
+                                               @Param("now") LocalDateTime now);
+
+    @Query(VERSION_STAMP + "WHERE i.id = :itemId")
+    VersionStamp findVersionStampByItemId(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
 }
@@ -2,7 +2,9 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.version.Versioned;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
@@ -12,7 +14,27 @@ public interface BookingService {
 
     BookingResponseDto getBookingById(Long bookingId, Long userId);
 
-    List<BookingResponseDto> getAllBookingsByBooker(Long bookerId, String state);
+    List<BookingResponseDto> getAllBookingsByBooker(Long bookerId, String state, int from, int size,
+                                                    LocalDateTime cursorStart, Long cursorId);
 
-    List<BookingResponseDto> getAllBookingsByOwner(Long ownerId, String state);
+    /**
+     * Страница бронирований пользователя с ETag, посчитанным по её строкам.
+     */
+    Versioned<List<BookingResponseDto>> getBookerBookingsPage(Long bookerId, String state, int from, int size,
+                                                              LocalDateTime cursorStart, Long cursorId);
+
+    List<BookingResponseDto> getAllBookingsByOwner(Long ownerId, String state, int from, int size,
+                                                   LocalDateTime cursorStart, Long cursorId);
+
+    /**
+     * Страница бронирований вещей владельца с ETag, посчитанным по её строкам.
+     */
+    Versioned<List<BookingResponseDto>> getOwnerBookingsPage(Long ownerId, String state, int from, int size,
+                                                             LocalDateTime cursorStart, Long cursorId);
+
+    /**
+     * ETag ответа getBookingById, вычисленный по версиям без загрузки данных; null, если бронирования нет
+     * или пользователь не автор бронирования и не владелец вещи.
+     */
+    String getBookingEtag(Long bookingId, Long userId);
 }
@@ -2,9 +2,14 @@ package ru.practicum.shareit.booking.service;
 
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -13,34 +18,75 @@ import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.error.exception.AccessDeniedException;
+import ru.practicum.shareit.error.exception.ConflictException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.EventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.stream.EventBroadcaster;
+import ru.practicum.shareit.stream.Topic;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+import ru.practicum.shareit.version.VersionStamp;
+import ru.practicum.shareit.version.Versioned;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceIml implements BookingService {
+    private static final LocalDateTime NO_CURSOR_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final Long NO_CURSOR_ID = Long.MAX_VALUE;
+    private static final int ITEM_LOCK_STRIPES = 64;
+    private static final String OVERLAP_CONSTRAINT = "ex_bookings_item_period";
+    private static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserExistenceChecker userExistenceChecker;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
-    private final Sort sort = Sort.by(Sort.Direction.DESC, "start");
+    private final EventBroadcaster eventBroadcaster;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Sort sort = Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id"));
+    private final Lock[] itemLocks = createItemLocks();
 
+    /**
+     * Создание бронирований одной вещи сериализуется блокировкой вещи, взятой до начала транзакции:
+     * ожидающие не держат соединение из пула, а блокировка снимается уже после коммита или отката.
+     * Блокировка действует в пределах экземпляра; между экземплярами на PostgreSQL пересечения отсекает
+     * ограничение ex_bookings_item_period.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BookingResponseDto createBooking(BookingDto bookingDto, Long bookerId) {
         validateBookingDates(bookingDto);
 
-        User booker = userRepository.findById(bookerId)
+        Lock lock = itemLocks[Math.floorMod(Objects.hashCode(bookingDto.getItemId()), ITEM_LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> insertBooking(bookingDto, bookerId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BookingResponseDto insertBooking(BookingDto bookingDto, Long bookerId) {
+        // Кэш второго уровня не знает об изменениях на других экземплярах, а доступность и владелец решают исход
+        User booker = userRepository.findCurrentById(bookerId)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        Item item = itemRepository.findById(bookingDto.getItemId())
+        Item item = itemRepository.findCurrentById(bookingDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
 
         if (!item.getAvailable()) {
@@ -51,11 +97,29 @@ public class BookingServiceIml implements BookingService {
             throw new NotFoundException("Владелец не может бронировать свою вещь");
         }
 
+        if (bookingRepository.existsOverlapping(item.getId(), bookingDto.getStart(), bookingDto.getEnd(),
+                BLOCKING_STATUSES)) {
+            throw new ConflictException("Вещь уже забронирована на эти даты");
+        }
+
         Booking booking = bookingMapper.toBooking(bookingDto, item, booker);
         booking.setStatus(BookingStatus.WAITING);
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking;
+        try {
+            // Id выдаёт последовательность, поэтому без flush INSERT ушёл бы только при коммите, мимо catch
+            savedBooking = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            // На PostgreSQL пересечение с бронированием другого экземпляра сервера ловит ограничение EXCLUDE
+            if (isOverlapConflict(e)) {
+                throw new ConflictException("Вещь уже забронирована на эти даты");
+            }
+            throw e;
+        }
 
-        return bookingMapper.toBookingResponseDto(savedBooking);
+        BookingResponseDto response = bookingMapper.toBookingResponseDto(savedBooking);
+        outboxWriter.append(EventType.BOOKING_CREATED, savedBooking.getId(), response);
+        eventBroadcaster.publish(Topic.BOOKINGS, savedBooking.getId(), response, bookerId, item.getOwner().getId());
+        return response;
     }
 
     @Override
@@ -72,10 +136,18 @@ public class BookingServiceIml implements BookingService {
             throw new ValidationException("Бронирование уже обработано");
         }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
+        // Условный UPDATE: из параллельных решений по одному бронированию применится только первое
+        BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatusIfCurrent(bookingId, BookingStatus.WAITING, newStatus) == 0) {
+            throw new ValidationException("Бронирование уже обработано");
+        }
+        booking.setStatus(newStatus);
 
-        return bookingMapper.toBookingResponseDto(updatedBooking);
+        BookingResponseDto response = bookingMapper.toBookingResponseDto(booking);
+        EventType eventType = approved ? EventType.BOOKING_APPROVED : EventType.BOOKING_REJECTED;
+        outboxWriter.append(eventType, bookingId, response);
+        eventBroadcaster.publish(Topic.BOOKINGS, bookingId, response, booking.getBooker().getId(), ownerId);
+        return response;
     }
 
     @Override
@@ -92,81 +164,155 @@ public class BookingServiceIml implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getAllBookingsByBooker(Long bookerId, String state) {
-        userRepository.findById(bookerId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public List<BookingResponseDto> getAllBookingsByBooker(Long bookerId, String state, int from, int size,
+                                                           LocalDateTime cursorStart, Long cursorId) {
+        return getBookerBookingsPage(bookerId, state, from, size, cursorStart, cursorId).body();
+    }
+
+    @Override
+    public Versioned<List<BookingResponseDto>> getBookerBookingsPage(Long bookerId, String state, int from, int size,
+                                                                     LocalDateTime cursorStart, Long cursorId) {
+        userExistenceChecker.requireExists(bookerId);
 
         BookingState bookingState = parseState(state);
+        Pageable pageable = toPageable(from, size, cursorStart, cursorId);
+        LocalDateTime afterStart = cursorStart != null ? cursorStart : NO_CURSOR_START;
+        Long afterId = cursorId != null ? cursorId : NO_CURSOR_ID;
         LocalDateTime now = LocalDateTime.now();
 
         List<Booking> bookings;
         switch (bookingState) {
             case ALL:
-                bookings = bookingRepository.findByBookerId(bookerId, sort);
+                bookings = bookingRepository.findByBookerId(bookerId, afterStart, afterId, pageable);
                 break;
             case CURRENT:
                 bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(
-                        bookerId, now, now, sort);
+                        bookerId, now, now, afterStart, afterId, pageable);
                 break;
             case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndBefore(bookerId, now, sort);
+                bookings = bookingRepository.findByBookerIdAndEndBefore(bookerId, now, afterStart, afterId, pageable);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartAfter(bookerId, now, sort);
+                bookings = bookingRepository.findByBookerIdAndStartAfter(bookerId, now, afterStart, afterId, pageable);
                 break;
             case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.WAITING, sort);
+                bookings = bookingRepository.findByBookerIdAndStatus(
+                        bookerId, BookingStatus.WAITING, afterStart, afterId, pageable);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, sort);
+                bookings = bookingRepository.findByBookerIdAndStatus(
+                        bookerId, BookingStatus.REJECTED, afterStart, afterId, pageable);
                 break;
             default:
                 throw new ValidationException("Неизвестное состояние: " + state);
         }
 
-        return bookings.stream()
-                .map(bookingMapper::toBookingResponseDto)
-                .collect(Collectors.toList());
+        return toVersionedPage(bookings, now, "booker", bookerId);
     }
 
     @Override
-    public List<BookingResponseDto> getAllBookingsByOwner(Long ownerId, String state) {
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public List<BookingResponseDto> getAllBookingsByOwner(Long ownerId, String state, int from, int size,
+                                                          LocalDateTime cursorStart, Long cursorId) {
+        return getOwnerBookingsPage(ownerId, state, from, size, cursorStart, cursorId).body();
+    }
+
+    @Override
+    public Versioned<List<BookingResponseDto>> getOwnerBookingsPage(Long ownerId, String state, int from, int size,
+                                                                    LocalDateTime cursorStart, Long cursorId) {
+        userExistenceChecker.requireExists(ownerId);
 
         BookingState bookingState = parseState(state);
+        Pageable pageable = toPageable(from, size, cursorStart, cursorId);
+        LocalDateTime afterStart = cursorStart != null ? cursorStart : NO_CURSOR_START;
+        Long afterId = cursorId != null ? cursorId : NO_CURSOR_ID;
         LocalDateTime now = LocalDateTime.now();
 
         List<Booking> bookings;
         switch (bookingState) {
             case ALL:
-                bookings = bookingRepository.findByItemOwnerId(ownerId, sort);
+                bookings = bookingRepository.findByItemOwnerId(ownerId, afterStart, afterId, pageable);
                 break;
             case CURRENT:
                 bookings = bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfter(
-                        ownerId, now, now, sort);
+                        ownerId, now, now, afterStart, afterId, pageable);
                 break;
             case PAST:
-                bookings = bookingRepository.findByItemOwnerIdAndEndBefore(ownerId, now, sort);
+                bookings = bookingRepository.findByItemOwnerIdAndEndBefore(ownerId, now, afterStart, afterId, pageable);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByItemOwnerIdAndStartAfter(ownerId, now, sort);
+                bookings = bookingRepository.findByItemOwnerIdAndStartAfter(ownerId, now, afterStart, afterId, pageable);
                 break;
             case WAITING:
-                bookings = bookingRepository.findByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, sort);
+                bookings = bookingRepository.findByItemOwnerIdAndStatus(
+                        ownerId, BookingStatus.WAITING, afterStart, afterId, pageable);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, sort);
+                bookings = bookingRepository.findByItemOwnerIdAndStatus(
+                        ownerId, BookingStatus.REJECTED, afterStart, afterId, pageable);
                 break;
             default:
                 throw new ValidationException("Неизвестное состояние: " + state);
         }
 
-        return bookings.stream()
+        return toVersionedPage(bookings, now, "owner", ownerId);
+    }
+
+    @Override
+    public String getBookingEtag(Long bookingId, Long userId) {
+        VersionStamp booking = bookingRepository.findVersionStampByIdAndUserId(bookingId, userId,
+                LocalDateTime.now());
+        if (booking.isEmpty()) {
+            return null;
+        }
+        return VersionStamp.etag("booking", bookingId, "user", userId, booking);
+    }
+
+    /**
+     * Отпечаток считается по строкам страницы: версия вещи входит в него, так как её название попадает в ответ;
+     * наступившие даты начала и окончания - так как от них зависят состояния CURRENT/PAST/FUTURE.
+     */
+    private Versioned<List<BookingResponseDto>> toVersionedPage(List<Booking> bookings, LocalDateTime now,
+                                                               String role, Long userId) {
+        List<BookingResponseDto> page = bookings.stream()
                 .map(bookingMapper::toBookingResponseDto)
                 .collect(Collectors.toList());
+        if (bookings.isEmpty()) {
+            return new Versioned<>(page, null);
+        }
+        VersionStamp stamp = VersionStamp.of(bookings, Booking::getId,
+                booking -> booking.getVersion() + booking.getItem().getVersion(),
+                booking -> (booking.getStart().isBefore(now) ? 1L : 0L) + (booking.getEnd().isBefore(now) ? 1L : 0L));
+        return new Versioned<>(page, VersionStamp.etag("bookings", role, userId, stamp));
     }
 
+    private static boolean isOverlapConflict(DataIntegrityViolationException e) {
+        // Не для всех кодов ошибок Hibernate извлекает имя ограничения, поэтому запасной вариант - текст ошибки БД
+        if (e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null) {
+            return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(OVERLAP_CONSTRAINT);
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(OVERLAP_CONSTRAINT);
+    }
+
+    private Pageable toPageable(int from, int size, LocalDateTime cursorStart, Long cursorId) {
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Параметры пагинации должны быть from >= 0 и size > 0");
+        }
+        if ((cursorStart == null) != (cursorId == null)) {
+            throw new ValidationException("Курсор должен содержать и cursorStart, и cursorId");
+        }
+        // При наличии курсора смещение from не применяется: страница начинается сразу после курсора
+        return OffsetPageRequest.of(cursorId != null ? 0 : from, size, sort);
+    }
+
+    private static Lock[] createItemLocks() {
+        Lock[] locks = new Lock[ITEM_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
 
     private void validateBookingDates(BookingDto bookingDto) {
         if (bookingDto.getStart() == null || bookingDto.getEnd() == null) {
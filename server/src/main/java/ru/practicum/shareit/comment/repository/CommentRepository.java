@@ -1,12 +1,25 @@
 package ru.practicum.shareit.comment.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.version.VersionStamp;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByItemIdOrderByCreatedDesc(Long itemId);
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findByItemIdInOrderByCreatedDesc(List<Long> itemIds);
+
+    // Комментарии не редактируются, поэтому достаточно числа и наибольшего id; версии авторов учитываются,
+    // так как их имена попадают в ответ
+    String VERSION_STAMP = "SELECT new ru.practicum.shareit.version.VersionStamp(" +
+            "COUNT(c), COALESCE(SUM(a.version), 0L), COALESCE(MAX(c.id), 0L)) FROM Comment c JOIN c.author a ";
+
+    @Query(VERSION_STAMP + "WHERE c.item.id = :itemId")
+    VersionStamp findVersionStampByItemId(@Param("itemId") Long itemId);
 }
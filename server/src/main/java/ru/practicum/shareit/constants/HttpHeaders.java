@@ -2,4 +2,5 @@ package ru.practicum.shareit.constants;
 
 public interface HttpHeaders {
     String SHARER_USER_ID = "X-Sharer-User-Id";
+    String NEXT_CURSOR = "X-Next-Cursor";
 }
@@ -65,6 +65,13 @@ public class ErrorHandler {
         return new ErrorResponse("Нарушение целостности данных: " + e.getMessage());
     }
 
+    @ExceptionHandler(org.springframework.dao.OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(
+            org.springframework.dao.OptimisticLockingFailureException e) {
+        return new ErrorResponse("Данные были изменены параллельным запросом, повторите попытку");
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ErrorResponse handleAccessDeniedException(AccessDeniedException e) {
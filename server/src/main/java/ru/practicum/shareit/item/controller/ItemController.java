@@ -1,14 +1,17 @@
 package ru.practicum.shareit.item.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.version.Versioned;
 
 import java.util.List;
 
@@ -16,12 +19,15 @@ import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 
 /**
  * TODO Sprint add-controllers.
+ * GET-запросы с совпадающим If-None-Match получают 304 без загрузки вещей.
  */
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
 @Validated
 public class ItemController {
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final ItemService itemService;
 
     @PostMapping
@@ -31,6 +37,23 @@ public class ItemController {
         return itemService.createItem(itemDto, ownerId);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<ItemDto> createItems(@RequestBody @Size(min = 1, max = MAX_BATCH_SIZE,
+                                             message = "В пакете должно быть от 1 до 1000 вещей")
+                                     List<@Valid ItemDto> itemDtos,
+                                     @RequestHeader(SHARER_USER_ID) Long ownerId) {
+        return itemService.createItems(itemDtos, ownerId);
+    }
+
+    @PatchMapping("/batch")
+    public List<ItemDto> updateItems(@RequestBody @Size(min = 1, max = MAX_BATCH_SIZE,
+                                             message = "В пакете должно быть от 1 до 1000 вещей")
+                                     List<ItemDto> itemDtos,
+                                     @RequestHeader(SHARER_USER_ID) Long ownerId) {
+        return itemService.updateItems(itemDtos, ownerId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@PathVariable Long itemId,
                               @RequestBody ItemDto itemDto,
@@ -40,7 +63,11 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemWithBookingsDto getItemById(@PathVariable Long itemId,
-                                           @RequestHeader(SHARER_USER_ID) Long userId) {
+                                           @RequestHeader(SHARER_USER_ID) Long userId,
+                                           WebRequest request) {
+        if (request.checkNotModified(itemService.getItemEtag(itemId, userId))) {
+            return null;
+        }
         return itemService.getItemByIdWithBookings(itemId, userId);
     }
 
@@ -48,15 +75,21 @@ public class ItemController {
     public List<ItemWithBookingsDto> getAllItemsByOwner(
             @RequestHeader(SHARER_USER_ID) Long ownerId,
             @RequestParam(defaultValue = "0") int from,
-            @RequestParam(defaultValue = "10") int size) {
-        return itemService.getAllItemsByOwner(ownerId);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long after,
+            WebRequest request) {
+        Versioned<List<ItemWithBookingsDto>> page = itemService.getItemsByOwnerPage(ownerId, from, size, after);
+        if (request.checkNotModified(page.etag())) {
+            return null;
+        }
+        return page.body();
     }
 
     @GetMapping("/search")
     public List<ItemDto> searchItems(@RequestParam String text,
                                      @RequestParam(defaultValue = "0") int from,
                                      @RequestParam(defaultValue = "10") int size) {
-        return itemService.searchItems(text);
+        return itemService.searchItems(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
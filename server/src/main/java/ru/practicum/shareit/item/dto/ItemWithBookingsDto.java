@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.comment.dto.CommentDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -19,6 +20,8 @@ public class ItemWithBookingsDto {
     private BookingInfoDto lastBooking;
     private BookingInfoDto nextBooking;
     private List<CommentDto> comments;
+    private Integer commentCount;
+    private LocalDateTime lastCommentAt;
 
     @Data
     @NoArgsConstructor
@@ -14,9 +14,11 @@ public interface ItemMapper {
     @Mapping(target = "description", source = "dto.description")
     @Mapping(target = "available", source = "dto.available")
     @Mapping(target = "owner", source = "owner")
+    @Mapping(target = "version", ignore = true)
     Item toItem(ItemDto dto, User owner);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Item toEntity(ItemDto itemDto);
 
     ItemDto toItemDto(Item item);
@@ -24,6 +26,8 @@ public interface ItemMapper {
     @Mapping(target = "lastBooking", ignore = true)
     @Mapping(target = "nextBooking", ignore = true)
     @Mapping(target = "comments", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "lastCommentAt", ignore = true)
     @Mapping(target = "requestId", source = "requestId", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     ItemWithBookingsDto toItemWithBookingsDto(Item item);
 
@@ -31,5 +35,6 @@ public interface ItemMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "owner", ignore = true)
     @Mapping(target = "requestId", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateItemFromDto(ItemDto dto, @MappingTarget Item item);
 }
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Денормализованные счётчики комментариев вещи. Хранятся отдельно от {@link Item} и не кэшируются:
+ * их частые обновления не затрагивают регион кэша второго уровня items.
+ */
+@Entity
+@Table(name = "item_comment_stats")
+@Data
+@NoArgsConstructor
+public class ItemCommentStats implements Persistable<Long> {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "comment_count", nullable = false)
+    private int commentCount;
+
+    @Column(name = "last_comment_at")
+    private LocalDateTime lastCommentAt;
+
+    // id задаётся вручную, поэтому без флага save выполнял бы лишний SELECT перед INSERT
+    @Transient
+    private boolean persisted;
+
+    public ItemCommentStats(Long itemId, int commentCount, LocalDateTime lastCommentAt) {
+        this.itemId = itemId;
+        this.commentCount = commentCount;
+        this.lastCommentAt = lastCommentAt;
+    }
+
+    @Override
+    public Long getId() {
+        return itemId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemCommentStats;
+
+import java.time.LocalDateTime;
+
+public interface ItemCommentStatsRepository extends JpaRepository<ItemCommentStats, Long> {
+    /**
+     * Учитывает новый комментарий без загрузки строки. Время последнего комментария только растёт:
+     * транзакции с комментариями могут фиксироваться не в порядке их created.
+     */
+    @Modifying
+    @Query("UPDATE ItemCommentStats s SET s.commentCount = s.commentCount + 1, " +
+            "s.lastCommentAt = CASE WHEN s.lastCommentAt IS NULL OR s.lastCommentAt < :created " +
+            "THEN :created ELSE s.lastCommentAt END " +
+            "WHERE s.itemId = :itemId")
+    int increment(@Param("itemId") Long itemId, @Param("created") LocalDateTime created);
+}
@@ -1,20 +1,66 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.version.VersionStamp;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByOwnerIdOrderById(Long ownerId);
+    List<Item> findByOwnerIdAndIdGreaterThanOrderById(Long ownerId, Long afterId, Pageable pageable);
 
+    List<Item> findByAvailableTrueAndIdGreaterThanOrderById(Long afterId, Pageable pageable);
+
+    /**
+     * Совпадения по названию идут раньше совпадений только по описанию.
+     * На PostgreSQL условия LIKE обслуживаются триграммными индексами из миграции V2__search_trigram_indexes.sql.
+     */
     @Query("SELECT i FROM Item i WHERE i.available = true AND " +
             "(LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) OR " +
-            "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
-    List<Item> searchAvailableItems(String text);
+            "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
+            "ORDER BY CASE WHEN LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) THEN 0 ELSE 1 END, i.id")
+    List<Item> searchAvailableItems(@Param("text") String text, Pageable pageable);
 
     List<Item> findByRequestIdIn(List<Long> requestIds);
 
+    /**
+     * Текущее состояние вещей из БД в обход кэша второго уровня: запись в нём могла устареть,
+     * если вещь изменил другой экземпляр сервера.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids")
+    List<Item> findCurrentByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Вещь с владельцем из БД в обход кэша второго уровня: по ним решается, можно ли её бронировать.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT i FROM Item i JOIN FETCH i.owner WHERE i.id = :id")
+    Optional<Item> findCurrentById(@Param("id") Long id);
+
     List<Item> findByRequestId(Long requestId);
+
+    String VERSION_STAMP = "SELECT new ru.practicum.shareit.version.VersionStamp(" +
+            "COUNT(i), COALESCE(SUM(i.version), 0L), COALESCE(MAX(i.id), 0L)) FROM Item i ";
+
+    @Query(VERSION_STAMP + "WHERE i.id = :itemId")
+    VersionStamp findVersionStampById(@Param("itemId") Long itemId);
+
+    @Query(VERSION_STAMP + "WHERE i.requestId = :requestId")
+    VersionStamp findVersionStampByRequestId(@Param("requestId") Long requestId);
+
+    /**
+     * Вещи, добавленные в ответ на запросы одного пользователя.
+     */
+    @Query(VERSION_STAMP + "WHERE i.requestId IN " +
+            "(SELECT r.id FROM ItemRequest r WHERE r.requestor.id = :requestorId)")
+    VersionStamp findVersionStampOfAnswersToRequestor(@Param("requestorId") Long requestorId);
 }
\ No newline at end of file
@@ -0,0 +1,369 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.EventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс доступных вещей в памяти с той же семантикой, что у ItemRepository.searchAvailableItems:
+ * вся строка запроса без учёта регистра ищется подстрокой в названии или описании, совпадения по названию
+ * идут первыми, внутри группы - по возрастанию id. Единственное отличие: символы % и _ индекс ищет буквально,
+ * а LIKE считает шаблоном.
+ * Для каждого поля хранятся n-граммы длиной 1..{@value #GRAM} -> отсортированный список id. Короткий запрос
+ * сам является n-граммой, длинный сводится к пересечению списков его триграмм и проверке подстроки у кандидатов,
+ * поэтому стоимость поиска зависит от длины списков, а не от размера словаря.
+ * Индекс строится при старте приложения. Изменения своего экземпляра применяются после коммита транзакции,
+ * изменения других экземпляров - раз в sync-interval по событиям вещей из outbox (см. {@link #syncChanges()}).
+ * Для каждой вещи запоминается версия: состояние не старше уже применённого пропускается, поэтому порядок,
+ * в котором приходят построение, коммиты и синхронизация, не важен.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int BUILD_BATCH_SIZE = 1000;
+    private static final int GRAM = 3;
+    private static final List<String> ITEM_CHANGES = List.of(EventType.ITEM_CREATED.name(),
+            EventType.ITEM_UPDATED.name());
+
+    private final ItemRepository itemRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final boolean enabled;
+    private final Duration syncInterval;
+    private final Duration syncLookback;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Field names = new Field();
+    private final Field descriptions = new Field();
+    private final Map<Long, Long> versions = new HashMap<>();
+    private volatile boolean ready;
+    private volatile LocalDateTime syncedUntil;
+
+    private final ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("item-search-sync").daemon().factory());
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           OutboxEventRepository outboxEventRepository,
+                           @Value("${shareit.search.index.enabled:false}") boolean enabled,
+                           @Value("${shareit.search.index.sync-interval:5s}") Duration syncInterval,
+                           @Value("${shareit.search.index.sync-lookback:1m}") Duration syncLookback) {
+        this.itemRepository = itemRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.enabled = enabled;
+        this.syncInterval = syncInterval;
+        this.syncLookback = syncLookback;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Загружает вещи пачками и запускает синхронизацию с изменениями, начатыми после старта построения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        syncedUntil = LocalDateTime.now();
+        long afterId = 0L;
+        int indexed = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(
+                    afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            List<Item> rows = batch;
+            withWriteLock(() -> rows.forEach(this::put));
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            indexed += batch.size();
+        } while (batch.size() == BUILD_BATCH_SIZE);
+        ready = true;
+        log.info("Индекс поиска вещей построен: {} вещей", indexed);
+
+        long interval = syncInterval.toMillis();
+        syncer.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Обновляет запись вещи в индексе. Внутри транзакции изменение применяется только после коммита:
+     * к этому моменту flush уже увеличил версию вещи.
+     */
+    public void index(Item item) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    withWriteLock(() -> put(item));
+                }
+            });
+        } else {
+            withWriteLock(() -> put(item));
+        }
+    }
+
+    /**
+     * Перечитывает из БД вещи, по которым в outbox есть события создания или изменения с прошлой синхронизации.
+     * Окно сдвинуто назад на sync-lookback: событие получает время при записи, а видимым становится при коммите,
+     * к тому же часы экземпляров могут расходиться. Уже применённые версии пропускаются.
+     * Возвращает число перечитанных вещей.
+     */
+    public int syncChanges() {
+        if (!isReady()) {
+            return 0;
+        }
+        LocalDateTime pollStarted = LocalDateTime.now();
+        List<Long> changed = outboxEventRepository.findAggregateIdsChangedSince(
+                EventType.ITEM_UPDATED.getAggregateType(), ITEM_CHANGES, syncedUntil.minus(syncLookback));
+        List<Item> items = changed.isEmpty() ? List.of() : itemRepository.findCurrentByIdIn(changed);
+        withWriteLock(() -> items.forEach(this::put));
+        syncedUntil = pollStarted;
+        return items.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncer.shutdownNow();
+    }
+
+    /**
+     * Возвращает id найденных вещей в пределах страницы [from, from + size) в порядке выдачи запроса к БД.
+     */
+    public List<Long> search(String text, int from, int size) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String phrase = text.toLowerCase(Locale.ROOT);
+
+        long[] byName;
+        long[] byDescription;
+        lock.readLock().lock();
+        try {
+            byName = names.match(phrase);
+            byDescription = descriptions.match(phrase);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> page = new ArrayList<>(Math.min(size, byName.length + byDescription.length));
+        int position = 0;
+        for (long id : byName) {
+            if (page.size() == size) {
+                return page;
+            }
+            if (position++ >= from) {
+                page.add(id);
+            }
+        }
+        for (long id : byDescription) {
+            if (page.size() == size) {
+                return page;
+            }
+            if (Arrays.binarySearch(byName, id) < 0 && position++ >= from) {
+                page.add(id);
+            }
+        }
+        return page;
+    }
+
+    private void put(Item item) {
+        Long id = item.getId();
+        Long version = item.getVersion();
+        Long applied = versions.get(id);
+        if (applied != null && version != null && version <= applied) {
+            return;
+        }
+        if (version != null) {
+            versions.put(id, version);
+        }
+        names.remove(id);
+        descriptions.remove(id);
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            names.add(id, item.getName());
+            descriptions.add(id, item.getDescription());
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            int synced = syncChanges();
+            if (synced > 0) {
+                log.debug("Индекс поиска вещей: перечитано {} изменённых вещей", synced);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Индекс поиска вещей: синхронизация не удалась, повтор через {}", syncInterval, e);
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Set<String> grams(String text, int maxLength) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length <= maxLength; length++) {
+            for (int i = 0; i + length <= text.length(); i++) {
+                grams.add(text.substring(i, i + length));
+            }
+        }
+        return grams;
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                result[size++] = left[i];
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * N-граммы одного поля и его текст в нижнем регистре для проверки кандидатов.
+     */
+    private static final class Field {
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private final Map<Long, String> texts = new HashMap<>();
+
+        void add(long id, String text) {
+            if (text == null || text.isEmpty()) {
+                return;
+            }
+            String lower = text.toLowerCase(Locale.ROOT);
+            texts.put(id, lower);
+            for (String gram : grams(lower, GRAM)) {
+                postings.computeIfAbsent(gram, g -> new PostingList()).add(id);
+            }
+        }
+
+        void remove(long id) {
+            String previous = texts.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String gram : grams(previous, GRAM)) {
+                PostingList list = postings.get(gram);
+                if (list != null && list.remove(id) && list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+
+        long[] match(String phrase) {
+            if (phrase.length() <= GRAM) {
+                PostingList list = postings.get(phrase);
+                return list == null ? new long[0] : list.toArray();
+            }
+
+            List<PostingList> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM <= phrase.length(); i++) {
+                PostingList list = postings.get(phrase.substring(i, i + GRAM));
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            // Пересечение начинается с самого короткого списка
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            long[] candidates = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = intersect(candidates, lists.get(i).toArray());
+            }
+
+            int matched = 0;
+            for (long id : candidates) {
+                if (texts.get(id).contains(phrase)) {
+                    candidates[matched++] = id;
+                }
+            }
+            return Arrays.copyOf(candidates, matched);
+        }
+    }
+
+    /**
+     * Отсортированный список id без упаковки в Long.
+     */
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
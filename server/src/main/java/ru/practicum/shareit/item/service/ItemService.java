@@ -4,6 +4,7 @@ import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.version.Versioned;
 
 import java.util.List;
 
@@ -13,16 +14,33 @@ public interface ItemService {
 
     ItemDto updateItem(Long itemId, ItemDto itemDto, Long ownerId);
 
+    List<ItemDto> createItems(List<ItemDto> itemDtos, Long ownerId);
+
+    /**
+     * Частичное обновление нескольких вещей владельца; id каждой вещи берётся из её DTO.
+     */
+    List<ItemDto> updateItems(List<ItemDto> itemDtos, Long ownerId);
+
     ItemWithBookingsDto getItemByIdWithBookings(Long itemId, Long userId);
 
     ItemDto getItemById(Long itemId);
 
     Item getItemEntityById(Long itemId);
 
-    List<ItemWithBookingsDto> getAllItemsByOwner(Long ownerId);
+    List<ItemWithBookingsDto> getAllItemsByOwner(Long ownerId, int from, int size, Long afterId);
 
-    List<ItemDto> searchItems(String text);
+    /**
+     * Страница вещей владельца с ETag, посчитанным по загруженным вещам, их бронированиям и комментариям.
+     */
+    Versioned<List<ItemWithBookingsDto>> getItemsByOwnerPage(Long ownerId, int from, int size, Long afterId);
+
+    List<ItemDto> searchItems(String text, int from, int size);
 
     CommentDto addComment(Long itemId, Long userId, CommentDto commentDto);
 
+    /**
+     * ETag ответа getItemByIdWithBookings, вычисленный по версиям без загрузки данных; null, если вещи нет.
+     */
+    String getItemEtag(Long itemId, Long userId);
+
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
@@ -12,18 +16,35 @@ import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.error.exception.AccessDeniedException;
 import ru.practicum.shareit.error.exception.NotFoundException;
-import ru.practicum.shareit.error.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemCommentStats;
+import ru.practicum.shareit.item.repository.ItemCommentStatsRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.outbox.EventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+import ru.practicum.shareit.version.VersionStamp;
+import ru.practicum.shareit.version.Versioned;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,11 +52,16 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ItemServiceIml implements ItemService {
     private final ItemRepository itemRepository;
+    private final ItemCommentStatsRepository itemCommentStatsRepository;
     private final UserRepository userRepository;
+    private final UserExistenceChecker userExistenceChecker;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemRequestService itemRequestService;
+    private final OutboxWriter outboxWriter;
 
 
     @Override
@@ -45,13 +71,21 @@ public class ItemServiceIml implements ItemService {
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
 
         Item item = itemMapper.toItem(itemDto, owner);
+        Map<Long, String> requestorViews = itemRequestService.getRequestorViewEtags(requestIdsOf(List.of(item)));
 
         Item savedItem = itemRepository.save(item);
-        return itemMapper.toItemDto(savedItem);
+        itemCommentStatsRepository.save(new ItemCommentStats(savedItem.getId(), 0, null));
+        itemSearchIndex.index(savedItem);
+        ItemDto created = itemMapper.toItemDto(savedItem);
+        outboxWriter.append(EventType.ITEM_CREATED, created.getId(), created);
+        itemRequestService.publishAnswers(List.of(created), requestorViews);
+        return created;
     }
 
 
     @Override
+    @Transactional
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3, backoff = @Backoff(delay = 50))
     public ItemDto updateItem(Long itemId, ItemDto itemDto, Long ownerId) {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Продукт не найден с id: " + itemId));
@@ -59,11 +93,83 @@ public class ItemServiceIml implements ItemService {
         if (!item.getOwner().getId().equals(ownerId)) {
             throw new AccessDeniedException("Пользователь не является владельцем");
         }
+        Map<Long, String> requestorViews = itemRequestService.getRequestorViewEtags(requestIdsOf(List.of(item)));
 
         itemMapper.updateItemFromDto(itemDto, item);
         itemRepository.save(item);
+        itemSearchIndex.index(item);
 
-        return itemMapper.toItemDto(item);
+        ItemDto updated = itemMapper.toItemDto(item);
+        outboxWriter.append(EventType.ITEM_UPDATED, itemId, updated);
+        itemRequestService.publishAnswers(List.of(updated), requestorViews);
+        return updated;
+    }
+
+    /**
+     * Владелец проверяется один раз, вещи сохраняются одним persist-пакетом: id берутся из последовательности,
+     * поэтому INSERT уходят в БД пачками по hibernate.jdbc.batch_size при коммите.
+     */
+    @Override
+    @Transactional
+    public List<ItemDto> createItems(List<ItemDto> itemDtos, Long ownerId) {
+        userExistenceChecker.requireExists(ownerId);
+        User owner = userRepository.getReferenceById(ownerId);
+
+        List<Item> items = itemDtos.stream()
+                .map(itemDto -> itemMapper.toItem(itemDto, owner))
+                .collect(Collectors.toList());
+        Map<Long, String> requestorViews = itemRequestService.getRequestorViewEtags(requestIdsOf(items));
+
+        List<Item> savedItems = itemRepository.saveAll(items);
+        itemCommentStatsRepository.saveAll(savedItems.stream()
+                .map(saved -> new ItemCommentStats(saved.getId(), 0, null))
+                .collect(Collectors.toList()));
+        savedItems.forEach(itemSearchIndex::index);
+        List<ItemDto> created = savedItems.stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+        created.forEach(itemDto -> outboxWriter.append(EventType.ITEM_CREATED, itemDto.getId(), itemDto));
+        itemRequestService.publishAnswers(created, requestorViews);
+        return created;
+    }
+
+    @Override
+    @Transactional
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3, backoff = @Backoff(delay = 50))
+    public List<ItemDto> updateItems(List<ItemDto> itemDtos, Long ownerId) {
+        Set<Long> itemIds = new HashSet<>();
+        for (ItemDto itemDto : itemDtos) {
+            if (itemDto.getId() == null) {
+                throw new IllegalArgumentException("Не указан id вещи");
+            }
+            if (!itemIds.add(itemDto.getId())) {
+                throw new IllegalArgumentException("Вещь указана несколько раз: " + itemDto.getId());
+            }
+        }
+
+        Map<Long, Item> itemsById = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, String> requestorViews = itemRequestService.getRequestorViewEtags(
+                requestIdsOf(itemsById.values()));
+
+        List<ItemDto> updatedItems = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            Item item = itemsById.get(itemDto.getId());
+            if (item == null) {
+                throw new NotFoundException("Продукт не найден с id: " + itemDto.getId());
+            }
+            if (!item.getOwner().getId().equals(ownerId)) {
+                throw new AccessDeniedException("Пользователь не является владельцем");
+            }
+            itemMapper.updateItemFromDto(itemDto, item);
+            itemSearchIndex.index(item);
+            ItemDto updated = itemMapper.toItemDto(item);
+            outboxWriter.append(EventType.ITEM_UPDATED, item.getId(), updated);
+            updatedItems.add(updated);
+        }
+        itemRequestService.publishAnswers(updatedItems, requestorViews);
+        // UPDATE выполняются при flush пачками, версии проверяются для каждой строки
+        return updatedItems;
     }
 
     @Override
@@ -94,6 +200,7 @@ public class ItemServiceIml implements ItemService {
                 .map(commentMapper::toCommentDto)
                 .collect(Collectors.toList());
         itemWithBookings.setComments(comments);
+        setCommentStats(itemWithBookings, itemCommentStatsRepository.findById(itemId).orElse(null));
 
         return itemWithBookings;
     }
@@ -112,44 +219,80 @@ public class ItemServiceIml implements ItemService {
     }
 
     @Override
-    public List<ItemWithBookingsDto> getAllItemsByOwner(Long ownerId) {
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public List<ItemWithBookingsDto> getAllItemsByOwner(Long ownerId, int from, int size, Long afterId) {
+        return getItemsByOwnerPage(ownerId, from, size, afterId).body();
+    }
 
-        List<Item> items = itemRepository.findByOwnerIdOrderById(ownerId);
-        LocalDateTime now = LocalDateTime.now();
+    @Override
+    public Versioned<List<ItemWithBookingsDto>> getItemsByOwnerPage(Long ownerId, int from, int size, Long afterId) {
+        userExistenceChecker.requireExists(ownerId);
 
-        return items.stream().map(item -> {
-            ItemWithBookingsDto itemWithBookings = itemMapper.toItemWithBookingsDto(item);
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Параметры пагинации должны быть from >= 0 и size > 0");
+        }
 
-            bookingRepository
-                    .findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(
-                            item.getId(), now, BookingStatus.APPROVED)
-                    .ifPresent(booking -> itemWithBookings.setLastBooking(
-                            new ItemWithBookingsDto.BookingInfoDto(booking.getId(), booking.getBooker().getId())));
+        // Курсор (id последней вещи предыдущей страницы) имеет приоритет над смещением from
+        List<Item> items = afterId != null
+                ? itemRepository.findByOwnerIdAndIdGreaterThanOrderById(ownerId, afterId, OffsetPageRequest.of(0, size))
+                : itemRepository.findByOwnerIdAndIdGreaterThanOrderById(ownerId, 0L, OffsetPageRequest.of(from, size));
+        if (items.isEmpty()) {
+            return new Versioned<>(Collections.emptyList(), null);
+        }
 
-            bookingRepository
-                    .findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
-                            item.getId(), now, BookingStatus.APPROVED)
-                    .ifPresent(booking -> itemWithBookings.setNextBooking(
-                            new ItemWithBookingsDto.BookingInfoDto(booking.getId(), booking.getBooker().getId())));
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<Long, Booking> lastBookings = new HashMap<>();
+        Map<Long, Booking> nextBookings = new HashMap<>();
+        List<Booking> bookings = bookingRepository.findLastAndNextApprovedByItemIdIn(itemIds, now);
+        for (Booking booking : bookings) {
+            Long itemId = booking.getItem().getId();
+            if (booking.getStart().isBefore(now)) {
+                lastBookings.put(itemId, booking);
+            } else {
+                nextBookings.put(itemId, booking);
+            }
+        }
 
-            List<CommentDto> comments = commentRepository.findByItemIdOrderByCreatedDesc(item.getId())
-                    .stream()
-                    .map(commentMapper::toCommentDto)
-                    .collect(Collectors.toList());
-            itemWithBookings.setComments(comments);
+        List<Comment> comments = commentRepository.findByItemIdInOrderByCreatedDesc(itemIds);
+        Map<Long, List<CommentDto>> commentsByItem = comments.stream()
+                .collect(Collectors.groupingBy(
+                        comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())
+                ));
+        Map<Long, ItemCommentStats> statsByItem = itemCommentStatsRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemCommentStats::getItemId, Function.identity()));
 
+        List<ItemWithBookingsDto> page = items.stream().map(item -> {
+            ItemWithBookingsDto itemWithBookings = itemMapper.toItemWithBookingsDto(item);
+            itemWithBookings.setLastBooking(toBookingInfo(lastBookings.get(item.getId())));
+            itemWithBookings.setNextBooking(toBookingInfo(nextBookings.get(item.getId())));
+            itemWithBookings.setComments(commentsByItem.getOrDefault(item.getId(), Collections.emptyList()));
+            setCommentStats(itemWithBookings, statsByItem.get(item.getId()));
             return itemWithBookings;
         }).collect(Collectors.toList());
+
+        // Отпечаток по строкам страницы: вещи, показанные last/next бронирования и комментарии с версиями авторов,
+        // чьи имена попадают в ответ. Счётчики комментариев меняются вместе с числом комментариев
+        String etag = VersionStamp.etag("items", "owner", ownerId,
+                VersionStamp.of(items, Item::getId, Item::getVersion),
+                VersionStamp.of(bookings, Booking::getId, Booking::getVersion),
+                VersionStamp.of(comments, Comment::getId, comment -> comment.getAuthor().getVersion()));
+        return new Versioned<>(page, etag);
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
+    public List<ItemDto> searchItems(String text, int from, int size) {
         if (text == null || text.isBlank()) {
             return Collections.emptyList();
         }
-        return itemRepository.searchAvailableItems(text)
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Параметры пагинации должны быть from >= 0 и size > 0");
+        }
+        if (itemSearchIndex.isReady()) {
+            return searchInIndex(text, from, size);
+        }
+        return itemRepository.searchAvailableItems(text, OffsetPageRequest.of(from, size))
                 .stream()
                 .map(itemMapper::toItemDto)
                 .collect(Collectors.toList());
@@ -158,20 +301,75 @@ public class ItemServiceIml implements ItemService {
     @Override
     @Transactional
     public CommentDto addComment(Long itemId, Long userId, CommentDto commentDto) {
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
-        User author = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-
-        List<Booking> userBookings = bookingRepository.findByItemIdAndBookerIdAndEndBeforeAndStatus(
+        // Завершённое бронирование подтверждает и вещь, и пользователя, поэтому успешный путь - один EXISTS
+        boolean eligible = bookingRepository.existsByItemIdAndBookerIdAndEndBeforeAndStatus(
                 itemId, userId, LocalDateTime.now(), BookingStatus.APPROVED);
-
-        if (userBookings.isEmpty()) {
-            throw new ValidationException("Пользователь не брал вещь в аренду или аренда еще не завершена");
+        if (!eligible) {
+            if (!itemRepository.existsById(itemId)) {
+                throw new NotFoundException("Вещь не найдена");
+            }
+            userExistenceChecker.requireExists(userId);
+            throw new ru.practicum.shareit.error.exception.ValidationException(
+                    "Пользователь не брал вещь в аренду или аренда еще не завершена");
         }
 
+        Item item = itemRepository.getReferenceById(itemId);
+        User author = userRepository.getReferenceById(userId);
         Comment comment = commentMapper.toCommentFromCreate(commentDto, item, author);
         Comment savedComment = commentRepository.save(comment);
-        return commentMapper.toCommentDto(savedComment);
+        // Строка счётчиков создаётся вместе с вещью (для вещей до миграции V9 - самой миграцией), поэтому
+        // достаточно UPDATE: вставка при её отсутствии гонялась бы за первичный ключ с параллельным комментарием
+        itemCommentStatsRepository.increment(itemId, savedComment.getCreated());
+        CommentDto added = commentMapper.toCommentDto(savedComment);
+        outboxWriter.append(EventType.COMMENT_ADDED, itemId, added);
+        return added;
+    }
+
+    @Override
+    public String getItemEtag(Long itemId, Long userId) {
+        VersionStamp item = itemRepository.findVersionStampById(itemId);
+        if (item.isEmpty()) {
+            return null;
+        }
+        // Пользователь входит в ETag: владелец видит бронирования, остальные нет
+        return VersionStamp.etag("item", itemId, "user", userId, item,
+                bookingRepository.findVersionStampByItemId(itemId, LocalDateTime.now()),
+                commentRepository.findVersionStampByItemId(itemId));
+    }
+
+    private List<ItemDto> searchInIndex(String text, int from, int size) {
+        List<Long> ids = itemSearchIndex.search(text, from, size);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Item> itemsById = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(itemsById::get)
+                .filter(item -> item != null && Boolean.TRUE.equals(item.getAvailable()))
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    private static void setCommentStats(ItemWithBookingsDto itemWithBookings, ItemCommentStats stats) {
+        itemWithBookings.setCommentCount(stats == null ? 0 : stats.getCommentCount());
+        itemWithBookings.setLastCommentAt(stats == null ? null : stats.getLastCommentAt());
+    }
+
+    private ItemWithBookingsDto.BookingInfoDto toBookingInfo(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new ItemWithBookingsDto.BookingInfoDto(booking.getId(), booking.getBooker().getId());
+    }
+
+    /**
+     * Запросы, на которые отвечают вещи: отпечатки их представлений снимаются до записи.
+     */
+    private static Set<Long> requestIdsOf(Collection<Item> items) {
+        return items.stream()
+                .map(Item::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * Опубликованное событие: payload - JSON ответа сервиса на момент изменения.
+ * Доставка "хотя бы один раз", поэтому подписчики отбрасывают повторы по id.
+ */
+public record DomainEvent(Long id, String aggregateType, Long aggregateId, String type, String payload,
+                          LocalDateTime created) {
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+/**
+ * Транспорт событий из outbox. Исключение из publish оставляет пачку неопубликованной:
+ * ретранслятор повторит её события по одному, а не принятое и так событие - с паузой, пока не исчерпает попытки.
+ */
+public interface DomainEventBroker {
+    void publish(List<DomainEvent> events);
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Счётчик shareit.domain.events по типам событий в actuator - аналитика без запросов к БД.
+ */
+@Component
+@RequiredArgsConstructor
+public class DomainEventMetrics implements DomainEventSubscriber {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            Counter.builder("shareit.domain.events")
+                    .tag("type", event.type())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+/**
+ * Получатель событий встроенного брокера: пачка приходит в порядке id.
+ * Если другой подписчик упал, пачка придёт повторно, поэтому обработка должна переносить повторы.
+ */
+public interface DomainEventSubscriber {
+    void onEvents(List<DomainEvent> events);
+}
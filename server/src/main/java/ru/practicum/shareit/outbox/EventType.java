@@ -0,0 +1,28 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Тип доменного события и агрегат, к которому оно относится.
+ */
+public enum EventType {
+    BOOKING_CREATED("booking"),
+    BOOKING_APPROVED("booking"),
+    BOOKING_REJECTED("booking"),
+    ITEM_CREATED("item"),
+    ITEM_UPDATED("item"),
+
+    /**
+     * Комментарий меняет счётчики вещи, поэтому событие относится к агрегату вещи.
+     */
+    COMMENT_ADDED("item"),
+    REQUEST_CREATED("request");
+
+    private final String aggregateType;
+
+    EventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Брокер по умолчанию: раздаёт пачку бинам {@link DomainEventSubscriber} в том же процессе.
+ * Ошибка одного подписчика не мешает остальным получить пачку, но после обхода всех подписчиков
+ * пробрасывается дальше: транзакция ретранслятора откатывается, и события пачки уйдут повторно
+ * всем подписчикам (см. {@link OutboxRelay}).
+ * Внешний брокер подключается своей реализацией {@link DomainEventBroker} и shareit.outbox.broker.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.outbox.broker", havingValue = "in-process", matchIfMissing = true)
+public class InProcessEventBroker implements DomainEventBroker {
+    private final ObjectProvider<DomainEventSubscriber> subscribers;
+
+    @Override
+    public void publish(List<DomainEvent> events) {
+        RuntimeException failure = null;
+        for (DomainEventSubscriber subscriber : subscribers.orderedStream().toList()) {
+            try {
+                subscriber.onEvents(events);
+            } catch (RuntimeException e) {
+                log.error("Подписчик {} не обработал {} событий", subscriber.getClass().getSimpleName(),
+                        events.size(), e);
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
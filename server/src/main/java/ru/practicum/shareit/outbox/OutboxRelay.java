@@ -0,0 +1,192 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновый ретранслятор outbox: забирает неопубликованные события пачками по id, передаёт их
+ * {@link DomainEventBroker} и отмечает опубликованными в той же транзакции. Если брокер упал,
+ * транзакция откатывается и события пачки публикуются по одному, поэтому доставка - "хотя бы один раз".
+ * Событие, которое не проходит и по отдельности, повторяется с удваивающейся паузой от retry-backoff,
+ * а после max-attempts неудач откладывается (failed_at) и больше не задерживает очередь.
+ * Опубликованные строки удаляются по истечении срока хранения, отложенные остаются для разбора.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    private static final Duration PURGE_PERIOD = Duration.ofHours(1);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final DomainEventBroker broker;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("outbox-relay").daemon().factory());
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       DomainEventBroker broker,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${shareit.outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                       @Value("${shareit.outbox.poll-interval:1s}") Duration pollInterval,
+                       @Value("${shareit.outbox.retention:7d}") Duration retention,
+                       @Value("${shareit.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${shareit.outbox.retry-backoff:1s}") Duration retryBackoff) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.broker = broker;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        long interval = pollInterval.toMillis();
+        poller.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::purge, 0, PURGE_PERIOD.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Публикует одну пачку и возвращает число опубликованных событий.
+     */
+    public int relayBatch() {
+        List<Long> batchIds = new ArrayList<>();
+        try {
+            Integer relayed = transactionTemplate.execute(status -> {
+                List<OutboxEvent> batch = outboxEventRepository.findUnpublished(LocalDateTime.now(),
+                        PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                batch.forEach(event -> batchIds.add(event.getId()));
+                broker.publish(batch.stream().map(OutboxEvent::toDomainEvent).toList());
+                outboxEventRepository.markPublished(batchIds, LocalDateTime.now());
+                return batch.size();
+            });
+            return relayed == null ? 0 : relayed;
+        } catch (RuntimeException e) {
+            if (batchIds.isEmpty()) {
+                throw e;
+            }
+            log.warn("Outbox: пачка из {} событий не опубликована, события отправляются по одному",
+                    batchIds.size(), e);
+            int relayed = 0;
+            for (Long id : batchIds) {
+                if (relayOne(id)) {
+                    relayed++;
+                }
+            }
+            return relayed;
+        }
+    }
+
+    public int purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        return deleted == null ? 0 : deleted;
+    }
+
+    /**
+     * Публикует одно событие в своей транзакции; при ошибке засчитывает попытку.
+     */
+    private boolean relayOne(Long id) {
+        try {
+            Boolean published = transactionTemplate.execute(status -> {
+                // Событие могли опубликовать или отложить другие экземпляры, пока пачка откатывалась
+                Optional<OutboxEvent> event = outboxEventRepository.findPendingById(id);
+                if (event.isEmpty()) {
+                    return false;
+                }
+                broker.publish(List.of(event.get().toDomainEvent()));
+                outboxEventRepository.markPublished(List.of(id), LocalDateTime.now());
+                return true;
+            });
+            return Boolean.TRUE.equals(published);
+        } catch (RuntimeException e) {
+            recordFailure(id, e);
+            return false;
+        }
+    }
+
+    private void recordFailure(Long id, RuntimeException cause) {
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findById(id).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            LocalDateTime now = LocalDateTime.now();
+            if (attempts >= maxAttempts) {
+                event.setFailedAt(now);
+                log.error("Outbox: событие {} ({}) отложено после {} неудачных попыток", id, event.getEventType(),
+                        attempts, cause);
+            } else {
+                Duration delay = backoff(attempts);
+                event.setNextAttemptAt(now.plus(delay));
+                log.warn("Outbox: событие {} ({}) не опубликовано, попытка {} из {}, повтор через {}", id,
+                        event.getEventType(), attempts, maxAttempts, delay, cause);
+            }
+        }));
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    private void drain() {
+        try {
+            // Полная пачка означает, что в очереди могут быть ещё события
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox: публикация не удалась, повтор через {}", pollInterval, e);
+        }
+    }
+
+    private void purge() {
+        try {
+            int deleted = purgePublished();
+            if (deleted > 0) {
+                log.info("Outbox: удалено {} опубликованных событий старше {}", deleted, retention);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox: очистка опубликованных событий не удалась", e);
+        }
+    }
+}
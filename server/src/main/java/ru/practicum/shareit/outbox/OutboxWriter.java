@@ -0,0 +1,36 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Записывает событие в outbox в транзакции изменения: событие фиксируется тогда и только тогда,
+ * когда фиксируется само изменение. id берутся из последовательности, поэтому INSERT уходят
+ * пачкой вместе с остальными строками транзакции.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(EventType type, Long aggregateId, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие " + type, e);
+        }
+        outboxEventRepository.save(new OutboxEvent(null, type.getAggregateType(), aggregateId, type.name(), json,
+                LocalDateTime.now(), null, 0, null, null));
+    }
+}
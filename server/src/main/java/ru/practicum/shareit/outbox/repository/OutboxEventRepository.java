@@ -0,0 +1,54 @@
+package ru.practicum.shareit.outbox.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Следующая пачка очереди под блокировкой строк. Таймаут -2 - это SKIP LOCKED: ретрансляторы
+     * разных экземпляров сервера забирают разные пачки, а не ждут друг друга.
+     * Отложенные события и события, чья пауза перед повтором ещё не истекла, пропускаются.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.failedAt IS NULL " +
+            "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) ORDER BY e.id")
+    List<OutboxEvent> findUnpublished(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Одно ещё не опубликованное событие под блокировкой строки (SKIP LOCKED, как у пачки).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id = :id AND e.publishedAt IS NULL AND e.failedAt IS NULL")
+    Optional<OutboxEvent> findPendingById(@Param("id") Long id);
+
+    /**
+     * Агрегаты, по которым с момента since записаны события указанных типов - в том числе уже опубликованные.
+     */
+    @Query("SELECT DISTINCT e.aggregateId FROM OutboxEvent e WHERE e.aggregateType = :aggregateType " +
+            "AND e.eventType IN :eventTypes AND e.created >= :since")
+    List<Long> findAggregateIdsChangedSince(@Param("aggregateType") String aggregateType,
+                                            @Param("eventTypes") List<String> eventTypes,
+                                            @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
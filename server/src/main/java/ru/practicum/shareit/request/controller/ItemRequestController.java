@@ -1,24 +1,35 @@
 package ru.practicum.shareit.request.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestFeedPage;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.stream.EventBroadcaster;
+import ru.practicum.shareit.stream.Topic;
+import ru.practicum.shareit.version.Versioned;
 
 import java.util.List;
 
+import static ru.practicum.shareit.constants.HttpHeaders.NEXT_CURSOR;
 import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 
 /**
  * TODO Sprint add-item-requests.
+ * GET-запросы с совпадающим If-None-Match получают 304 без загрузки запросов.
+ * Курсор следующей страницы ленты /all возвращается в заголовке X-Next-Cursor, тело остаётся списком.
  */
 @RestController
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
 public class ItemRequestController {
     private final ItemRequestService itemRequestService;
+    private final EventBroadcaster eventBroadcaster;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,20 +39,48 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDto> getAllRequestsByRequestor(@RequestHeader(SHARER_USER_ID) Long requestorId) {
-        return itemRequestService.getAllRequestsByRequestor(requestorId);
+    public List<ItemRequestDto> getAllRequestsByRequestor(@RequestHeader(SHARER_USER_ID) Long requestorId,
+                                                          WebRequest request) {
+        String etag = itemRequestService.getRequestorRequestsEtag(requestorId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return itemRequestService.getAllRequestsByRequestor(requestorId, etag);
+    }
+
+    /**
+     * Поток вещей, добавленных в ответ на запросы пользователя, вместо опроса GET /requests.
+     */
+    @GetMapping("/stream")
+    public SseEmitter streamAnswers(@RequestHeader(SHARER_USER_ID) Long userId) {
+        return eventBroadcaster.subscribe(Topic.REQUEST_ANSWERS, userId);
     }
 
     @GetMapping("/all")
     public List<ItemRequestDto> getAllRequests(@RequestHeader(SHARER_USER_ID) Long userId,
                                                @RequestParam(defaultValue = "0") int from,
-                                               @RequestParam(defaultValue = "10") int size) {
-        return itemRequestService.getAllRequests(userId, from, size);
+                                               @RequestParam(defaultValue = "10") int size,
+                                               @RequestParam(required = false) String cursor,
+                                               WebRequest request,
+                                               HttpServletResponse response) {
+        Versioned<ItemRequestFeedPage> versioned = itemRequestService.getAllRequestsPage(userId, from, size, cursor);
+        if (request.checkNotModified(versioned.etag())) {
+            return null;
+        }
+        ItemRequestFeedPage page = versioned.body();
+        if (page.nextCursor() != null) {
+            response.setHeader(NEXT_CURSOR, page.nextCursor());
+        }
+        return page.requests();
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequestById(@PathVariable Long requestId,
-                                         @RequestHeader(SHARER_USER_ID) Long userId) {
+                                         @RequestHeader(SHARER_USER_ID) Long userId,
+                                         WebRequest request) {
+        if (request.checkNotModified(itemRequestService.getRequestEtag(requestId, userId))) {
+            return null;
+        }
         return itemRequestService.getRequestById(requestId, userId);
     }
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request.dto;
+
+import java.util.List;
+
+/**
+ * Страница ленты чужих запросов; nextCursor равен null, если страница последняя.
+ */
+public record ItemRequestFeedPage(List<ItemRequestDto> requests, String nextCursor) {
+}
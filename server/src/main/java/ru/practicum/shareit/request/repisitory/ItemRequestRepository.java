@@ -2,12 +2,35 @@ package ru.practicum.shareit.request.repisitory;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.version.VersionStamp;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findByRequestorIdOrderByCreatedDesc(Long requestorId);
 
-    List<ItemRequest> findByRequestorIdNotOrderByCreatedDesc(Long requestorId, Pageable pageable);
+    List<ItemRequest> findByRequestorIdNotOrderByCreatedDescIdDesc(Long requestorId, Pageable pageable);
+
+    // Продолжение ленты после (created, id) последней отданной строки: спуск по ix_requests_created без OFFSET
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id <> :requestorId " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findByRequestorIdNotBefore(@Param("requestorId") Long requestorId,
+                                                 @Param("created") LocalDateTime created,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    // Запросы не редактируются, поэтому достаточно числа и наибольшего id
+    String VERSION_STAMP = "SELECT new ru.practicum.shareit.version.VersionStamp(" +
+            "COUNT(r), 0L, COALESCE(MAX(r.id), 0L)) FROM ItemRequest r ";
+
+    @Query(VERSION_STAMP + "WHERE r.id = :requestId")
+    VersionStamp findVersionStampById(@Param("requestId") Long requestId);
+
+    @Query(VERSION_STAMP + "WHERE r.requestor.id = :requestorId")
+    VersionStamp findVersionStampByRequestorId(@Param("requestorId") Long requestorId);
 }
@@ -1,15 +1,58 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestFeedPage;
+import ru.practicum.shareit.version.Versioned;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ItemRequestService {
     ItemRequestDto createRequest(ItemRequestDto itemRequestDto, Long requestorId);
 
     List<ItemRequestDto> getAllRequestsByRequestor(Long requestorId);
 
-    List<ItemRequestDto> getAllRequests(Long userId, int from, int size);
+    /**
+     * То же, что getAllRequestsByRequestor, но из кэша представлений, если оно построено для этого ETag.
+     */
+    List<ItemRequestDto> getAllRequestsByRequestor(Long requestorId, String etag);
+
+    /**
+     * Страница ленты чужих запросов от новых к старым. Непустой cursor продолжает ленту с позиции,
+     * выданной предыдущей страницей, и имеет приоритет над from.
+     */
+    ItemRequestFeedPage getAllRequests(Long userId, int from, int size, String cursor);
+
+    /**
+     * Страница ленты с ETag, посчитанным по её запросам и вещам-ответам на них; null, если страница пуста.
+     */
+    Versioned<ItemRequestFeedPage> getAllRequestsPage(Long userId, int from, int size, String cursor);
 
     ItemRequestDto getRequestById(Long requestId, Long userId);
+
+    /**
+     * ETag ответа getRequestById, вычисленный по версиям без загрузки данных; null, если запроса нет.
+     */
+    String getRequestEtag(Long requestId, Long userId);
+
+    /**
+     * ETag списка собственных запросов; null, если запросов нет.
+     */
+    String getRequestorRequestsEtag(Long requestorId);
+
+    /**
+     * ETag кэшированных представлений GET /requests авторов запросов requestIds, снятые до записи ответов:
+     * по ним publishAnswers решает, можно ли дополнить представление, а не сбрасывать его.
+     * Ключ - id запрашивающего; запрашивающие без кэшированного представления пропускаются.
+     */
+    Map<Long, String> getRequestorViewEtags(Collection<Long> requestIds);
+
+    /**
+     * Сообщает запрашивающим о сохранённых вещах-ответах (вещи без requestId пропускаются):
+     * SSE-событие и обновление кэша представлений выполняются после коммита текущей транзакции.
+     * previousEtags - результат getRequestorViewEtags до записи.
+     */
+    void publishAnswers(List<ItemDto> items, Map<Long, String> previousEtags);
 }
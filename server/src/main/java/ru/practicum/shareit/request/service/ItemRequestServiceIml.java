@@ -2,7 +2,6 @@ package ru.practicum.shareit.request.service;
 
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,15 +10,27 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.EventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestFeedPage;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repisitory.ItemRequestRepository;
+import ru.practicum.shareit.stream.EventBroadcaster;
+import ru.practicum.shareit.stream.Topic;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+import ru.practicum.shareit.version.VersionStamp;
+import ru.practicum.shareit.version.Versioned;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -30,9 +41,13 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceIml implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final UserExistenceChecker userExistenceChecker;
     private final ItemRepository itemRepository;
     private final ItemRequestMapper itemRequestMapper;
     private final ItemMapper itemMapper;
+    private final RequestorViewCache requestorViewCache;
+    private final EventBroadcaster eventBroadcaster;
+    private final OutboxWriter outboxWriter;
 
     @Override
     @Transactional
@@ -44,17 +59,26 @@ public class ItemRequestServiceIml implements ItemRequestService {
         User requestor = userRepository.findById(requestorId)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
 
+        // Отпечаток до записи: патч кэша применяется, только если представление построено по нему
+        boolean viewCached = requestorViewCache.contains(requestorId);
+        String previousEtag = viewCached ? getRequestorRequestsEtag(requestorId) : null;
+
         ItemRequest itemRequest = itemRequestMapper.toEntity(itemRequestDto, requestor);
         itemRequest.setCreated(LocalDateTime.now());
 
         ItemRequest savedRequest = itemRequestRepository.save(itemRequest);
-        return itemRequestMapper.toDto(savedRequest, Collections.emptyList());
+        ItemRequestDto created = itemRequestMapper.toDto(savedRequest, Collections.emptyList());
+        outboxWriter.append(EventType.REQUEST_CREATED, savedRequest.getId(), created);
+        if (viewCached) {
+            String etag = getRequestorRequestsEtag(requestorId);
+            requestorViewCache.requestCreated(requestorId, created, previousEtag, etag);
+        }
+        return created;
     }
 
     @Override
     public List<ItemRequestDto> getAllRequestsByRequestor(Long requestorId) {
-        userRepository.findById(requestorId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userExistenceChecker.requireExists(requestorId);
 
         List<ItemRequest> requests = itemRequestRepository.findByRequestorIdOrderByCreatedDesc(requestorId);
         List<Long> requestIds = requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
@@ -69,31 +93,59 @@ public class ItemRequestServiceIml implements ItemRequestService {
     }
 
     @Override
-    public List<ItemRequestDto> getAllRequests(Long userId, int from, int size) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public List<ItemRequestDto> getAllRequestsByRequestor(Long requestorId, String etag) {
+        return requestorViewCache.get(requestorId, etag, () -> getAllRequestsByRequestor(requestorId));
+    }
+
+    @Override
+    public ItemRequestFeedPage getAllRequests(Long userId, int from, int size, String cursor) {
+        return getAllRequestsPage(userId, from, size, cursor).body();
+    }
+
+    @Override
+    public Versioned<ItemRequestFeedPage> getAllRequestsPage(Long userId, int from, int size, String cursor) {
+        userExistenceChecker.requireExists(userId);
 
         if (from < 0 || size <= 0) {
             throw new ValidationException("Параметры пагинации должны быть from >= 0 и size > 0");
         }
 
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<ItemRequest> requests = itemRequestRepository.findByRequestorIdNotOrderByCreatedDesc(userId, pageable);
+        // Курсор важнее from: продолжение ленты идёт по ключу (created, id) без OFFSET
+        Pageable limit = OffsetPageRequest.of(0, size);
+        List<ItemRequest> requests;
+        if (cursor != null) {
+            RequestFeedCursor after = RequestFeedCursor.decode(cursor);
+            requests = itemRequestRepository.findByRequestorIdNotBefore(userId, after.created(), after.id(), limit);
+        } else {
+            requests = itemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc(
+                    userId, OffsetPageRequest.of(from, size));
+        }
         List<Long> requestIds = requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
 
-        Map<Long, List<ItemDto>> itemsByRequest = getItemsByRequestIds(requestIds);
+        List<Item> answers = requestIds.isEmpty()
+                ? Collections.emptyList()
+                : itemRepository.findByRequestIdIn(requestIds);
+        Map<Long, List<ItemDto>> itemsByRequest = groupByRequest(answers);
 
-        return requests.stream()
+        List<ItemRequestDto> page = requests.stream()
                 .map(request -> itemRequestMapper.toDto(
                         request,
                         itemsByRequest.getOrDefault(request.getId(), Collections.emptyList())))
                 .collect(Collectors.toList());
+        String nextCursor = requests.size() == size
+                ? RequestFeedCursor.of(requests.get(requests.size() - 1)).encode()
+                : null;
+
+        // Отпечаток только по строкам страницы: запросы не редактируются, ответы меняют версии вещей
+        String etag = requests.isEmpty() ? null : VersionStamp.etag("requests", "all", userId,
+                VersionStamp.of(requests, ItemRequest::getId, request -> 0L),
+                VersionStamp.of(answers, Item::getId, Item::getVersion));
+        return new Versioned<>(new ItemRequestFeedPage(page, nextCursor), etag);
     }
 
     @Override
     public ItemRequestDto getRequestById(Long requestId, Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userExistenceChecker.requireExists(userId);
 
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Запрос не найден"));
@@ -103,12 +155,81 @@ public class ItemRequestServiceIml implements ItemRequestService {
         return itemRequestMapper.toDto(itemRequest, items);
     }
 
+    @Override
+    public String getRequestEtag(Long requestId, Long userId) {
+        userExistenceChecker.requireExists(userId);
+
+        VersionStamp request = itemRequestRepository.findVersionStampById(requestId);
+        if (request.isEmpty()) {
+            return null;
+        }
+        return VersionStamp.etag("request", requestId, request,
+                itemRepository.findVersionStampByRequestId(requestId));
+    }
+
+    @Override
+    public String getRequestorRequestsEtag(Long requestorId) {
+        userExistenceChecker.requireExists(requestorId);
+
+        VersionStamp requests = itemRequestRepository.findVersionStampByRequestorId(requestorId);
+        if (requests.isEmpty()) {
+            return null;
+        }
+        return VersionStamp.etag("requests", "requestor", requestorId, requests,
+                itemRepository.findVersionStampOfAnswersToRequestor(requestorId));
+    }
+
+    @Override
+    public Map<Long, String> getRequestorViewEtags(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> etags = new HashMap<>();
+        for (ItemRequest request : itemRequestRepository.findAllById(requestIds)) {
+            Long requestorId = request.getRequestor().getId();
+            if (!etags.containsKey(requestorId) && requestorViewCache.contains(requestorId)) {
+                etags.put(requestorId, getRequestorRequestsEtag(requestorId));
+            }
+        }
+        return etags;
+    }
+
+    @Override
+    public void publishAnswers(List<ItemDto> items, Map<Long, String> previousEtags) {
+        Map<Long, List<ItemDto>> answersByRequest = items.stream()
+                .filter(item -> item.getRequestId() != null)
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+        if (answersByRequest.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<ItemDto>> answersByRequestor = new HashMap<>();
+        for (ItemRequest request : itemRequestRepository.findAllById(answersByRequest.keySet())) {
+            answersByRequestor.computeIfAbsent(request.getRequestor().getId(), id -> new ArrayList<>())
+                    .addAll(answersByRequest.get(request.getId()));
+        }
+        answersByRequestor.forEach((requestorId, answers) -> {
+            answers.forEach(answer -> eventBroadcaster.publish(Topic.REQUEST_ANSWERS, answer.getId(), answer,
+                    requestorId));
+            String previousEtag = previousEtags.get(requestorId);
+            if (previousEtag != null) {
+                requestorViewCache.answersSaved(requestorId, answers, previousEtag,
+                        getRequestorRequestsEtag(requestorId));
+            } else {
+                requestorViewCache.invalidate(requestorId);
+            }
+        });
+    }
+
     private Map<Long, List<ItemDto>> getItemsByRequestIds(List<Long> requestIds) {
         if (requestIds.isEmpty()) {
             return Collections.emptyMap();
         }
 
-        List<Item> items = itemRepository.findByRequestIdIn(requestIds);
+        return groupByRequest(itemRepository.findByRequestIdIn(requestIds));
+    }
+
+    private Map<Long, List<ItemDto>> groupByRequest(List<Item> items) {
         return items.stream()
                 .collect(Collectors.groupingBy(
                         Item::getRequestId,
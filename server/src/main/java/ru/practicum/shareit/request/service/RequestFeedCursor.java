@@ -0,0 +1,40 @@
+package ru.practicum.shareit.request.service;
+
+import jakarta.validation.ValidationException;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в ленте чужих запросов: последний отданный (created, id).
+ * Клиенту передаётся непрозрачной строкой в Base64 URL без дополнения.
+ */
+public record RequestFeedCursor(LocalDateTime created, Long id) {
+    private static final String SEPARATOR = "_";
+
+    public static RequestFeedCursor of(ItemRequest request) {
+        return new RequestFeedCursor(request.getCreated(), request.getId());
+    }
+
+    public String encode() {
+        String raw = created + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RequestFeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new ValidationException("Некорректный курсор");
+            }
+            return new RequestFeedCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор");
+        }
+    }
+}
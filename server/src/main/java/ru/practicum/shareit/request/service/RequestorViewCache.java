@@ -0,0 +1,139 @@
+package ru.practicum.shareit.request.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Готовый ответ GET /requests для каждого запрашивающего вместе с ETag, по которому он построен.
+ * Представление отдаётся, только если его ETag совпадает с текущим, поэтому записи других экземпляров сервера
+ * приводят к перечитыванию. Новые запросы и вещи-ответы вносятся в актуальное представление на месте
+ * после коммита; если представление построено не по отпечатку до записи, оно сбрасывается.
+ */
+@Component
+public class RequestorViewCache {
+    private static final long MAX_VIEWS = 10_000;
+    private static final Duration VIEW_TTL = Duration.ofMinutes(10);
+
+    private final Cache<Long, RequestorView> views = Caffeine.newBuilder()
+            .maximumSize(MAX_VIEWS)
+            .expireAfterAccess(VIEW_TTL)
+            .build();
+
+    /**
+     * Представление с ETag etag; при промахе строится loader и сохраняется. Списки в ответе не изменяются.
+     * Без ETag (у пользователя нет запросов) представление не кэшируется.
+     */
+    public List<ItemRequestDto> get(Long requestorId, String etag, Supplier<List<ItemRequestDto>> loader) {
+        if (etag == null) {
+            return loader.get();
+        }
+        RequestorView cached = views.getIfPresent(requestorId);
+        if (cached != null && etag.equals(cached.etag())) {
+            return cached.requests();
+        }
+        List<ItemRequestDto> requests = List.copyOf(loader.get());
+        views.put(requestorId, new RequestorView(etag, requests));
+        return requests;
+    }
+
+    public boolean contains(Long requestorId) {
+        return views.getIfPresent(requestorId) != null;
+    }
+
+    /**
+     * После коммита добавляет новый запрос в начало представления. Патч применяется, только если представление
+     * построено по previousEtag - отпечатку до записи; иначе в нём могут отсутствовать чужие изменения,
+     * и представление удаляется. etag - отпечаток с учётом нового запроса.
+     */
+    public void requestCreated(Long requestorId, ItemRequestDto request, String previousEtag, String etag) {
+        afterCommit(() -> views.asMap().computeIfPresent(requestorId, (id, view) -> {
+            if (previousEtag == null || !previousEtag.equals(view.etag())) {
+                return null;
+            }
+            List<ItemRequestDto> patched = new ArrayList<>(view.requests().size() + 1);
+            patched.add(request);
+            view.requests().stream()
+                    .filter(existing -> !Objects.equals(existing.getId(), request.getId()))
+                    .forEach(patched::add);
+            return new RequestorView(etag, List.copyOf(patched));
+        }));
+    }
+
+    /**
+     * После коммита вносит сохранённые вещи-ответы в запросы представления: новая вещь добавляется в конец
+     * ответов своего запроса, изменённая заменяется на месте. Условие то же, что у requestCreated:
+     * представление построено по previousEtag, иначе оно удаляется.
+     */
+    public void answersSaved(Long requestorId, List<ItemDto> answers, String previousEtag, String etag) {
+        Map<Long, List<ItemDto>> answersByRequest = answers.stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+        afterCommit(() -> views.asMap().computeIfPresent(requestorId, (id, view) -> {
+            if (previousEtag == null || !previousEtag.equals(view.etag())) {
+                return null;
+            }
+            List<ItemRequestDto> patched = view.requests().stream()
+                    .map(request -> withAnswers(request, answersByRequest.get(request.getId())))
+                    .toList();
+            return new RequestorView(etag, patched);
+        }));
+    }
+
+    /**
+     * После коммита удаляет представление, и оно перечитывается при следующем запросе. Нужен, когда отпечаток
+     * до записи не снимался: у запрашивающего не было кэшированного представления.
+     */
+    public void invalidate(Long requestorId) {
+        afterCommit(() -> views.invalidate(requestorId));
+    }
+
+    private static ItemRequestDto withAnswers(ItemRequestDto request, List<ItemDto> answers) {
+        if (answers == null) {
+            return request;
+        }
+        List<ItemDto> items = request.getItems() == null ? new ArrayList<>() : new ArrayList<>(request.getItems());
+        for (ItemDto answer : answers) {
+            int position = -1;
+            for (int i = 0; i < items.size() && position < 0; i++) {
+                if (Objects.equals(items.get(i).getId(), answer.getId())) {
+                    position = i;
+                }
+            }
+            if (position >= 0) {
+                items.set(position, answer);
+            } else {
+                items.add(answer);
+            }
+        }
+        return new ItemRequestDto(request.getId(), request.getDescription(), request.getRequestorId(),
+                request.getCreated(), List.copyOf(items));
+    }
+
+    private void afterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private record RequestorView(String etag, List<ItemRequestDto> requests) {
+    }
+}
@@ -0,0 +1,212 @@
+package ru.practicum.shareit.stream;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рассылка изменений по SSE вместо опроса списков: подписка на поток {@link Topic} конкретного пользователя.
+ * События уходят после коммита транзакции, в которой опубликованы.
+ * У каждой подписки своя ограниченная очередь: при медленном клиенте старые события вытесняются новыми,
+ * а отправка идёт в отдельном виртуальном потоке и не задерживает транзакцию.
+ * Heartbeat тоже отправляет этот поток, поэтому медленный клиент не задерживает планировщик и других подписчиков.
+ */
+@Slf4j
+@Component
+public class EventBroadcaster {
+    private final UserExistenceChecker userExistenceChecker;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    private final Map<Channel, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("sse-heartbeat").daemon().factory());
+
+    public EventBroadcaster(UserExistenceChecker userExistenceChecker,
+                            @Value("${shareit.stream.buffer-size:64}") int bufferSize,
+                            @Value("${shareit.stream.timeout:25m}") Duration timeout,
+                            @Value("${shareit.stream.heartbeat:15s}") Duration heartbeat) {
+        this.userExistenceChecker = userExistenceChecker;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        long period = heartbeat.toMillis();
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Topic topic, Long userId) {
+        userExistenceChecker.requireExists(userId);
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(new Channel(topic, userId), emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(subscriber.channel, channel -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Отправляет событие с id eventId в поток topic каждого получателя (null и повторы пропускаются).
+     * Внутри транзакции событие уходит только после коммита.
+     */
+    public void publish(Topic topic, Long eventId, Object payload, Long... recipients) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(topic, new Event(eventId, payload), recipients);
+                }
+            });
+        } else {
+            deliver(topic, new Event(eventId, payload), recipients);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.values().forEach(channelSubscribers -> channelSubscribers.forEach(s -> s.emitter.complete()));
+        senders.shutdown();
+    }
+
+    private void deliver(Topic topic, Event event, Long... recipients) {
+        for (int i = 0; i < recipients.length; i++) {
+            Long userId = recipients[i];
+            if (userId == null || isRepeated(recipients, i)) {
+                continue;
+            }
+            Set<Subscriber> channelSubscribers = subscribers.get(new Channel(topic, userId));
+            if (channelSubscribers != null) {
+                channelSubscribers.forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+    }
+
+    private static boolean isRepeated(Long[] recipients, int index) {
+        for (int i = 0; i < index; i++) {
+            if (Objects.equals(recipients[i], recipients[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.channel, (channel, channelSubscribers) -> {
+            channelSubscribers.remove(subscriber);
+            return channelSubscribers.isEmpty() ? null : channelSubscribers;
+        });
+    }
+
+    // Комментарий раз в период держит соединение через шлюз, чей таймаут чтения 30 секунд.
+    // Планировщик только ставит heartbeat в очередь подписки, сама отправка - в виртуальном потоке
+    private void sendHeartbeats() {
+        subscribers.values().forEach(channelSubscribers -> channelSubscribers.forEach(Subscriber::heartbeat));
+    }
+
+    private record Channel(Topic topic, Long userId) {
+    }
+
+    private record Event(Long id, Object payload) {
+    }
+
+    private final class Subscriber {
+        private final Channel channel;
+        private final SseEmitter emitter;
+        private final Deque<Event> buffer = new ArrayDeque<>();
+        private boolean draining;
+        private boolean heartbeatDue;
+        private long dropped;
+
+        private Subscriber(Channel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        void offer(Event event) {
+            synchronized (buffer) {
+                if (buffer.size() == bufferSize) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        /**
+         * Не занимает место в буфере событий: если предыдущий heartbeat ещё не ушёл, новый не добавляется.
+         */
+        void heartbeat() {
+            synchronized (buffer) {
+                heartbeatDue = true;
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Event next;
+                boolean sendHeartbeat = false;
+                synchronized (buffer) {
+                    next = buffer.pollFirst();
+                    if (next == null) {
+                        if (!heartbeatDue) {
+                            draining = false;
+                            return;
+                        }
+                        // Heartbeat уходит после накопленных событий, чтобы не задерживать их
+                        heartbeatDue = false;
+                        sendHeartbeat = true;
+                    }
+                }
+                try {
+                    if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(next.id()))
+                                .name(channel.topic().getEventName())
+                                .data(next.payload()));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    fail(e);
+                    return;
+                }
+            }
+        }
+
+        private void fail(Exception e) {
+            log.debug("Подписка пользователя {} на {} закрыта (вытеснено событий: {}): {}",
+                    channel.userId(), channel.topic(), dropped, e.getMessage());
+            unsubscribe(this);
+        }
+    }
+}
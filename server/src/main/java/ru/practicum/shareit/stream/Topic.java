@@ -0,0 +1,26 @@
+package ru.practicum.shareit.stream;
+
+/**
+ * Поток событий пользователя и имя SSE-события в нём.
+ */
+public enum Topic {
+    /**
+     * Создание и подтверждение бронирований арендатора и владельца вещи.
+     */
+    BOOKINGS("booking"),
+
+    /**
+     * Новые и изменённые вещи, добавленные в ответ на запросы пользователя.
+     */
+    REQUEST_ANSWERS("item");
+
+    private final String eventName;
+
+    Topic(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+}
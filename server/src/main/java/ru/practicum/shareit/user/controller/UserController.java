@@ -1,19 +1,27 @@
 package ru.practicum.shareit.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 /**
  * TODO Sprint add-controllers.
+ * Список пользователей отдаётся страницами, полная выгрузка - потоком NDJSON по /users/export.
  */
 @RestController
 @RequestMapping(path = "/users")
@@ -21,6 +29,7 @@ import java.util.Collection;
 @Validated
 public class UserController {
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -40,8 +49,27 @@ public class UserController {
     }
 
     @GetMapping
-    public Collection<UserDto> findAll() {
-        return userService.getUsers();
+    public List<UserDto> findAll(@RequestParam(defaultValue = "0") int from,
+                                 @RequestParam(defaultValue = "10") int size,
+                                 @RequestParam(required = false) Long after) {
+        return userService.getUsers(from, size, after);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class);
+        StreamingResponseBody body = out -> userService.exportUsers(user -> {
+            try {
+                out.write(writer.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // Тип задаётся явно: по produces для StreamingResponseBody заголовок не выставляется
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @DeleteMapping("/{userId}")
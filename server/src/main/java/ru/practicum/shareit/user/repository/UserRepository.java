@@ -1,18 +1,38 @@
 package ru.practicum.shareit.user.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+    List<User> findByIdGreaterThanOrderById(Long afterId, Pageable pageable);
 
-    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.email = :email AND u.id != :userId")
-    boolean existsByEmailAndIdNot(@Param("email") String email, @Param("userId") Long userId);
+    /**
+     * Читает всю таблицу курсором вперёд по 1000 строк за обращение к БД. Сущности только для чтения
+     * и не попадают в кэш второго уровня; поток нужно закрыть внутри транзакции.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllOrderById();
 
-    boolean existsByEmail(String email);
+    /**
+     * Пользователь из БД в обход кэша второго уровня: запись в нём не знает об удалении на другом экземпляре.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findCurrentById(@Param("id") Long id);
 }
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+
+/**
+ * Проверка существования пользователя без загрузки сущности User.
+ * Подтверждённые id хранятся в ограниченном по размеру и времени жизни множестве,
+ * промах проверяется запросом existsById. Отсутствующие id не кэшируются, поэтому новые пользователи видны сразу.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserExistenceChecker {
+    private static final long MAX_KNOWN_IDS = 100_000;
+    private static final Duration KNOWN_ID_TTL = Duration.ofMinutes(10);
+
+    private final UserRepository userRepository;
+
+    private final Cache<Long, Boolean> knownIds = Caffeine.newBuilder()
+            .maximumSize(MAX_KNOWN_IDS)
+            .expireAfterWrite(KNOWN_ID_TTL)
+            .build();
+
+    public boolean exists(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (knownIds.getIfPresent(userId) != null) {
+            return true;
+        }
+        boolean exists = userRepository.existsById(userId);
+        if (exists) {
+            knownIds.put(userId, Boolean.TRUE);
+        }
+        return exists;
+    }
+
+    public void requireExists(Long userId) {
+        if (!exists(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+    }
+
+    /**
+     * Убирает id удалённого пользователя. На других экземплярах сервера запись устареет не позже KNOWN_ID_TTL.
+     */
+    public void forget(Long userId) {
+        knownIds.invalidate(userId);
+    }
+}
@@ -4,11 +4,17 @@ import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
-    Collection<UserDto> getUsers();
+    List<UserDto> getUsers(int from, int size, Long afterId);
+
+    /**
+     * Передаёт всех пользователей по возрастанию id, не собирая их в список.
+     */
+    void exportUsers(Consumer<UserDto> consumer);
 
     UserDto addNewUser(NewUserDto request);
 
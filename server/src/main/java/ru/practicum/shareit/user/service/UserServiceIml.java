@@ -1,12 +1,21 @@
 package ru.practicum.shareit.user.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.error.exception.ConflictException;
+import ru.practicum.shareit.error.exception.EmailAlreadyExistsException;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -14,34 +23,68 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class UserServiceIml implements UserService {
+    private static final String EMAIL_INDEX = "uq_user_email_lower";
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final UserExistenceChecker userExistenceChecker;
 
     @Override
-    public Collection<UserDto> getUsers() {
-        return userRepository.findAll().stream()
+    public List<UserDto> getUsers(int from, int size, Long afterId) {
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Параметры пагинации должны быть from >= 0 и size > 0");
+        }
+
+        // Курсор (id последнего пользователя предыдущей страницы) имеет приоритет над смещением from
+        List<User> users = afterId != null
+                ? userRepository.findByIdGreaterThanOrderById(afterId, OffsetPageRequest.of(0, size))
+                : userRepository.findByIdGreaterThanOrderById(0L, OffsetPageRequest.of(from, size));
+        return users.stream()
                 .map(userMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional
-    public UserDto addNewUser(NewUserDto request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Пользователь с email " + request.getEmail() + " уже существует");
+    public void exportUsers(Consumer<UserDto> consumer) {
+        try (Stream<User> users = userRepository.streamAllOrderById()) {
+            users.forEach(user -> {
+                consumer.accept(userMapper.toDto(user));
+                // Отдельная строка больше не нужна, контекст персистентности не растёт вместе с таблицей
+                entityManager.detach(user);
+            });
         }
+    }
 
+    /**
+     * Уникальность email проверяет только индекс uq_user_email_lower: предварительный SELECT
+     * не защищает от параллельной регистрации и добавляет лишнее обращение к БД.
+     */
+    @Override
+    @Transactional
+    public UserDto addNewUser(NewUserDto request) {
         User user = userMapper.toEntity(request);
-        User savedUser = userRepository.save(user);
-        return userMapper.toDto(savedUser);
+        try {
+            User savedUser = userRepository.saveAndFlush(user);
+            return userMapper.toDto(savedUser);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new EmailAlreadyExistsException("Пользователь с email " + request.getEmail() + " уже существует");
+            }
+            throw e;
+        }
     }
 
     @Override
@@ -52,19 +95,16 @@ public class UserServiceIml implements UserService {
         User existingUser = userRepository.findById(updateUserDto.getId())
                 .orElseThrow(() -> new NotFoundException("Пользователь с ID " + updateUserDto.getId() + " не найден"));
 
-        if (updateUserDto.getEmail() != null && !updateUserDto.getEmail().equals(existingUser.getEmail())) {
-            if (userRepository.existsByEmail(updateUserDto.getEmail())) {
-                throw new ConflictException("Пользователь с таким email уже существует");
-            }
-        }
-
         try {
             userMapper.updateUserFromDto(updateUserDto, existingUser);
-            User updatedUser = userRepository.save(existingUser);
+            User updatedUser = userRepository.saveAndFlush(existingUser);
             log.info("Пользователь с ID {} обновлён", updatedUser.getId());
             return userMapper.toDto(updatedUser);
         } catch (DataIntegrityViolationException e) {
             log.error("Ошибка обновления пользователя: {}", e.getMessage());
+            if (isEmailConflict(e)) {
+                throw new ConflictException("Пользователь с таким email уже существует");
+            }
             throw new ConflictException("Ошибка обновления: возможно, email уже используется");
         }
     }
@@ -83,6 +123,35 @@ public class UserServiceIml implements UserService {
             throw new RuntimeException("Пользователь с id " + id + " не найден");
         }
         userRepository.deleteById(id);
+        afterDeleteCommitted(id);
+    }
+
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        // H2 и PostgreSQL по-разному оформляют имя нарушенного индекса, поэтому сравнение по вхождению
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(EMAIL_INDEX);
+    }
+
+    /**
+     * Вещи пользователя удаляются каскадом в БД в обход Hibernate, поэтому их регион кэша сбрасывается целиком.
+     */
+    private void afterDeleteCommitted(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onUserDeleted(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                onUserDeleted(id);
+            }
+        });
+    }
+
+    private void onUserDeleted(Long id) {
+        entityManagerFactory.getCache().evict(Item.class);
+        userExistenceChecker.forget(id);
     }
 }
 
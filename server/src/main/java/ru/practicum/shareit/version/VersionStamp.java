@@ -0,0 +1,58 @@
+package ru.practicum.shareit.version;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Агрегированная версия набора строк, считаемая в базе без загрузки сущностей:
+ * число строк, сумма их @Version, наибольший id и число уже наступивших моментов начала и окончания
+ * (для бронирований, чьё представление зависит от текущего времени).
+ * Версии только растут, поэтому любое изменение, добавление или удаление строки меняет отпечаток.
+ */
+public record VersionStamp(Long count, Long versionSum, Long maxId, Long elapsed) {
+
+    public VersionStamp(Long count, Long versionSum, Long maxId) {
+        this(count, versionSum, maxId, 0L);
+    }
+
+    /**
+     * Отпечаток уже загруженных строк страницы: ETag списка считается по тем же строкам, что и ответ,
+     * поэтому стоит не больше самой страницы и не зависит от длины истории пользователя.
+     */
+    public static <T> VersionStamp of(Collection<T> rows, ToLongFunction<T> id, ToLongFunction<T> version) {
+        return of(rows, id, version, row -> 0L);
+    }
+
+    public static <T> VersionStamp of(Collection<T> rows, ToLongFunction<T> id, ToLongFunction<T> version,
+                                      ToLongFunction<T> elapsed) {
+        long versionSum = 0;
+        long maxId = 0;
+        long elapsedSum = 0;
+        for (T row : rows) {
+            versionSum += version.applyAsLong(row);
+            maxId = Math.max(maxId, id.applyAsLong(row));
+            elapsedSum += elapsed.applyAsLong(row);
+        }
+        return new VersionStamp((long) rows.size(), versionSum, maxId, elapsedSum);
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public String toString() {
+        return count + "." + versionSum + "." + maxId + "." + elapsed;
+    }
+
+    /**
+     * Сильный ETag из частей, например "item-5-user-2-1.3.5.0".
+     */
+    public static String etag(Object... parts) {
+        return Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.version;
+
+/**
+ * Ответ вместе с ETag, посчитанным по тем же строкам, из которых ответ собран; etag null, если строк нет.
+ */
+public record Versioned<T>(T body, String etag) {
+}
@@ -0,0 +1,17 @@
+-- Transactional outbox: доменные события пишутся в той же транзакции, что и изменение данных,
+-- а фоновый ретранслятор пачками передаёт неопубликованные строки брокеру и проставляет published_at.
+CREATE SEQUENCE outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_events (
+    id BIGINT NOT NULL,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    published_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_outbox_event PRIMARY KEY (id)
+);
+
+-- Выборка очереди (published_at IS NULL ORDER BY id) и удаление опубликованных старше срока хранения
+CREATE INDEX ix_outbox_events_published ON outbox_events (published_at, id);
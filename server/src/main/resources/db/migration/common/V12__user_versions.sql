@@ -0,0 +1,2 @@
+-- Имя пользователя выводится в комментариях вещи: версия нужна, чтобы переименование меняло ETag вещи
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,6 @@
+-- Повторы outbox: событие, которое брокер не принял, повторяется отдельно от пачки с нарастающей паузой
+-- (next_attempt_at), а после shareit.outbox.max-attempts неудач откладывается в failed_at и больше не выбирается.
+-- Отложенные события не удаляются очисткой; повторить их можно, сбросив failed_at, attempts и next_attempt_at.
+ALTER TABLE outbox_events ADD COLUMN attempts INT DEFAULT 0 NOT NULL;
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE outbox_events ADD COLUMN failed_at TIMESTAMP WITHOUT TIME ZONE;
@@ -0,0 +1,3 @@
+-- Индекс поиска вещей на каждом экземпляре перечитывает вещи, по которым недавно записаны события
+-- создания и изменения (aggregate_type = 'item' AND created >= ?)
+CREATE INDEX ix_outbox_events_aggregate_created ON outbox_events (aggregate_type, created);
@@ -1,4 +1,4 @@
-CREATE TABLE IF NOT EXISTS users (
+CREATE TABLE users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
@@ -6,7 +6,7 @@ CREATE TABLE IF NOT EXISTS users (
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
-CREATE TABLE IF NOT EXISTS requests (
+CREATE TABLE requests (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     description VARCHAR(1000) NOT NULL,
     requestor_id BIGINT NOT NULL,
@@ -15,7 +15,7 @@ CREATE TABLE IF NOT EXISTS requests (
     CONSTRAINT fk_request_user FOREIGN KEY (requestor_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
-CREATE TABLE IF NOT EXISTS items (
+CREATE TABLE items (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR(255) NOT NULL,
     description VARCHAR(1000) NOT NULL,
@@ -27,7 +27,7 @@ CREATE TABLE IF NOT EXISTS items (
     CONSTRAINT fk_item_request FOREIGN KEY (request_id) REFERENCES requests(id) ON DELETE SET NULL
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
+CREATE TABLE bookings (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
@@ -39,7 +39,7 @@ CREATE TABLE IF NOT EXISTS bookings (
     CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
-CREATE TABLE IF NOT EXISTS comments (
+CREATE TABLE comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     text VARCHAR(1000) NOT NULL,
     item_id BIGINT NOT NULL,
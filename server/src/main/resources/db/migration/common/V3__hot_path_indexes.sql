@@ -0,0 +1,21 @@
+-- Списки бронирований пользователя: фильтр по booker_id (и статусу), сортировка по (start_date, id).
+CREATE INDEX ix_bookings_booker_start ON bookings (booker_id, start_date, id);
+CREATE INDEX ix_bookings_booker_status_start ON bookings (booker_id, status, start_date, id);
+
+-- Списки бронирований владельца: вещи владельца, затем их бронирования по (start_date, id).
+CREATE INDEX ix_items_owner ON items (owner_id, id);
+CREATE INDEX ix_bookings_item_start ON bookings (item_id, start_date, id);
+
+-- Последнее/ближайшее подтверждённое бронирование вещи и бронирования вещи по статусу.
+CREATE INDEX ix_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+-- Проверка права оставить отзыв: завершённое подтверждённое бронирование вещи этим пользователем.
+CREATE INDEX ix_bookings_item_booker_status_end ON bookings (item_id, booker_id, status, end_date);
+
+CREATE INDEX ix_items_request ON items (request_id);
+
+CREATE INDEX ix_comments_item_created ON comments (item_id, created);
+
+-- Собственные запросы пользователя и лента чужих запросов, обе по убыванию created.
+CREATE INDEX ix_requests_requestor_created ON requests (requestor_id, created);
+CREATE INDEX ix_requests_created ON requests (created, id);
@@ -0,0 +1,17 @@
+-- Денормализованные счётчики комментариев вещи: обновляются в транзакции добавления комментария,
+-- чтобы карточки вещей показывали число отзывов без обращения к comments. Таблица отдельная и
+-- некэшируемая: UPDATE items при каждом комментарии сбрасывал бы регион кэша второго уровня items.
+-- Строка создаётся вместе с вещью, для уже существующих вещей - здесь.
+CREATE TABLE item_comment_stats (
+    item_id BIGINT NOT NULL,
+    comment_count INTEGER DEFAULT 0 NOT NULL,
+    last_comment_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_item_comment_stats PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_comment_stats_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
+);
+
+INSERT INTO item_comment_stats (item_id, comment_count, last_comment_at)
+SELECT i.id,
+       (SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id),
+       (SELECT MAX(c.created) FROM comments c WHERE c.item_id = i.id)
+FROM items i;
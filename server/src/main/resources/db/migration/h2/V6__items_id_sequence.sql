@@ -0,0 +1,6 @@
+-- Id вещей выдаёт последовательность с шагом 50 (оптимизатор pooled в Hibernate).
+-- H2 используется только в тестах, где таблица к этому моменту пуста.
+CREATE SEQUENCE items_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR items_seq;
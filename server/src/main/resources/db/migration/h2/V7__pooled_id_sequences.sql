@@ -0,0 +1,17 @@
+-- Остальные таблицы переходят с IDENTITY на последовательности с шагом 50 по образцу items_seq (V6).
+-- H2 используется только в тестах, где таблицы к этому моменту пусты.
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT NEXT VALUE FOR users_seq;
+
+CREATE SEQUENCE requests_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT NEXT VALUE FOR requests_seq;
+
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT NEXT VALUE FOR bookings_seq;
+
+CREATE SEQUENCE comments_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT NEXT VALUE FOR comments_seq;
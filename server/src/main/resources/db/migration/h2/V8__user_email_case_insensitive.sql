@@ -0,0 +1,7 @@
+-- Email уникален без учёта регистра; адреса, отличающиеся только регистром, больше не могут принадлежать
+-- разным пользователям. H2 используется только в тестах с пустой базой, поэтому предварительная проверка
+-- существующих совпадений, как в PostgreSQL, здесь не нужна.
+-- H2 не поддерживает индексы по выражению, поэтому LOWER(email) хранится в вычисляемой колонке.
+ALTER TABLE users ADD COLUMN email_lower VARCHAR(512) GENERATED ALWAYS AS (LOWER(email));
+CREATE UNIQUE INDEX uq_user_email_lower ON users (email_lower);
+ALTER TABLE users DROP CONSTRAINT UQ_USER_EMAIL;
@@ -0,0 +1,41 @@
+-- Запрет пересекающихся ожидающих и подтверждённых бронирований одной вещи на уровне БД,
+-- чтобы двойное бронирование было невозможно и при нескольких экземплярах сервера.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Уже накопленные пересечения не дали бы создать ограничение, поэтому до него они разрешаются:
+-- по каждой вещи бронирования перебираются по старшинству (подтверждённые раньше ожидающих, затем по id),
+-- и бронирование, пересекающееся с оставшимся более старшим, переводится в REJECTED.
+-- Изменение поведения: такие бронирования пропадут из ожидающих и подтверждённых, id перечисляются в NOTICE.
+DO $$
+DECLARE
+    booking RECORD;
+    rejected BIGINT[] := '{}';
+BEGIN
+    FOR booking IN
+        SELECT id, item_id, start_date, end_date, status
+        FROM bookings
+        WHERE status IN ('WAITING', 'APPROVED')
+        ORDER BY item_id, CASE status WHEN 'APPROVED' THEN 0 ELSE 1 END, id
+    LOOP
+        IF EXISTS (
+            SELECT 1
+            FROM bookings senior
+            WHERE senior.item_id = booking.item_id
+              AND senior.id <> booking.id
+              AND senior.status IN ('WAITING', 'APPROVED')
+              AND (senior.status = 'APPROVED' AND booking.status = 'WAITING'
+                   OR senior.status = booking.status AND senior.id < booking.id)
+              AND tsrange(senior.start_date, senior.end_date) && tsrange(booking.start_date, booking.end_date)
+        ) THEN
+            UPDATE bookings SET status = 'REJECTED' WHERE id = booking.id;
+            rejected := rejected || booking.id;
+        END IF;
+    END LOOP;
+    IF cardinality(rejected) > 0 THEN
+        RAISE NOTICE 'Отклонены пересекающиеся бронирования: %', rejected;
+    END IF;
+END $$;
+
+ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_period
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
@@ -0,0 +1,10 @@
+-- Id вещей выдаёт последовательность с шагом 50: Hibernate резервирует сразу 50 значений
+-- (оптимизатор pooled) и может отправлять INSERT пакетами, чего не позволяет IDENTITY.
+-- Значение последовательности - верхняя граница выданного диапазона, поэтому она стартует
+-- на 50 выше текущего максимума.
+CREATE SEQUENCE items_seq INCREMENT BY 50;
+SELECT setval('items_seq', COALESCE((SELECT MAX(id) FROM items), 0) + 50, false);
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+ALTER SEQUENCE items_seq OWNED BY items.id;
@@ -0,0 +1,27 @@
+-- Остальные таблицы переходят с IDENTITY на последовательности с шагом 50 по образцу items_seq (V6):
+-- Hibernate резервирует диапазон id заранее и отправляет INSERT пакетами.
+-- Значение последовательности - верхняя граница выданного диапазона, поэтому она стартует
+-- на 50 выше текущего максимума.
+CREATE SEQUENCE users_seq INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER SEQUENCE users_seq OWNED BY users.id;
+
+CREATE SEQUENCE requests_seq INCREMENT BY 50;
+SELECT setval('requests_seq', COALESCE((SELECT MAX(id) FROM requests), 0) + 50, false);
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+ALTER SEQUENCE requests_seq OWNED BY requests.id;
+
+CREATE SEQUENCE bookings_seq INCREMENT BY 50;
+SELECT setval('bookings_seq', COALESCE((SELECT MAX(id) FROM bookings), 0) + 50, false);
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+ALTER SEQUENCE bookings_seq OWNED BY bookings.id;
+
+CREATE SEQUENCE comments_seq INCREMENT BY 50;
+SELECT setval('comments_seq', COALESCE((SELECT MAX(id) FROM comments), 0) + 50, false);
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
+ALTER SEQUENCE comments_seq OWNED BY comments.id;
@@ -0,0 +1,30 @@
+-- Email уникален без учёта регистра. Функциональный индекс - единственная проверка уникальности
+-- при регистрации и смене email и одновременно индекс для поиска по LOWER(email).
+-- Прежнее ограничение по точному значению им покрывается и удаляется, чтобы не обновлять два индекса.
+-- Изменение поведения: адреса, отличающиеся только регистром (User@x.ru и user@x.ru), больше не могут
+-- принадлежать разным пользователям - регистрация и смена email на такой адрес отвечают 409.
+
+-- Уже существующие такие пары не дали бы создать индекс. Какой из аккаунтов оставить, миграция решить
+-- не может (у обоих бронирования, вещи и комментарии), поэтому она останавливается и перечисляет адреса:
+-- их нужно развести вручную и повторить миграцию.
+DO $$
+DECLARE
+    duplicates TEXT;
+BEGIN
+    SELECT string_agg(emails, '; ')
+    INTO duplicates
+    FROM (
+        SELECT string_agg(email || ' (id ' || id || ')', ', ' ORDER BY id) AS emails
+        FROM users
+        GROUP BY LOWER(email)
+        HAVING COUNT(*) > 1
+    ) clashes;
+
+    IF duplicates IS NOT NULL THEN
+        RAISE EXCEPTION 'Email пользователей совпадают без учёта регистра: %', duplicates
+            USING HINT = 'Измените email одного из пользователей в каждой группе и повторите миграцию';
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX uq_user_email_lower ON users (LOWER(email));
+ALTER TABLE users DROP CONSTRAINT uq_user_email;
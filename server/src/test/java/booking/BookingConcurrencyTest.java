@@ -0,0 +1,127 @@
+package booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.error.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочная проверка: тысячи параллельных бронирований одной вещи не должны давать пересечений.
+ */
+@SpringBootTest(classes = ShareItServer.class)
+class BookingConcurrencyTest {
+    private static final int THREADS = 32;
+    private static final int SLOTS = 100;
+    private static final int ATTEMPTS_PER_SLOT = 20;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "concurrency-owner@example.com", null));
+        booker = userRepository.save(new User(null, "Booker", "concurrency-booker@example.com", null));
+
+        item = new Item();
+        item.setName("Hot item");
+        item.setDescription("Everyone wants it");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Вещь и бронирования удаляются каскадом вместе с пользователями
+        userRepository.deleteById(booker.getId());
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    void createBooking_parallelRequestsForOneItem_neverOverlap() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        List<BookingDto> requests = new ArrayList<>();
+        for (int attempt = 0; attempt < ATTEMPTS_PER_SLOT; attempt++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                // Соседние попытки сдвинуты на полчаса и пересекаются с часовым слотом
+                LocalDateTime start = base.plusHours(slot).plusMinutes(attempt % 2 == 0 ? 0 : 30);
+                requests.add(new BookingDto(null, start, start.plusHours(1), item.getId(), booker.getId(), null));
+            }
+        }
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (BookingDto request : requests) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    try {
+                        bookingService.createBooking(request, booker.getId());
+                        created.incrementAndGet();
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Booking> bookings = bookingRepository.findByItemIdAndStatus(
+                item.getId(), BookingStatus.WAITING, Sort.by("start"));
+
+        assertThat(created.get() + conflicts.get()).isEqualTo(requests.size());
+        assertThat(bookings).hasSize(created.get());
+        assertThat(created.get()).isGreaterThanOrEqualTo(SLOTS / 2);
+        for (int i = 1; i < bookings.size(); i++) {
+            assertThat(bookings.get(i).getStart()).isAfterOrEqualTo(bookings.get(i - 1).getEnd());
+        }
+    }
+}
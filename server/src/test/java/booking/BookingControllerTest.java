@@ -12,6 +12,7 @@ import ru.practicum.shareit.ShareItServer;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.version.Versioned;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -74,11 +75,25 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    void getAllBookingsByBooker_notModified() throws Exception {
+        List<BookingResponseDto> responses = List.of(new BookingResponseDto(1L, LocalDateTime.now(), LocalDateTime.now(), null, null, "WAITING"));
+        when(bookingService.getBookerBookingsPage(2L, "ALL", 0, 10, null, null))
+                .thenReturn(new Versioned<>(responses, "\"bookings-booker-2-1.0.1.0\""));
+
+        mockMvc.perform(get("/bookings")
+                        .header(SHARER_USER_ID, "2")
+                        .header("If-None-Match", "\"bookings-booker-2-1.0.1.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getAllBookingsByBooker_success() throws Exception {
         List<BookingResponseDto> responses = List.of(new BookingResponseDto(1L, LocalDateTime.now(), LocalDateTime.now(), null, null, "WAITING"));
 
-        when(bookingService.getAllBookingsByBooker(2L, "ALL")).thenReturn(responses);
+        when(bookingService.getBookerBookingsPage(2L, "ALL", 0, 10, null, null))
+                .thenReturn(new Versioned<>(responses, null));
 
         mockMvc.perform(get("/bookings")
                         .header(SHARER_USER_ID, "2")
@@ -91,7 +106,8 @@ class BookingControllerTest {
     void getAllBookingsByOwner_success() throws Exception {
         List<BookingResponseDto> responses = List.of(new BookingResponseDto(1L, LocalDateTime.now(), LocalDateTime.now(), null, null, "WAITING"));
 
-        when(bookingService.getAllBookingsByOwner(1L, "ALL")).thenReturn(responses);
+        when(bookingService.getOwnerBookingsPage(1L, "ALL", 0, 10, null, null))
+                .thenReturn(new Versioned<>(responses, null));
 
         mockMvc.perform(get("/bookings/owner")
                         .header(SHARER_USER_ID, "1")
@@ -99,4 +115,21 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()").value(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllBookingsByBooker_withCursor() throws Exception {
+        List<BookingResponseDto> responses = List.of(new BookingResponseDto(1L, LocalDateTime.now(), LocalDateTime.now(), null, null, "WAITING"));
+        LocalDateTime cursorStart = LocalDateTime.of(2026, 1, 1, 10, 0, 0);
+
+        when(bookingService.getBookerBookingsPage(2L, "ALL", 0, 5, cursorStart, 3L))
+                .thenReturn(new Versioned<>(responses, null));
+
+        mockMvc.perform(get("/bookings")
+                        .header(SHARER_USER_ID, "2")
+                        .param("size", "5")
+                        .param("cursorStart", "2026-01-01T10:00:00")
+                        .param("cursorId", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1));
+    }
+}
@@ -0,0 +1,105 @@
+package booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.stream.EventBroadcaster;
+import ru.practicum.shareit.stream.Topic;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
+
+@AutoConfigureMockMvc
+@SpringBootTest(classes = ShareItServer.class)
+class BookingEventStreamTest {
+    private static final long WAIT_MILLIS = 5_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EventBroadcaster broadcaster;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private UserExistenceChecker userExistenceChecker;
+
+    @Test
+    void publish_deliversEventToBookerAndOwner() throws Exception {
+        MvcResult booker = subscribe(102L);
+        MvcResult owner = subscribe(101L);
+        MvcResult stranger = subscribe(103L);
+
+        broadcaster.publish(Topic.BOOKINGS, 7L, booking(7L, 102L, "WAITING"), 102L, 101L);
+
+        String bookerStream = awaitContent(booker.getResponse(), "id:7");
+        assertThat(bookerStream).contains("event:booking").contains("\"status\":\"WAITING\"");
+        assertThat(awaitContent(owner.getResponse(), "id:7")).contains("event:booking");
+        assertThat(stranger.getResponse().getContentAsString()).doesNotContain("id:7");
+        assertThat(booker.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    @Test
+    void publish_insideRolledBackTransaction_isNotDelivered() throws Exception {
+        MvcResult booker = subscribe(112L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            broadcaster.publish(Topic.BOOKINGS, 8L, booking(8L, 112L, "WAITING"), 112L, 111L);
+            status.setRollbackOnly();
+        });
+        broadcaster.publish(Topic.BOOKINGS, 9L, booking(9L, 112L, "APPROVED"), 112L, 111L);
+
+        // События одной подписки уходят по порядку: раз дошло 9, отменённое 8 уже не придёт
+        assertThat(awaitContent(booker.getResponse(), "id:9")).doesNotContain("id:8");
+    }
+
+    @Test
+    void subscribe_unknownUser_returnsNotFound() throws Exception {
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).requireExists(999L);
+
+        mockMvc.perform(get("/bookings/stream").header(SHARER_USER_ID, 999L))
+                .andExpect(status().isNotFound());
+    }
+
+    private MvcResult subscribe(Long userId) throws Exception {
+        return mockMvc.perform(get("/bookings/stream").header(SHARER_USER_ID, userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static BookingResponseDto booking(Long id, Long bookerId, String status) {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        return new BookingResponseDto(id, start, start.plusDays(1), new BookingResponseDto.Item(1L, "Item"),
+                new BookingResponseDto.Booker(bookerId), status);
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+}
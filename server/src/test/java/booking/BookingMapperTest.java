@@ -20,10 +20,10 @@ class BookingMapperTest {
 
     @Test
     void toBookingResponseDto_mapsCorrectly() {
-        User booker = new User(2L, "Booker", "booker@example.com");
-        User owner = new User(1L, "Owner", "owner@example.com");
-        Item item = new Item(1L, "Item", "Description", true, owner, null);
-        Booking booking = new Booking(1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), item, booker, BookingStatus.WAITING);
+        User booker = new User(2L, "Booker", "booker@example.com", 0L);
+        User owner = new User(1L, "Owner", "owner@example.com", 0L);
+        Item item = new Item(1L, "Item", "Description", true, owner, null, 0L);
+        Booking booking = new Booking(1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), item, booker, BookingStatus.WAITING, 0L);
 
         BookingResponseDto dto = mapper.toBookingResponseDto(booking);
 
@@ -38,9 +38,9 @@ class BookingMapperTest {
 
     @Test
     void toBooking_mapsCorrectly() {
-        User booker = new User(2L, "Booker", "booker@example.com");
-        User owner = new User(1L, "Owner", "owner@example.com");
-        Item item = new Item(1L, "Item", "Description", true, owner, null);
+        User booker = new User(2L, "Booker", "booker@example.com", 0L);
+        User owner = new User(1L, "Owner", "owner@example.com", 0L);
+        Item item = new Item(1L, "Item", "Description", true, owner, null, 0L);
         BookingDto dto = new BookingDto(1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1L, 2L, "WAITING");
 
         Booking booking = mapper.toBooking(dto, item, booker);
@@ -55,10 +55,10 @@ class BookingMapperTest {
 
     @Test
     void toBookingDto_mapsCorrectly() {
-        User booker = new User(2L, "Booker", "booker@example.com");
-        User owner = new User(1L, "Owner", "owner@example.com");
-        Item item = new Item(1L, "Item", "Description", true, owner, null);
-        Booking booking = new Booking(1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), item, booker, BookingStatus.APPROVED);
+        User booker = new User(2L, "Booker", "booker@example.com", 0L);
+        User owner = new User(1L, "Owner", "owner@example.com", 0L);
+        Item item = new Item(1L, "Item", "Description", true, owner, null, 0L);
+        Booking booking = new Booking(1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), item, booker, BookingStatus.APPROVED, 0L);
 
         BookingDto dto = mapper.toBookingDto(booking);
 
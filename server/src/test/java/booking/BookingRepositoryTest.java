@@ -1,15 +1,25 @@
 package booking;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.version.VersionStamp;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,26 +27,47 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @ContextConfiguration(classes = ShareItServer.class)
 class BookingRepositoryTest {
+    private static final LocalDateTime NO_CURSOR_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10,
+            Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id")));
 
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final BookingMapper bookingMapper = Mappers.getMapper(BookingMapper.class);
+
     @Test
     @Sql("/test-data/bookings-users-items.sql")
     void findByBookerId_returnsBookings() {
-        List<Booking> bookings = bookingRepository.findByBookerId(2L, null);
+        List<Booking> bookings = bookingRepository.findByBookerId(2L, NO_CURSOR_START, Long.MAX_VALUE, FIRST_PAGE);
 
         assertEquals(2, bookings.size());
     }
 
+    @Test
+    @Sql("/test-data/bookings-users-items.sql")
+    void updateStatusIfCurrent_appliesOnlyFirstDecision() {
+        int approved = bookingRepository.updateStatusIfCurrent(1L, BookingStatus.WAITING, BookingStatus.APPROVED);
+        int rejected = bookingRepository.updateStatusIfCurrent(1L, BookingStatus.WAITING, BookingStatus.REJECTED);
+
+        Booking booking = bookingRepository.findById(1L).orElseThrow();
+        assertEquals(1, approved);
+        assertEquals(0, rejected);
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+        assertEquals(1L, booking.getVersion());
+    }
+
     @Test
     @Sql("/test-data/bookings-users-items.sql")
     void findByItemOwnerId_returnsBookings() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerId(1L, null);
+        List<Booking> bookings = bookingRepository.findByItemOwnerId(1L, NO_CURSOR_START, Long.MAX_VALUE, FIRST_PAGE);
 
         assertEquals(2, bookings.size());
     }
@@ -44,7 +75,8 @@ class BookingRepositoryTest {
     @Test
     @Sql("/test-data/bookings-users-items.sql")
     void findByBookerIdAndStatus_returnsWaiting() {
-        List<Booking> bookings = bookingRepository.findByBookerIdAndStatus(2L, BookingStatus.WAITING, null);
+        List<Booking> bookings = bookingRepository.findByBookerIdAndStatus(
+                2L, BookingStatus.WAITING, NO_CURSOR_START, Long.MAX_VALUE, FIRST_PAGE);
 
         assertEquals(1, bookings.size());
         assertEquals(BookingStatus.WAITING, bookings.get(0).getStatus());
@@ -53,8 +85,101 @@ class BookingRepositoryTest {
     @Test
     @Sql("/test-data/bookings-users-items.sql")
     void findByItemOwnerIdAndEndBefore_returnsPast() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndEndBefore(1L, LocalDateTime.now(), null);
+        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndEndBefore(
+                1L, LocalDateTime.now(), NO_CURSOR_START, Long.MAX_VALUE, FIRST_PAGE);
 
         assertEquals(1, bookings.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    @Sql("/test-data/bookings-users-items.sql")
+    void findByBookerId_returnsBookingsAfterCursor() {
+        List<Booking> firstPage = bookingRepository.findByBookerId(2L, NO_CURSOR_START, Long.MAX_VALUE,
+                PageRequest.of(0, 1, FIRST_PAGE.getSort()));
+        Booking last = firstPage.get(0);
+
+        List<Booking> secondPage = bookingRepository.findByBookerId(2L, last.getStart(), last.getId(),
+                PageRequest.of(0, 1, FIRST_PAGE.getSort()));
+
+        assertEquals(1L, last.getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(2L, secondPage.get(0).getId());
+    }
+
+    @Test
+    @Sql("/test-data/bookings-users-items.sql")
+    void findByBookerId_mapsToResponseDtoWithSingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingResponseDto> result = bookingRepository
+                .findByBookerId(2L, NO_CURSOR_START, Long.MAX_VALUE, FIRST_PAGE)
+                .stream()
+                .map(bookingMapper::toBookingResponseDto)
+                .toList();
+
+        assertEquals(2, result.size());
+        assertEquals("Item1", result.get(0).getItem().getName());
+        assertEquals(2L, result.get(0).getBooker().getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @Sql("/test-data/bookings-users-items.sql")
+    void findByItemOwnerId_mapsToResponseDtoWithSingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingResponseDto> result = bookingRepository
+                .findByItemOwnerId(1L, NO_CURSOR_START, Long.MAX_VALUE, FIRST_PAGE)
+                .stream()
+                .map(bookingMapper::toBookingResponseDto)
+                .toList();
+
+        assertEquals(2, result.size());
+        assertEquals("Item2", result.get(1).getItem().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @Sql("/test-data/bookings-users-items.sql")
+    void findLastAndNextApprovedByItemIdIn_returnsOnlyApprovedPerItem() {
+        List<Booking> bookings = bookingRepository.findLastAndNextApprovedByItemIdIn(
+                List.of(1L, 2L), LocalDateTime.now());
+
+        assertEquals(1, bookings.size());
+        assertEquals(2L, bookings.get(0).getId());
+        assertEquals(2L, bookings.get(0).getItem().getId());
+    }
+
+    @Test
+    @Sql("/test-data/bookings-users-items.sql")
+    void findVersionStampByItemId_changesWithStatusAndTime() {
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+        VersionStamp before = bookingRepository.findVersionStampByItemId(1L, now);
+        bookingRepository.updateStatusIfCurrent(1L, BookingStatus.WAITING, BookingStatus.APPROVED);
+        VersionStamp afterApprove = bookingRepository.findVersionStampByItemId(1L, now);
+        VersionStamp later = bookingRepository.findVersionStampByItemId(1L, LocalDateTime.of(2026, 1, 1, 0, 0));
+
+        assertEquals(new VersionStamp(1L, 0L, 1L, 0L), before);
+        assertEquals(new VersionStamp(1L, 1L, 1L, 0L), afterApprove);
+        assertEquals(2L, later.elapsed());
+    }
+
+    @Test
+    @Sql("/test-data/bookings-users-items.sql")
+    void findVersionStampByIdAndUserId_isEmptyForUnknownBooking() {
+        assertTrue(bookingRepository.findVersionStampByIdAndUserId(99L, 2L, LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    @Sql("/test-data/bookings-users-items.sql")
+    void findVersionStampByIdAndUserId_visibleOnlyToBookerAndOwner() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertFalse(bookingRepository.findVersionStampByIdAndUserId(1L, 2L, now).isEmpty());
+        assertFalse(bookingRepository.findVersionStampByIdAndUserId(1L, 1L, now).isEmpty());
+        assertTrue(bookingRepository.findVersionStampByIdAndUserId(1L, 3L, now).isEmpty());
+    }
+}
@@ -1,12 +1,17 @@
 package booking;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -15,12 +20,20 @@ import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingServiceIml;
 import ru.practicum.shareit.error.exception.AccessDeniedException;
+import ru.practicum.shareit.error.exception.ConflictException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.EventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.stream.EventBroadcaster;
+import ru.practicum.shareit.stream.Topic;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -38,12 +51,24 @@ class BookingServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceChecker userExistenceChecker;
+
     @Mock
     private ItemRepository itemRepository;
 
     @Mock
     private BookingMapper bookingMapper;
 
+    @Mock
+    private EventBroadcaster eventBroadcaster;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private BookingServiceIml bookingService;
 
@@ -52,73 +77,118 @@ class BookingServiceTest {
     private Item item;
     private Booking booking;
     private BookingDto bookingDto;
+    private final Sort sort = Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id"));
+    private final Pageable firstPage = OffsetPageRequest.of(0, 10, sort);
 
     @BeforeEach
     void setUp() {
-        booker = new User(2L, "Booker", "booker@example.com");
-        owner = new User(1L, "Owner", "owner@example.com");
-        item = new Item(1L, "Item", "Desc", true, owner, null);
-        booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, booker, BookingStatus.WAITING);
+        booker = new User(2L, "Booker", "booker@example.com", 0L);
+        owner = new User(1L, "Owner", "owner@example.com", 0L);
+        item = new Item(1L, "Item", "Desc", true, owner, null, 0L);
+        booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, booker, BookingStatus.WAITING, 0L);
         bookingDto = new BookingDto(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), 1L, 2L, "WAITING");
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     // Тесты для createBooking
     @Test
     void createBooking_success() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findCurrentById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findCurrentById(1L)).thenReturn(Optional.of(item));
         when(bookingMapper.toBooking(any(), any(), any())).thenReturn(booking);
-        when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
+        when(bookingRepository.saveAndFlush(any())).thenReturn(booking);
+        BookingResponseDto response = new BookingResponseDto();
+        when(bookingMapper.toBookingResponseDto(any())).thenReturn(response);
 
         BookingResponseDto result = bookingService.createBooking(bookingDto, 2L);
 
         assertNotNull(result);
-        verify(bookingRepository).save(any());
+        verify(bookingRepository).saveAndFlush(any());
         verify(bookingMapper).toBooking(bookingDto, item, booker);
         verify(bookingMapper).toBookingResponseDto(booking);
+        verify(outboxWriter).append(EventType.BOOKING_CREATED, 1L, response);
+        verify(eventBroadcaster).publish(Topic.BOOKINGS, 1L, response, 2L, 1L);
     }
 
     @Test
     void createBooking_userNotFound() {
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userRepository.findCurrentById(2L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> bookingService.createBooking(bookingDto, 2L));
-        verify(userRepository).findById(2L);
-        verify(itemRepository, never()).findById(anyLong());
+        verify(userRepository).findCurrentById(2L);
+        verify(itemRepository, never()).findCurrentById(anyLong());
     }
 
     @Test
     void createBooking_itemNotFound() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findCurrentById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findCurrentById(1L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> bookingService.createBooking(bookingDto, 2L));
-        verify(userRepository).findById(2L);
-        verify(itemRepository).findById(1L);
+        verify(userRepository).findCurrentById(2L);
+        verify(itemRepository).findCurrentById(1L);
     }
 
     @Test
     void createBooking_itemNotAvailable() {
         item.setAvailable(false);
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findCurrentById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findCurrentById(1L)).thenReturn(Optional.of(item));
 
         assertThrows(jakarta.validation.ValidationException.class, () -> bookingService.createBooking(bookingDto, 2L));
-        verify(userRepository).findById(2L);
-        verify(itemRepository).findById(1L);
-        verify(bookingRepository, never()).save(any());
+        verify(userRepository).findCurrentById(2L);
+        verify(itemRepository).findCurrentById(1L);
+        verify(bookingRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void createBooking_overlapsExistingBooking() {
+        when(userRepository.findCurrentById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findCurrentById(1L)).thenReturn(Optional.of(item));
+        when(bookingRepository.existsOverlapping(eq(1L), eq(bookingDto.getStart()), eq(bookingDto.getEnd()), anyList()))
+                .thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(bookingDto, 2L));
+        verify(bookingRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(eventBroadcaster);
+    }
+
+    @Test
+    void createBooking_overlapConstraintViolated_throwsConflict() {
+        when(userRepository.findCurrentById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findCurrentById(1L)).thenReturn(Optional.of(item));
+        when(bookingMapper.toBooking(any(), any(), any())).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("insert",
+                new ConstraintViolationException("conflicting key value",
+                        new SQLException("conflicting key value"), "ex_bookings_item_period")));
+
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(bookingDto, 2L));
+        verifyNoInteractions(outboxWriter, eventBroadcaster);
+    }
+
+    @Test
+    void createBooking_otherIntegrityViolation_isRethrown() {
+        when(userRepository.findCurrentById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findCurrentById(1L)).thenReturn(Optional.of(item));
+        when(bookingMapper.toBooking(any(), any(), any())).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("insert",
+                new ConstraintViolationException("violates foreign key",
+                        new SQLException("violates foreign key"), "fk_bookings_booker")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.createBooking(bookingDto, 2L));
+        verifyNoInteractions(outboxWriter, eventBroadcaster);
     }
 
     @Test
     void createBooking_ownerCannotBookOwnItem() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findCurrentById(1L)).thenReturn(Optional.of(owner));
+        when(itemRepository.findCurrentById(1L)).thenReturn(Optional.of(item));
 
         assertThrows(NotFoundException.class, () -> bookingService.createBooking(bookingDto, 1L));
-        verify(userRepository).findById(1L);
-        verify(itemRepository).findById(1L);
-        verify(bookingRepository, never()).save(any());
+        verify(userRepository).findCurrentById(1L);
+        verify(itemRepository).findCurrentById(1L);
+        verify(bookingRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -126,7 +196,7 @@ class BookingServiceTest {
         bookingDto.setStart(null);
 
         assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(bookingDto, 2L));
-        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).findCurrentById(anyLong());
     }
 
     @Test
@@ -134,7 +204,7 @@ class BookingServiceTest {
         bookingDto.setEnd(null);
 
         assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(bookingDto, 2L));
-        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).findCurrentById(anyLong());
     }
 
     @Test
@@ -143,7 +213,7 @@ class BookingServiceTest {
         bookingDto.setEnd(LocalDateTime.now().plusDays(1));
 
         assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(bookingDto, 2L));
-        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).findCurrentById(anyLong());
     }
 
     @Test
@@ -152,28 +222,32 @@ class BookingServiceTest {
         bookingDto.setEnd(LocalDateTime.now().minusHours(1));
 
         assertThrows(IllegalArgumentException.class, () -> bookingService.createBooking(bookingDto, 2L));
-        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).findCurrentById(anyLong());
     }
 
     @Test
     void approveBooking_success_approved() {
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
+        when(bookingRepository.updateStatusIfCurrent(1L, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
+        BookingResponseDto response = new BookingResponseDto();
+        when(bookingMapper.toBookingResponseDto(any())).thenReturn(response);
 
         BookingResponseDto result = bookingService.approveBooking(1L, 1L, true);
 
         assertNotNull(result);
         assertEquals(BookingStatus.APPROVED, booking.getStatus());
         verify(bookingRepository).findById(1L);
-        verify(bookingRepository).save(booking);
+        verify(bookingRepository).updateStatusIfCurrent(1L, BookingStatus.WAITING, BookingStatus.APPROVED);
+        verify(bookingRepository, never()).save(any());
         verify(bookingMapper).toBookingResponseDto(booking);
+        verify(outboxWriter).append(EventType.BOOKING_APPROVED, 1L, response);
+        verify(eventBroadcaster).publish(Topic.BOOKINGS, 1L, response, 2L, 1L);
     }
 
     @Test
     void approveBooking_success_rejected() {
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingRepository.updateStatusIfCurrent(1L, BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(1);
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
         BookingResponseDto result = bookingService.approveBooking(1L, 1L, false);
@@ -182,6 +256,16 @@ class BookingServiceTest {
         assertEquals(BookingStatus.REJECTED, booking.getStatus());
     }
 
+    @Test
+    void approveBooking_processedConcurrently() {
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatusIfCurrent(1L, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(0);
+
+        assertThrows(jakarta.validation.ValidationException.class, () -> bookingService.approveBooking(1L, 1L, true));
+        verify(bookingMapper, never()).toBookingResponseDto(any());
+        verifyNoInteractions(eventBroadcaster);
+    }
+
     @Test
     void approveBooking_bookingNotFound() {
         when(bookingRepository.findById(1L)).thenReturn(Optional.empty());
@@ -250,185 +334,232 @@ class BookingServiceTest {
 
     @Test
     void getAllBookingsByBooker_all() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerId(2L, Sort.by(Sort.Direction.DESC, "start"))).thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerId(eq(2L), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "ALL");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "ALL", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(userRepository).findById(2L);
-        verify(bookingRepository).findByBookerId(2L, Sort.by(Sort.Direction.DESC, "start"));
+        verify(userExistenceChecker).requireExists(2L);
+        verify(bookingRepository).findByBookerId(eq(2L), any(LocalDateTime.class), anyLong(), eq(firstPage));
         verify(bookingMapper).toBookingResponseDto(booking);
     }
 
+    @Test
+    void getBookerBookingsPage_etagFollowsPageRowsAndItemVersion() {
+        when(bookingRepository.findByBookerId(eq(2L), any(LocalDateTime.class), anyLong(), eq(firstPage)))
+                .thenReturn(List.of(booking));
+        when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
+
+        String before = bookingService.getBookerBookingsPage(2L, "ALL", 0, 10, null, null).etag();
+        item.setVersion(1L);
+        String afterRename = bookingService.getBookerBookingsPage(2L, "ALL", 0, 10, null, null).etag();
+
+        assertEquals("\"bookings-booker-2-1.0.1.0\"", before);
+        assertEquals("\"bookings-booker-2-1.1.1.0\"", afterRename);
+    }
+
+    @Test
+    void getBookerBookingsPage_emptyPage_hasNoEtag() {
+        when(bookingRepository.findByBookerId(eq(2L), any(LocalDateTime.class), anyLong(), eq(firstPage)))
+                .thenReturn(List.of());
+
+        assertNull(bookingService.getBookerBookingsPage(2L, "ALL", 0, 10, null, null).etag());
+    }
+
     @Test
     void getAllBookingsByBooker_current() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class), any(Sort.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "CURRENT");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "CURRENT", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByBookerIdAndStartBeforeAndEndAfter(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class), any(Sort.class));
+        verify(bookingRepository).findByBookerIdAndStartBeforeAndEndAfter(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByBooker_past() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerIdAndEndBefore(eq(2L), any(LocalDateTime.class), any(Sort.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerIdAndEndBefore(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "PAST");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "PAST", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByBookerIdAndEndBefore(eq(2L), any(LocalDateTime.class), any(Sort.class));
+        verify(bookingRepository).findByBookerIdAndEndBefore(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByBooker_future() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerIdAndStartAfter(eq(2L), any(LocalDateTime.class), any(Sort.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerIdAndStartAfter(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "FUTURE");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "FUTURE", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByBookerIdAndStartAfter(eq(2L), any(LocalDateTime.class), any(Sort.class));
+        verify(bookingRepository).findByBookerIdAndStartAfter(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByBooker_waiting() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerIdAndStatus(2L, BookingStatus.WAITING, Sort.by(Sort.Direction.DESC, "start"))).thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerIdAndStatus(eq(2L), eq(BookingStatus.WAITING), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "WAITING");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "WAITING", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByBookerIdAndStatus(2L, BookingStatus.WAITING, Sort.by(Sort.Direction.DESC, "start"));
+        verify(bookingRepository).findByBookerIdAndStatus(eq(2L), eq(BookingStatus.WAITING), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByBooker_rejected() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerIdAndStatus(2L, BookingStatus.REJECTED, Sort.by(Sort.Direction.DESC, "start"))).thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerIdAndStatus(eq(2L), eq(BookingStatus.REJECTED), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "REJECTED");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "REJECTED", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByBookerIdAndStatus(2L, BookingStatus.REJECTED, Sort.by(Sort.Direction.DESC, "start"));
+        verify(bookingRepository).findByBookerIdAndStatus(eq(2L), eq(BookingStatus.REJECTED), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByBooker_userNotFound() {
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).requireExists(2L);
 
-        assertThrows(NotFoundException.class, () -> bookingService.getAllBookingsByBooker(2L, "ALL"));
-        verify(userRepository).findById(2L);
-        verify(bookingRepository, never()).findByBookerId(anyLong(), any());
+        assertThrows(NotFoundException.class, () -> bookingService.getAllBookingsByBooker(2L, "ALL", 0, 10, null, null));
+        verify(userExistenceChecker).requireExists(2L);
+        verify(bookingRepository, never()).findByBookerId(anyLong(), any(), any(), any());
     }
 
     @Test
     void getAllBookingsByBooker_invalidState() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
 
-        assertThrows(jakarta.validation.ValidationException.class, () -> bookingService.getAllBookingsByBooker(2L, "INVALID"));
-        verify(userRepository).findById(2L);
-        verify(bookingRepository, never()).findByBookerId(anyLong(), any());
+        assertThrows(jakarta.validation.ValidationException.class, () -> bookingService.getAllBookingsByBooker(2L, "INVALID", 0, 10, null, null));
+        verify(userExistenceChecker).requireExists(2L);
+        verify(bookingRepository, never()).findByBookerId(anyLong(), any(), any(), any());
     }
 
     @Test
     void getAllBookingsByOwner_all() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerId(1L, Sort.by(Sort.Direction.DESC, "start"))).thenReturn(List.of(booking));
+        when(bookingRepository.findByItemOwnerId(eq(1L), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "ALL");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "ALL", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(userRepository).findById(1L);
-        verify(bookingRepository).findByItemOwnerId(1L, Sort.by(Sort.Direction.DESC, "start"));
+        verify(userExistenceChecker).requireExists(1L);
+        verify(bookingRepository).findByItemOwnerId(eq(1L), any(LocalDateTime.class), anyLong(), eq(firstPage));
         verify(bookingMapper).toBookingResponseDto(booking);
     }
 
     @Test
     void getAllBookingsByOwner_current() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfter(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), any(Sort.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfter(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "CURRENT");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "CURRENT", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByItemOwnerIdAndStartBeforeAndEndAfter(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), any(Sort.class));
+        verify(bookingRepository).findByItemOwnerIdAndStartBeforeAndEndAfter(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByOwner_past() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdAndEndBefore(eq(1L), any(LocalDateTime.class), any(Sort.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findByItemOwnerIdAndEndBefore(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "PAST");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "PAST", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByItemOwnerIdAndEndBefore(eq(1L), any(LocalDateTime.class), any(Sort.class));
+        verify(bookingRepository).findByItemOwnerIdAndEndBefore(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByOwner_future() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdAndStartAfter(eq(1L), any(LocalDateTime.class), any(Sort.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findByItemOwnerIdAndStartAfter(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "FUTURE");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "FUTURE", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByItemOwnerIdAndStartAfter(eq(1L), any(LocalDateTime.class), any(Sort.class));
+        verify(bookingRepository).findByItemOwnerIdAndStartAfter(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByOwner_waiting() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdAndStatus(1L, BookingStatus.WAITING, Sort.by(Sort.Direction.DESC, "start"))).thenReturn(List.of(booking));
+        when(bookingRepository.findByItemOwnerIdAndStatus(eq(1L), eq(BookingStatus.WAITING), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "WAITING");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "WAITING", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByItemOwnerIdAndStatus(1L, BookingStatus.WAITING, Sort.by(Sort.Direction.DESC, "start"));
+        verify(bookingRepository).findByItemOwnerIdAndStatus(eq(1L), eq(BookingStatus.WAITING), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByOwner_rejected() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdAndStatus(1L, BookingStatus.REJECTED, Sort.by(Sort.Direction.DESC, "start"))).thenReturn(List.of(booking));
+        when(bookingRepository.findByItemOwnerIdAndStatus(eq(1L), eq(BookingStatus.REJECTED), any(LocalDateTime.class), anyLong(), eq(firstPage))).thenReturn(List.of(booking));
         when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
 
-        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "REJECTED");
+        List<BookingResponseDto> result = bookingService.getAllBookingsByOwner(1L, "REJECTED", 0, 10, null, null);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByItemOwnerIdAndStatus(1L, BookingStatus.REJECTED, Sort.by(Sort.Direction.DESC, "start"));
+        verify(bookingRepository).findByItemOwnerIdAndStatus(eq(1L), eq(BookingStatus.REJECTED), any(LocalDateTime.class), anyLong(), eq(firstPage));
     }
 
     @Test
     void getAllBookingsByOwner_userNotFound() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).requireExists(1L);
 
-        assertThrows(NotFoundException.class, () -> bookingService.getAllBookingsByOwner(1L, "ALL"));
-        verify(userRepository).findById(1L);
-        verify(bookingRepository, never()).findByItemOwnerId(anyLong(), any());
+        assertThrows(NotFoundException.class, () -> bookingService.getAllBookingsByOwner(1L, "ALL", 0, 10, null, null));
+        verify(userExistenceChecker).requireExists(1L);
+        verify(bookingRepository, never()).findByItemOwnerId(anyLong(), any(), any(), any());
     }
 
     @Test
     void getAllBookingsByOwner_invalidState() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
 
-        assertThrows(jakarta.validation.ValidationException.class, () -> bookingService.getAllBookingsByOwner(1L, "INVALID"));
-        verify(userRepository).findById(1L);
-        verify(bookingRepository, never()).findByItemOwnerId(anyLong(), any());
+        assertThrows(jakarta.validation.ValidationException.class, () -> bookingService.getAllBookingsByOwner(1L, "INVALID", 0, 10, null, null));
+        verify(userExistenceChecker).requireExists(1L);
+        verify(bookingRepository, never()).findByItemOwnerId(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void getAllBookingsByBooker_withCursor() {
+        LocalDateTime cursorStart = LocalDateTime.now().minusDays(1);
+        when(bookingRepository.findByBookerId(2L, cursorStart, 5L, firstPage)).thenReturn(List.of(booking));
+        when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
+
+        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "ALL", 30, 10, cursorStart, 5L);
+
+        assertEquals(1, result.size());
+        verify(bookingRepository).findByBookerId(2L, cursorStart, 5L, firstPage);
+    }
+
+    @Test
+    void getAllBookingsByBooker_fromNotMultipleOfSize_offsetsByFrom() {
+        when(bookingRepository.findByBookerId(eq(2L), any(LocalDateTime.class), anyLong(),
+                eq(OffsetPageRequest.of(5, 10, sort)))).thenReturn(List.of(booking));
+        when(bookingMapper.toBookingResponseDto(any())).thenReturn(new BookingResponseDto());
+
+        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker(2L, "ALL", 5, 10, null, null);
+
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void getAllBookingsByBooker_incompleteCursor() {
+
+        assertThrows(jakarta.validation.ValidationException.class,
+                () -> bookingService.getAllBookingsByBooker(2L, "ALL", 0, 10, LocalDateTime.now(), null));
+        verify(bookingRepository, never()).findByBookerId(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void getAllBookingsByOwner_invalidPagination() {
+
+        assertThrows(jakarta.validation.ValidationException.class,
+                () -> bookingService.getAllBookingsByOwner(1L, "ALL", -1, 10, null, null));
+        verify(bookingRepository, never()).findByItemOwnerId(anyLong(), any(), any(), any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@DirtiesContext
+@ContextConfiguration(classes = ShareItServer.class)
+// Без общей тестовой транзакции каждый вызов репозитория идёт в своей сессии: записи READ_WRITE,
+// положенные в регион внутри незавершённой транзакции, этой же сессии не видны
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Sql("/test-data/items-users.sql")
+    void findById_repeatedLookupIsServedFromRegion() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userRepository.findById(1L);
+        itemRepository.findById(1L);
+        userRepository.findById(1L);
+        itemRepository.findById(1L);
+
+        assertEquals(1, statistics.getDomainDataRegionStatistics("users").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("items").getHitCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        // Чтения для бронирования идут мимо региона
+        userRepository.findCurrentById(1L);
+        itemRepository.findCurrentById(1L);
+
+        assertEquals(1, statistics.getDomainDataRegionStatistics("users").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("items").getHitCount());
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+}
@@ -16,12 +16,19 @@ import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.version.Versioned;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -101,6 +108,42 @@ public class ItemControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createItems_ShouldReturnCreatedItems() throws Exception {
+        when(itemService.createItems(anyList(), eq(userId))).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(post("/items/batch")
+                        .header(SHARER_USER_ID, userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(itemDto))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].id").value(itemId))
+                .andExpect(jsonPath("$[0].name").value("Test Item"));
+    }
+
+    @Test
+    void createItems_ShouldReturn400_WhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(post("/items/batch")
+                        .header(SHARER_USER_ID, userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).createItems(anyList(), anyLong());
+    }
+
+    @Test
+    void updateItems_ShouldReturn403_WhenAccessDenied() throws Exception {
+        when(itemService.updateItems(anyList(), eq(userId)))
+                .thenThrow(new AccessDeniedException("Пользователь не является владельцем"));
+
+        mockMvc.perform(patch("/items/batch")
+                        .header(SHARER_USER_ID, userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(itemDto))))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void updateItem_ShouldReturnUpdatedItem() throws Exception {
         when(itemService.updateItem(eq(itemId), any(ItemDto.class), eq(userId))).thenReturn(itemDto);
@@ -151,6 +194,30 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.comments").isArray());
     }
 
+    @Test
+    void getItemById_ShouldSendEtag() throws Exception {
+        when(itemService.getItemEtag(itemId, userId)).thenReturn("\"item-1-user-1-1.0.1.0\"");
+        when(itemService.getItemByIdWithBookings(eq(itemId), eq(userId))).thenReturn(itemWithBookingsDto);
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(SHARER_USER_ID, userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"item-1-user-1-1.0.1.0\""));
+    }
+
+    @Test
+    void getItemById_ShouldReturn304_WhenEtagMatches() throws Exception {
+        when(itemService.getItemEtag(itemId, userId)).thenReturn("\"item-1-user-1-1.0.1.0\"");
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(SHARER_USER_ID, userId)
+                        .header("If-None-Match", "\"item-1-user-1-1.0.1.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(itemService, never()).getItemByIdWithBookings(any(), any());
+    }
+
     @Test
     void getItemById_ShouldReturn404_WhenItemNotFound() throws Exception {
         when(itemService.getItemByIdWithBookings(eq(itemId), eq(userId)))
@@ -164,7 +231,8 @@ public class ItemControllerTest {
     @Test
     void getAllItemsByOwner_ShouldReturnListOfItems() throws Exception {
         List<ItemWithBookingsDto> items = List.of(itemWithBookingsDto);
-        when(itemService.getAllItemsByOwner(eq(userId))).thenReturn(items);
+        when(itemService.getItemsByOwnerPage(eq(userId), eq(0), eq(10), isNull()))
+                .thenReturn(new Versioned<>(items, "\"items-owner-1\""));
 
         mockMvc.perform(get("/items")
                         .header(SHARER_USER_ID, userId)
@@ -175,9 +243,34 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].id").value(itemId));
     }
 
+    @Test
+    void getAllItemsByOwner_ShouldReturn304_WhenEtagMatches() throws Exception {
+        when(itemService.getItemsByOwnerPage(eq(userId), eq(0), eq(10), isNull()))
+                .thenReturn(new Versioned<>(List.of(itemWithBookingsDto), "\"items-owner-1\""));
+
+        mockMvc.perform(get("/items")
+                        .header(SHARER_USER_ID, userId)
+                        .header("If-None-Match", "\"items-owner-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getAllItemsByOwner_ShouldPassCursor() throws Exception {
+        List<ItemWithBookingsDto> items = List.of(itemWithBookingsDto);
+        when(itemService.getItemsByOwnerPage(eq(userId), eq(0), eq(10), eq(7L)))
+                .thenReturn(new Versioned<>(items, null));
+
+        mockMvc.perform(get("/items")
+                        .header(SHARER_USER_ID, userId)
+                        .param("after", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(itemId));
+    }
+
     @Test
     void getAllItemsByOwner_ShouldReturn404_WhenUserNotFound() throws Exception {
-        when(itemService.getAllItemsByOwner(eq(userId)))
+        when(itemService.getItemsByOwnerPage(eq(userId), anyInt(), anyInt(), any()))
                 .thenThrow(new NotFoundException("Пользователь не найден"));
 
         mockMvc.perform(get("/items")
@@ -188,7 +281,7 @@ public class ItemControllerTest {
     @Test
     void searchItems_ShouldReturnListOfItems() throws Exception {
         List<ItemDto> items = List.of(itemDto);
-        when(itemService.searchItems("test")).thenReturn(items);
+        when(itemService.searchItems("test", 0, 10)).thenReturn(items);
 
         mockMvc.perform(get("/items/search")
                         .param("text", "test")
@@ -201,7 +294,7 @@ public class ItemControllerTest {
 
     @Test
     void searchItems_ShouldReturnEmptyList_WhenTextIsBlank() throws Exception {
-        when(itemService.searchItems("")).thenReturn(List.of());
+        when(itemService.searchItems("", 0, 10)).thenReturn(List.of());
 
         mockMvc.perform(get("/items/search")
                         .param("text", ""))
@@ -0,0 +1,106 @@
+package item;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemCommentStats;
+import ru.practicum.shareit.item.repository.ItemCommentStatsRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@ContextConfiguration(classes = ShareItServer.class)
+class ItemRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemCommentStatsRepository itemCommentStatsRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Sql("/test-data/items-search.sql")
+    void searchAvailableItems_ranksNameMatchesFirst() {
+        List<Item> result = itemRepository.searchAvailableItems("drill", PageRequest.of(0, 10));
+
+        assertThat(result).extracting(Item::getName)
+                .containsExactly("Hammer drill", "DRILL", "Battery");
+    }
+
+    @Test
+    @Sql("/test-data/items-search.sql")
+    void searchAvailableItems_returnsRequestedPage() {
+        List<Item> result = itemRepository.searchAvailableItems("drill", PageRequest.of(1, 2));
+
+        assertThat(result).extracting(Item::getName).containsExactly("Battery");
+    }
+
+    @Test
+    void saveAll_insertsItemsInJdbcBatches() {
+        User owner = entityManager.persistAndFlush(new User(null, "Owner", "owner@example.com", null));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Item item = new Item();
+            item.setName("Item " + i);
+            item.setDescription("Catalog item");
+            item.setAvailable(true);
+            item.setOwner(owner);
+            items.add(item);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        itemRepository.saveAll(items);
+        entityManager.flush();
+
+        // 3 пакета INSERT по 50 строк и несколько обращений к последовательности вместо 120 отдельных INSERT
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+        assertThat(items).extracting(Item::getId).doesNotContainNull().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @Sql("/test-data/items-users.sql")
+    void commentStatsIncrement_keepsLatestTimeWithoutTouchingItem() {
+        LocalDateTime created = LocalDateTime.of(2024, 5, 1, 12, 0);
+        itemCommentStatsRepository.saveAndFlush(new ItemCommentStats(1L, 0, null));
+        Long version = itemRepository.findById(1L).orElseThrow().getVersion();
+        entityManager.clear();
+
+        // Транзакция с более ранним комментарием фиксируется последней: время не откатывается назад
+        itemCommentStatsRepository.increment(1L, created);
+        itemCommentStatsRepository.increment(1L, created.minusDays(1));
+        entityManager.clear();
+
+        ItemCommentStats stats = itemCommentStatsRepository.findById(1L).orElseThrow();
+        assertThat(stats.getCommentCount()).isEqualTo(2);
+        assertThat(stats.getLastCommentAt()).isEqualTo(created);
+        assertThat(itemRepository.findById(1L).orElseThrow().getVersion()).isEqualTo(version);
+    }
+}
@@ -0,0 +1,175 @@
+package item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private ItemSearchIndex index;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User(1L, "Owner", "owner@example.com", 0L);
+        index = searchIndex(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void build_ShouldIndexAvailableItemsAndBecomeReady() {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(
+                        new Item(1L, "Аккумуляторная дрель", "Мощная", true, owner, null, 0L),
+                        new Item(2L, "Отвёртка", "Для дрели не подходит", true, owner, null, 0L)));
+
+        index.build();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L, 2L), index.search("дрел", 0, 10));
+        assertEquals(List.of(1L), index.search("ДРЕЛЬ", 0, 10));
+    }
+
+    @Test
+    void build_ShouldNotOverwriteItemUpdatedAfterBatchWasRead() {
+        // Пачка прочитана до коммита, снявшего вещь с аренды, а afterCommit применился раньше пачки
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(eq(0L), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    index.index(new Item(1L, "Drill", "Tool", false, owner, null, 1L));
+                    return List.of(new Item(1L, "Drill", "Tool", true, owner, null, 0L));
+                });
+
+        index.build();
+
+        assertTrue(index.search("drill", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldMatchWholePhraseLikeDatabase() {
+        index.index(new Item(1L, "Drill bit set", "Tool", true, owner, null, 0L));
+        index.index(new Item(2L, "Bit for drill", "Tool", true, owner, null, 0L));
+
+        assertEquals(List.of(1L), index.search("drill bit", 0, 10));
+        assertEquals(List.of(1L, 2L), index.search("bit", 0, 10));
+        assertEquals(List.of(1L), index.search("l b", 0, 10));
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesBeforeDescriptionMatches() {
+        index.index(new Item(1L, "Saw", "Works with a drill", true, owner, null, 0L));
+        index.index(new Item(2L, "Drill", "Tool", true, owner, null, 0L));
+        index.index(new Item(3L, "Drill", "Spare drill bits", true, owner, null, 0L));
+
+        assertEquals(List.of(2L, 3L, 1L), index.search("drill", 0, 10));
+        assertEquals(List.of(3L, 1L), index.search("drill", 1, 5));
+    }
+
+    @Test
+    void search_ShouldReturnRequestedPage() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(new Item(id, "Drill " + id, "Tool", true, owner, null, 0L));
+        }
+
+        assertEquals(List.of(3L, 4L), index.search("drill", 2, 2));
+        assertTrue(index.search("drill", 10, 2).isEmpty());
+    }
+
+    @Test
+    void index_ShouldReplaceTokensOnUpdateAndDropUnavailableItems() {
+        Item item = new Item(1L, "Drill", "Tool", true, owner, null, 0L);
+        index.index(item);
+
+        item.setName("Saw");
+        item.setVersion(1L);
+        index.index(item);
+        assertTrue(index.search("drill", 0, 10).isEmpty());
+        assertEquals(List.of(1L), index.search("saw", 0, 10));
+
+        item.setAvailable(false);
+        item.setVersion(2L);
+        index.index(item);
+        assertTrue(index.search("saw", 0, 10).isEmpty());
+    }
+
+    @Test
+    void disabledIndex_ShouldNeverBeReady() {
+        ItemSearchIndex disabled = searchIndex(false);
+
+        disabled.build();
+        disabled.index(new Item(1L, "Drill", "Tool", true, owner, null, 0L));
+        disabled.syncChanges();
+
+        assertFalse(disabled.isReady());
+        assertTrue(disabled.search("drill", 0, 10).isEmpty());
+        verifyNoInteractions(itemRepository, outboxEventRepository);
+    }
+
+    @Test
+    void syncChanges_ShouldApplyItemsChangedOnOtherInstances() {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new Item(1L, "Drill", "Tool", true, owner, null, 0L)));
+        index.build();
+        // Другой экземпляр снял дрель с аренды и добавил пилу: индекс узнаёт об этом только из outbox
+        when(outboxEventRepository.findAggregateIdsChangedSince(eq("item"),
+                eq(List.of("ITEM_CREATED", "ITEM_UPDATED")), any(LocalDateTime.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(itemRepository.findCurrentByIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new Item(1L, "Drill", "Tool", false, owner, null, 1L),
+                new Item(2L, "Saw", "Tool", true, owner, null, 0L)));
+
+        assertEquals(2, index.syncChanges());
+
+        assertTrue(index.search("drill", 0, 10).isEmpty());
+        assertEquals(List.of(2L), index.search("saw", 0, 10));
+    }
+
+    @Test
+    void syncChanges_ShouldNotOverwriteNewerLocalCommit() {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of());
+        index.build();
+        index.index(new Item(1L, "Saw", "Tool", true, owner, null, 2L));
+        when(outboxEventRepository.findAggregateIdsChangedSince(any(), any(), any())).thenReturn(List.of(1L));
+        when(itemRepository.findCurrentByIdIn(List.of(1L)))
+                .thenReturn(List.of(new Item(1L, "Drill", "Tool", true, owner, null, 1L)));
+
+        index.syncChanges();
+
+        assertTrue(index.search("drill", 0, 10).isEmpty());
+        assertEquals(List.of(1L), index.search("saw", 0, 10));
+    }
+
+    private ItemSearchIndex searchIndex(boolean enabled) {
+        return new ItemSearchIndex(itemRepository, outboxEventRepository, enabled, Duration.ofHours(1),
+                Duration.ofMinutes(1));
+    }
+}
@@ -1,5 +1,6 @@
 package item;
 
+import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,20 +16,28 @@ import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.error.exception.AccessDeniedException;
 import ru.practicum.shareit.error.exception.NotFoundException;
-import ru.practicum.shareit.error.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemCommentStats;
+import ru.practicum.shareit.item.repository.ItemCommentStatsRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceIml;
+import ru.practicum.shareit.outbox.EventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -40,9 +49,15 @@ public class ItemServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemCommentStatsRepository itemCommentStatsRepository;
+
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceChecker userExistenceChecker;
+
     @Mock
     private BookingRepository bookingRepository;
 
@@ -55,6 +70,15 @@ public class ItemServiceImplTest {
     @Mock
     private CommentMapper commentMapper;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemRequestService itemRequestService;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private ItemServiceIml itemService;
 
@@ -71,6 +95,7 @@ public class ItemServiceImplTest {
         user = new User();
         user.setId(1L);
         user.setName("Тест пользователя");
+        user.setVersion(0L);
 
         item = new Item();
         item.setId(1L);
@@ -78,6 +103,7 @@ public class ItemServiceImplTest {
         item.setDescription("Тест описания");
         item.setAvailable(true);
         item.setOwner(user);
+        item.setVersion(0L);
 
         itemDto = new ItemDto();
         itemDto.setId(1L);
@@ -93,6 +119,7 @@ public class ItemServiceImplTest {
         comment = new Comment();
         comment.setId(1L);
         comment.setText("Тест комментария");
+        comment.setAuthor(user);
 
         commentDto = new CommentDto();
         commentDto.setId(1L);
@@ -117,6 +144,10 @@ public class ItemServiceImplTest {
         verify(itemMapper).toItem(itemDto, user);
         verify(itemRepository).save(item);
         verify(itemMapper).toItemDto(item);
+        verify(itemSearchIndex).index(item);
+        verify(itemCommentStatsRepository).save(new ItemCommentStats(item.getId(), 0, null));
+        verify(itemRequestService).publishAnswers(eq(List.of(itemDto)), any());
+        verify(outboxWriter).append(EventType.ITEM_CREATED, itemDto.getId(), itemDto);
     }
 
     @Test
@@ -128,6 +159,62 @@ public class ItemServiceImplTest {
         verifyNoInteractions(itemRepository);
     }
 
+    @Test
+    void createItems_ShouldSaveAllInOneCall_WhenOwnerExists() {
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(itemMapper.toItem(itemDto, user)).thenReturn(item);
+        when(itemRepository.saveAll(List.of(item, item))).thenReturn(List.of(item, item));
+        when(itemMapper.toItemDto(item)).thenReturn(itemDto);
+
+        List<ItemDto> result = itemService.createItems(List.of(itemDto, itemDto), 1L);
+
+        assertEquals(List.of(itemDto, itemDto), result);
+        verify(userExistenceChecker).requireExists(1L);
+        verify(userRepository, never()).findById(anyLong());
+        verify(itemSearchIndex, times(2)).index(item);
+    }
+
+    @Test
+    void createItems_ShouldThrowNotFoundException_WhenUserNotFound() {
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).requireExists(1L);
+
+        assertThrows(NotFoundException.class, () -> itemService.createItems(List.of(itemDto), 1L));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void updateItems_ShouldApplyChanges_WhenUserIsOwner() {
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(List.of(item));
+        when(itemMapper.toItemDto(item)).thenReturn(itemDto);
+
+        List<ItemDto> result = itemService.updateItems(List.of(itemDto), 1L);
+
+        assertEquals(List.of(itemDto), result);
+        verify(itemMapper).updateItemFromDto(itemDto, item);
+        verify(itemSearchIndex).index(item);
+    }
+
+    @Test
+    void updateItems_ShouldThrowAccessDeniedException_WhenUserIsNotOwner() {
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(List.of(item));
+
+        assertThrows(AccessDeniedException.class, () -> itemService.updateItems(List.of(itemDto), 2L));
+        verify(itemMapper, never()).updateItemFromDto(any(), any());
+    }
+
+    @Test
+    void updateItems_ShouldThrowNotFoundException_WhenItemMissing() {
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(Collections.emptyList());
+
+        assertThrows(NotFoundException.class, () -> itemService.updateItems(List.of(itemDto), 1L));
+    }
+
+    @Test
+    void updateItems_ShouldRejectDuplicateIds() {
+        assertThrows(IllegalArgumentException.class, () -> itemService.updateItems(List.of(itemDto, itemDto), 1L));
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     void updateItem_ShouldReturnUpdatedItemDto_WhenOwner() {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
@@ -211,37 +298,112 @@ public class ItemServiceImplTest {
 
     @Test
     void getAllItemsByOwner_ShouldReturnList_WhenValid() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(itemRepository.findByOwnerIdOrderById(1L)).thenReturn(List.of(item));
+        Booking lastBooking = new Booking();
+        lastBooking.setId(1L);
+        lastBooking.setItem(item);
+        lastBooking.setBooker(user);
+        lastBooking.setStart(LocalDateTime.now().minusDays(2));
+        lastBooking.setVersion(0L);
+
+        Booking nextBooking = new Booking();
+        nextBooking.setId(2L);
+        nextBooking.setItem(item);
+        nextBooking.setBooker(user);
+        nextBooking.setStart(LocalDateTime.now().plusDays(2));
+        nextBooking.setVersion(0L);
+
+        comment.setItem(item);
+
+        when(itemRepository.findByOwnerIdAndIdGreaterThanOrderById(1L, 0L, OffsetPageRequest.of(0, 10)))
+                .thenReturn(List.of(item));
         when(itemMapper.toItemWithBookingsDto(item)).thenReturn(itemWithBookingsDto);
-        when(commentRepository.findByItemIdOrderByCreatedDesc(1L)).thenReturn(Collections.emptyList());
-        // Моки для бронирований — аналогично выше
-        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(anyLong(), any(LocalDateTime.class), any()))
-                .thenReturn(Optional.of(booking));
-        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(anyLong(), any(LocalDateTime.class), any()))
-                .thenReturn(Optional.of(booking));
+        when(bookingRepository.findLastAndNextApprovedByItemIdIn(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBooking, nextBooking));
+        when(commentRepository.findByItemIdInOrderByCreatedDesc(List.of(1L))).thenReturn(List.of(comment));
+        when(commentMapper.toCommentDto(comment)).thenReturn(commentDto);
 
-        List<ItemWithBookingsDto> result = itemService.getAllItemsByOwner(1L);
+        List<ItemWithBookingsDto> result = itemService.getAllItemsByOwner(1L, 0, 10, null);
 
         assertEquals(1, result.size());
         assertEquals(itemWithBookingsDto, result.get(0));
-        verify(bookingRepository, times(1)).findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(anyLong(), any(LocalDateTime.class), any());
-        verify(bookingRepository, times(1)).findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(anyLong(), any(LocalDateTime.class), any());
+        assertEquals(1L, result.get(0).getLastBooking().getId());
+        assertEquals(2L, result.get(0).getNextBooking().getId());
+        assertEquals(List.of(commentDto), result.get(0).getComments());
+        verify(bookingRepository, times(1)).findLastAndNextApprovedByItemIdIn(anyList(), any(LocalDateTime.class));
+        verify(commentRepository, times(1)).findByItemIdInOrderByCreatedDesc(anyList());
+        verify(bookingRepository, never()).findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(anyLong(), any(), any());
+        verify(commentRepository, never()).findByItemIdOrderByCreatedDesc(anyLong());
+    }
+
+    @Test
+    void getItemsByOwnerPage_etagFollowsPageRowsAndCommentAuthor() {
+        comment.setItem(item);
+        when(itemRepository.findByOwnerIdAndIdGreaterThanOrderById(1L, 0L, OffsetPageRequest.of(0, 10)))
+                .thenReturn(List.of(item));
+        when(itemMapper.toItemWithBookingsDto(item)).thenReturn(itemWithBookingsDto);
+        when(commentRepository.findByItemIdInOrderByCreatedDesc(List.of(1L))).thenReturn(List.of(comment));
+        when(commentMapper.toCommentDto(comment)).thenReturn(commentDto);
+
+        String before = itemService.getItemsByOwnerPage(1L, 0, 10, null).etag();
+        user.setVersion(1L);
+        String afterRename = itemService.getItemsByOwnerPage(1L, 0, 10, null).etag();
+
+        assertEquals("\"items-owner-1-1.0.1.0-0.0.0.0-1.0.1.0\"", before);
+        assertEquals("\"items-owner-1-1.0.1.0-0.0.0.0-1.1.1.0\"", afterRename);
+    }
+
+    @Test
+    void getAllItemsByOwner_ShouldReturnEmptyList_WhenOwnerHasNoItems() {
+        when(itemRepository.findByOwnerIdAndIdGreaterThanOrderById(1L, 0L, OffsetPageRequest.of(0, 10)))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemWithBookingsDto> result = itemService.getAllItemsByOwner(1L, 0, 10, null);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(bookingRepository, commentRepository);
     }
 
     @Test
     void getAllItemsByOwner_ShouldThrowNotFoundException_WhenUserNotFound() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).requireExists(1L);
+
+        assertThrows(NotFoundException.class, () -> itemService.getAllItemsByOwner(1L, 0, 10, null));
+    }
+
+    @Test
+    void getAllItemsByOwner_ShouldUseCursor_WhenAfterIdGiven() {
+        when(itemRepository.findByOwnerIdAndIdGreaterThanOrderById(1L, 5L, OffsetPageRequest.of(0, 10)))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemWithBookingsDto> result = itemService.getAllItemsByOwner(1L, 20, 10, 5L);
+
+        assertTrue(result.isEmpty());
+        verify(itemRepository).findByOwnerIdAndIdGreaterThanOrderById(1L, 5L, OffsetPageRequest.of(0, 10));
+    }
+
+    @Test
+    void getAllItemsByOwner_ShouldOffsetByFrom_WhenFromNotMultipleOfSize() {
+        when(itemRepository.findByOwnerIdAndIdGreaterThanOrderById(1L, 0L, OffsetPageRequest.of(5, 10)))
+                .thenReturn(Collections.emptyList());
+
+        itemService.getAllItemsByOwner(1L, 5, 10, null);
+
+        verify(itemRepository).findByOwnerIdAndIdGreaterThanOrderById(1L, 0L, OffsetPageRequest.of(5, 10));
+    }
+
+    @Test
+    void getAllItemsByOwner_ShouldThrowValidationException_WhenSizeNotPositive() {
 
-        assertThrows(NotFoundException.class, () -> itemService.getAllItemsByOwner(1L));
+        assertThrows(ValidationException.class, () -> itemService.getAllItemsByOwner(1L, 0, 0, null));
+        verifyNoInteractions(itemRepository);
     }
 
     @Test
     void searchItems_ShouldReturnList_WhenTextNotBlank() {
-        when(itemRepository.searchAvailableItems("test")).thenReturn(List.of(item));
+        when(itemRepository.searchAvailableItems("test", OffsetPageRequest.of(0, 10))).thenReturn(List.of(item));
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
 
-        List<ItemDto> result = itemService.searchItems("test");
+        List<ItemDto> result = itemService.searchItems("test", 0, 10);
 
         assertEquals(1, result.size());
         assertEquals(itemDto, result.get(0));
@@ -249,7 +411,7 @@ public class ItemServiceImplTest {
 
     @Test
     void searchItems_ShouldReturnEmptyList_WhenTextBlank() {
-        List<ItemDto> result = itemService.searchItems("");
+        List<ItemDto> result = itemService.searchItems("", 0, 10);
 
         assertTrue(result.isEmpty());
         verifyNoInteractions(itemRepository);
@@ -257,19 +419,48 @@ public class ItemServiceImplTest {
 
     @Test
     void searchItems_ShouldReturnEmptyList_WhenTextNull() {
-        List<ItemDto> result = itemService.searchItems(null);
+        List<ItemDto> result = itemService.searchItems(null, 0, 10);
 
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void searchItems_ShouldRequestExactOffset_WhenFromNotMultipleOfSize() {
+        // Индекс поиска отдаёт окно с точного from, путь через БД должен вернуть то же окно
+        when(itemRepository.searchAvailableItems("test", OffsetPageRequest.of(7, 5))).thenReturn(List.of(item));
+        when(itemMapper.toItemDto(item)).thenReturn(itemDto);
+
+        List<ItemDto> result = itemService.searchItems("test", 7, 5);
+
+        assertEquals(List.of(itemDto), result);
+        verify(itemRepository).searchAvailableItems("test", OffsetPageRequest.of(7, 5));
+    }
+
+    @Test
+    void searchItems_ShouldHydrateIndexHitsInIndexOrder_WhenIndexReady() {
+        Item second = new Item(2L, "Drill 2", "Desc", true, user, null, 0L);
+        ItemDto secondDto = new ItemDto(2L, "Drill 2", "Desc", true, null);
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search("drill", 0, 10)).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(second, item));
+        when(itemMapper.toItemDto(item)).thenReturn(itemDto);
+        when(itemMapper.toItemDto(second)).thenReturn(secondDto);
+
+        List<ItemDto> result = itemService.searchItems("drill", 0, 10);
+
+        assertEquals(List.of(itemDto, secondDto), result);
+        verify(itemRepository, never()).searchAvailableItems(anyString(), any());
+    }
+
     @Test
     void addComment_ShouldReturnCommentDto_WhenValid() {
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        // Исправление: все аргументы — матчеры
-        when(bookingRepository.findByItemIdAndBookerIdAndEndBeforeAndStatus(
+        LocalDateTime created = LocalDateTime.now();
+        comment.setCreated(created);
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBeforeAndStatus(
                 eq(1L), eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
-                .thenReturn(List.of(booking));
+                .thenReturn(true);
+        when(itemRepository.getReferenceById(1L)).thenReturn(item);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(commentMapper.toCommentFromCreate(commentDto, item, user)).thenReturn(comment);
         when(commentRepository.save(comment)).thenReturn(comment);
         when(commentMapper.toCommentDto(comment)).thenReturn(commentDto);
@@ -277,27 +468,46 @@ public class ItemServiceImplTest {
         CommentDto result = itemService.addComment(1L, 1L, commentDto);
 
         assertEquals(commentDto, result);
-        verify(bookingRepository).findByItemIdAndBookerIdAndEndBeforeAndStatus(
-                eq(1L), eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED));
+        verify(itemCommentStatsRepository).increment(1L, created);
+        verify(itemCommentStatsRepository, never()).save(any());
+        verify(outboxWriter).append(EventType.COMMENT_ADDED, 1L, commentDto);
+        verify(itemRepository, never()).findById(anyLong());
+        verify(userRepository, never()).findById(anyLong());
     }
 
     @Test
     void addComment_ShouldThrowNotFoundException_WhenItemNotFound() {
-        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBeforeAndStatus(
+                eq(1L), eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
+                .thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> itemService.addComment(1L, 1L, commentDto));
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void addComment_ShouldThrowNotFoundException_WhenUserNotFound() {
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBeforeAndStatus(
+                eq(1L), eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
+                .thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).requireExists(1L);
+
+        assertThrows(NotFoundException.class, () -> itemService.addComment(1L, 1L, commentDto));
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
     void addComment_ShouldThrowValidationException_WhenNoBookings() {
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(bookingRepository.findByItemIdAndBookerIdAndEndBeforeAndStatus(
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBeforeAndStatus(
                 eq(1L), eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED)))
-                .thenReturn(Collections.emptyList());
+                .thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(true);
 
-        assertThrows(ValidationException.class, () -> itemService.addComment(1L, 1L, commentDto));
-        verify(bookingRepository).findByItemIdAndBookerIdAndEndBeforeAndStatus(
-                eq(1L), eq(1L), any(LocalDateTime.class), eq(BookingStatus.APPROVED));
+        assertThrows(ru.practicum.shareit.error.exception.ValidationException.class,
+                () -> itemService.addComment(1L, 1L, commentDto));
+        verifyNoInteractions(commentRepository);
+        verify(itemCommentStatsRepository, never()).increment(anyLong(), any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package load;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Массовая вставка бронирований и комментариев: построчные INSERT против пачек по 50.
+ * Id выдают последовательности, поэтому режимы отличаются только размером пачки JDBC в сессии.
+ * Пишет в лог число строк в секунду и подготовленных запросов.
+ * Запуск: mvn -pl server test -Dtest=BulkInsertBenchmarkTest -Dshareit.load-test=true
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.load-test", matches = "true")
+@SpringBootTest(classes = ShareItServer.class)
+class BulkInsertBenchmarkTest {
+    private static final int ROWS = 10_000;
+    private static final int FLUSH_EVERY = 1000;
+    private static final int ROUNDS = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Owner", "bulk-owner@example.com", null));
+        booker = userRepository.save(new User(null, "Booker", "bulk-booker@example.com", null));
+
+        item = new Item();
+        item.setName("Popular item");
+        item.setDescription("Booked and reviewed a lot");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Вещь, бронирования и комментарии удаляются каскадом вместе с пользователями
+        userRepository.deleteById(booker.getId());
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    void bulkInsertBookingsAndComments() {
+        // Прогрев: JIT, пул соединений, последовательности
+        insertRows(1, ROWS / 10, 0);
+        insertRows(50, ROWS / 10, 1);
+
+        Result single = null;
+        Result batched = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            single = best(single, insertRows(1, ROWS, 2 + round * 2));
+            batched = best(batched, insertRows(50, ROWS, 3 + round * 2));
+        }
+
+        log.info("[single] {} бронирований + {} комментариев: {} строк/с, {} запросов",
+                ROWS, ROWS, Math.round(single.rowsPerSecond()), single.statements());
+        log.info("[batch 50] {} бронирований + {} комментариев: {} строк/с, {} запросов",
+                ROWS, ROWS, Math.round(batched.rowsPerSecond()), batched.statements());
+
+        assertThat(batched.statements()).isLessThan(single.statements() / 10);
+    }
+
+    private Result insertRows(int batchSize, int rows, int series) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        // Каждая серия бронирует свой год, чтобы интервалы не пересекались между прогонами
+        LocalDateTime base = LocalDateTime.now().plusYears(1 + series).truncatedTo(ChronoUnit.HOURS);
+
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            User bookerRef = entityManager.getReference(User.class, booker.getId());
+            Item itemRef = entityManager.getReference(Item.class, item.getId());
+            for (int i = 0; i < rows; i++) {
+                // Бронирования и комментарии чередуются: без order_inserts пачки рвались бы на каждой строке
+                LocalDateTime start = base.plusMinutes(i);
+                entityManager.persist(new Booking(null, start, start.plusSeconds(30), itemRef, bookerRef,
+                        BookingStatus.WAITING, null));
+                entityManager.persist(new Comment(null, "Отзыв " + i, itemRef, bookerRef, start));
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    bookerRef = entityManager.getReference(User.class, booker.getId());
+                    itemRef = entityManager.getReference(Item.class, item.getId());
+                }
+            }
+        });
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2L * rows);
+        return new Result(2 * rows / seconds, statistics.getPrepareStatementCount());
+    }
+
+    private static Result best(Result current, Result candidate) {
+        return current == null || candidate.rowsPerSecond() > current.rowsPerSecond() ? candidate : current;
+    }
+
+    private record Result(double rowsPerSecond, long statements) {
+    }
+}
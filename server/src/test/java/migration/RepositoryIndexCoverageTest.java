@@ -0,0 +1,145 @@
+package migration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemCommentStatsRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.request.repisitory.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Каждый объявленный в репозиториях метод должен быть сопоставлен с индексом, созданным миграциями.
+ * Новый метод без записи в {@link #COVERING_INDEXES} или с несуществующим индексом роняет тест.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = ShareItServer.class)
+class RepositoryIndexCoverageTest {
+    private static final String PRIMARY_KEY = "PRIMARY KEY";
+    private static final String POSTGRESQL_ONLY = "POSTGRESQL ONLY";
+
+    private static final List<Class<?>> REPOSITORIES = List.of(BookingRepository.class, ItemRepository.class,
+            ItemCommentStatsRepository.class, CommentRepository.class, ItemRequestRepository.class,
+            UserRepository.class, OutboxEventRepository.class);
+
+    private static final Map<String, String> COVERING_INDEXES = Map.ofEntries(
+            Map.entry("BookingRepository.findById", PRIMARY_KEY),
+            Map.entry("BookingRepository.findByItemIdAndStatus", "ix_bookings_item_status_start"),
+            Map.entry("BookingRepository.updateStatusIfCurrent", PRIMARY_KEY),
+            Map.entry("BookingRepository.findByBookerId", "ix_bookings_booker_start"),
+            Map.entry("BookingRepository.findByBookerIdAndEndBefore", "ix_bookings_booker_start"),
+            Map.entry("BookingRepository.findByBookerIdAndStartAfter", "ix_bookings_booker_start"),
+            Map.entry("BookingRepository.findByBookerIdAndStartBeforeAndEndAfter", "ix_bookings_booker_start"),
+            Map.entry("BookingRepository.findByBookerIdAndStatus", "ix_bookings_booker_status_start"),
+            Map.entry("BookingRepository.findByItemOwnerId", "ix_bookings_item_start"),
+            Map.entry("BookingRepository.findByItemOwnerIdAndEndBefore", "ix_bookings_item_start"),
+            Map.entry("BookingRepository.findByItemOwnerIdAndStartAfter", "ix_bookings_item_start"),
+            Map.entry("BookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfter", "ix_bookings_item_start"),
+            Map.entry("BookingRepository.findByItemOwnerIdAndStatus", "ix_bookings_item_status_start"),
+            Map.entry("BookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc",
+                    "ix_bookings_item_status_start"),
+            Map.entry("BookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc",
+                    "ix_bookings_item_status_start"),
+            Map.entry("BookingRepository.existsOverlapping", "ix_bookings_item_start"),
+            Map.entry("BookingRepository.existsByItemIdAndBookerIdAndEndBeforeAndStatus",
+                    "ix_bookings_item_booker_status_end"),
+            Map.entry("BookingRepository.findLastAndNextApprovedByItemIdIn", "ix_bookings_item_status_start"),
+            Map.entry("BookingRepository.findVersionStampByIdAndUserId", PRIMARY_KEY),
+            Map.entry("BookingRepository.findVersionStampByItemId", "ix_bookings_item_start"),
+            Map.entry("ItemRepository.findByOwnerIdAndIdGreaterThanOrderById", "ix_items_owner"),
+            Map.entry("ItemRepository.findByAvailableTrueAndIdGreaterThanOrderById", PRIMARY_KEY),
+            Map.entry("ItemRepository.searchAvailableItems", POSTGRESQL_ONLY),
+            Map.entry("ItemRepository.findByRequestIdIn", "ix_items_request"),
+            Map.entry("ItemRepository.findByRequestId", "ix_items_request"),
+            Map.entry("ItemRepository.findCurrentById", PRIMARY_KEY),
+            Map.entry("ItemRepository.findCurrentByIdIn", PRIMARY_KEY),
+            Map.entry("ItemRepository.findVersionStampById", PRIMARY_KEY),
+            Map.entry("ItemRepository.findVersionStampByRequestId", "ix_items_request"),
+            Map.entry("ItemRepository.findVersionStampOfAnswersToRequestor", "ix_items_request"),
+            Map.entry("ItemCommentStatsRepository.increment", PRIMARY_KEY),
+            Map.entry("CommentRepository.findByItemIdOrderByCreatedDesc", "ix_comments_item_created"),
+            Map.entry("CommentRepository.findByItemIdInOrderByCreatedDesc", "ix_comments_item_created"),
+            Map.entry("CommentRepository.findVersionStampByItemId", "ix_comments_item_created"),
+            Map.entry("ItemRequestRepository.findByRequestorIdOrderByCreatedDesc", "ix_requests_requestor_created"),
+            Map.entry("ItemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc", "ix_requests_created"),
+            Map.entry("ItemRequestRepository.findByRequestorIdNotBefore", "ix_requests_created"),
+            Map.entry("ItemRequestRepository.findVersionStampById", PRIMARY_KEY),
+            Map.entry("ItemRequestRepository.findVersionStampByRequestorId", "ix_requests_requestor_created"),
+            Map.entry("UserRepository.findByIdGreaterThanOrderById", PRIMARY_KEY),
+            Map.entry("UserRepository.streamAllOrderById", PRIMARY_KEY),
+            Map.entry("UserRepository.findCurrentById", PRIMARY_KEY),
+            Map.entry("OutboxEventRepository.findUnpublished", "ix_outbox_events_published"),
+            Map.entry("OutboxEventRepository.findPendingById", PRIMARY_KEY),
+            Map.entry("OutboxEventRepository.findAggregateIdsChangedSince", "ix_outbox_events_aggregate_created"),
+            Map.entry("OutboxEventRepository.markPublished", PRIMARY_KEY),
+            Map.entry("OutboxEventRepository.deletePublishedBefore", "ix_outbox_events_published")
+    );
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void everyRepositoryMethodHasCoveringIndex() {
+        List<String> uncovered = new ArrayList<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (method.isSynthetic() || method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                String key = repository.getSimpleName() + "." + method.getName();
+                if (!COVERING_INDEXES.containsKey(key)) {
+                    uncovered.add(key);
+                }
+            }
+        }
+
+        assertThat(uncovered).as("Методы репозиториев без индекса").isEmpty();
+    }
+
+    @Test
+    void coveringIndexesAreCreatedByMigrations() throws Exception {
+        Set<String> indexes = new HashSet<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : List.of("BOOKINGS", "ITEMS", "COMMENTS", "REQUESTS", "USERS", "OUTBOX_EVENTS")) {
+                try (ResultSet rs = metaData.getIndexInfo(null, null, table, false, false)) {
+                    while (rs.next()) {
+                        String name = rs.getString("INDEX_NAME");
+                        if (name != null) {
+                            indexes.add(name.toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+            }
+        }
+
+        // H2 добавляет к имени индекса ограничения UNIQUE суффикс, поэтому сравнение по префиксу
+        List<String> missing = COVERING_INDEXES.values().stream()
+                .filter(index -> !PRIMARY_KEY.equals(index) && !POSTGRESQL_ONLY.equals(index))
+                .distinct()
+                .filter(index -> indexes.stream().noneMatch(name -> name.startsWith(index)))
+                .toList();
+
+        assertThat(missing).as("Индексы, отсутствующие в схеме").isEmpty();
+    }
+}
@@ -0,0 +1,127 @@
+package outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.outbox.DomainEvent;
+import ru.practicum.shareit.outbox.DomainEventSubscriber;
+import ru.practicum.shareit.outbox.EventType;
+import ru.practicum.shareit.outbox.InProcessEventBroker;
+import ru.practicum.shareit.outbox.OutboxRelay;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Встроенный брокер вместе с ретранслятором: ошибка подписчика должна вернуть пачку в очередь.
+ */
+@DataJpaTest(properties = "shareit.outbox.retry-backoff=0s")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = ShareItServer.class)
+@Import({OutboxWriter.class, OutboxRelay.class, InProcessEventBroker.class, InProcessEventBrokerTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InProcessEventBrokerTest {
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private FailingSubscriber failingSubscriber;
+
+    @Autowired
+    private RecordingSubscriber recordingSubscriber;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        recordingSubscriber.received.clear();
+        failingSubscriber.failing.set(false);
+    }
+
+    @Test
+    void relayBatch_subscriberFailure_leavesRowsUnpublished() {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxWriter.append(EventType.ITEM_CREATED, 1L, Map.of("id", 1)));
+        failingSubscriber.failing.set(true);
+
+        assertThat(outboxRelay.relayBatch()).isZero();
+
+        assertThat(outboxEventRepository.findAll()).allMatch(event -> event.getPublishedAt() == null);
+        assertThat(outboxEventRepository.findAll()).allMatch(event -> event.getAttempts() == 1);
+        // Остальные подписчики получили событие и с пачкой, и при отправке по одному, а после повтора получат ещё раз
+        assertThat(recordingSubscriber.received).extracting(DomainEvent::aggregateId).containsExactly(1L, 1L);
+
+        failingSubscriber.failing.set(false);
+        assertThat(outboxRelay.relayBatch()).isEqualTo(1);
+        assertThat(outboxEventRepository.findAll()).allMatch(event -> event.getPublishedAt() != null);
+        assertThat(recordingSubscriber.received).extracting(DomainEvent::aggregateId)
+                .containsExactly(1L, 1L, 1L);
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+
+        @Bean
+        @Order(1)
+        FailingSubscriber failingSubscriber() {
+            return new FailingSubscriber();
+        }
+
+        @Bean
+        @Order(2)
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+
+    static class FailingSubscriber implements DomainEventSubscriber {
+        private final AtomicBoolean failing = new AtomicBoolean();
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            if (failing.get()) {
+                throw new IllegalStateException("Подписчик недоступен");
+            }
+        }
+    }
+
+    static class RecordingSubscriber implements DomainEventSubscriber {
+        private final List<DomainEvent> received = new ArrayList<>();
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            received.addAll(events);
+        }
+    }
+}
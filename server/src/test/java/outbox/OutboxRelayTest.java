@@ -0,0 +1,200 @@
+package outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.outbox.DomainEvent;
+import ru.practicum.shareit.outbox.DomainEventBroker;
+import ru.practicum.shareit.outbox.EventType;
+import ru.practicum.shareit.outbox.OutboxRelay;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ретранслятор работает вне тестовой транзакции: каждая пачка фиксируется или откатывается сама.
+ */
+@DataJpaTest(properties = {
+        "shareit.outbox.batch-size=2",
+        "shareit.outbox.max-attempts=2",
+        "shareit.outbox.retry-backoff=0s"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = ShareItServer.class)
+@Import({OutboxWriter.class, OutboxRelay.class, OutboxRelayTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RecordingBroker broker;
+
+    // База общая с интеграционными тестами, которые фиксируют свои события
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        broker.published.clear();
+        broker.failing.set(false);
+        broker.poisonId.set(0);
+    }
+
+    @Test
+    void append_outsideTransaction_isRejected() {
+        assertThrows(RuntimeException.class,
+                () -> outboxWriter.append(EventType.ITEM_CREATED, 1L, Map.of("id", 1)));
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void append_rolledBackTransaction_leavesNoEvent() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxWriter.append(EventType.ITEM_CREATED, 1L, Map.of("id", 1));
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void relayBatch_publishesInIdOrderAndMarksPublished() {
+        appendEvents(3);
+
+        assertThat(outboxRelay.relayBatch()).isEqualTo(2);
+        assertThat(outboxRelay.relayBatch()).isEqualTo(1);
+        assertThat(outboxRelay.relayBatch()).isZero();
+
+        assertThat(broker.published).extracting(DomainEvent::aggregateId).containsExactly(1L, 2L, 3L);
+        assertThat(broker.published.get(0).type()).isEqualTo("BOOKING_CREATED");
+        assertThat(broker.published.get(0).aggregateType()).isEqualTo("booking");
+        assertThat(broker.published.get(0).payload()).isEqualTo("{\"id\":1}");
+        assertThat(outboxEventRepository.findAll()).allMatch(event -> event.getPublishedAt() != null);
+    }
+
+    @Test
+    void relayBatch_brokerFailure_countsAttemptAndRetries() {
+        appendEvents(1);
+        broker.failing.set(true);
+
+        assertThat(outboxRelay.relayBatch()).isZero();
+        OutboxEvent failed = outboxEventRepository.findAll().get(0);
+        assertThat(failed.getPublishedAt()).isNull();
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isNotNull();
+        assertThat(failed.getFailedAt()).isNull();
+
+        broker.failing.set(false);
+        assertThat(outboxRelay.relayBatch()).isEqualTo(1);
+        assertThat(broker.published).extracting(DomainEvent::aggregateId).containsExactly(1L);
+    }
+
+    @Test
+    void relayBatch_poisonEvent_isParkedAndDoesNotBlockQueue() {
+        appendEvents(2);
+        broker.poisonId.set(1L);
+
+        // Пачка не прошла, поэтому события отправлены по одному: второе опубликовано, первое ждёт повтора
+        assertThat(outboxRelay.relayBatch()).isEqualTo(1);
+        // Вторая неудача исчерпывает max-attempts, и событие откладывается
+        assertThat(outboxRelay.relayBatch()).isZero();
+        assertThat(outboxRelay.relayBatch()).isZero();
+
+        assertThat(broker.published).extracting(DomainEvent::aggregateId).containsExactly(2L);
+        OutboxEvent poison = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId() == 1L)
+                .findFirst()
+                .orElseThrow();
+        assertThat(poison.getPublishedAt()).isNull();
+        assertThat(poison.getAttempts()).isEqualTo(2);
+        assertThat(poison.getFailedAt()).isNotNull();
+    }
+
+    @Test
+    void purgePublished_deletesOnlyPublishedPastRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.saveAll(List.of(
+                new OutboxEvent(null, "item", 1L, "ITEM_CREATED", "{}", now.minusDays(30), now.minusDays(30),
+                        0, null, null),
+                new OutboxEvent(null, "item", 2L, "ITEM_CREATED", "{}", now.minusDays(30), null, 0, null, null),
+                new OutboxEvent(null, "item", 3L, "ITEM_CREATED", "{}", now, now, 0, null, null)));
+
+        assertThat(outboxRelay.purgePublished()).isEqualTo(1);
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getAggregateId)
+                .containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    private void appendEvents(int count) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long id = 1; id <= count; id++) {
+                outboxWriter.append(EventType.BOOKING_CREATED, id, Map.of("id", id));
+            }
+        });
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+
+        @Bean
+        RecordingBroker recordingBroker() {
+            return new RecordingBroker();
+        }
+    }
+
+    static class RecordingBroker implements DomainEventBroker {
+        private final List<DomainEvent> published = new ArrayList<>();
+        private final AtomicBoolean failing = new AtomicBoolean();
+        private final AtomicLong poisonId = new AtomicLong();
+
+        @Override
+        public void publish(List<DomainEvent> events) {
+            if (failing.get()) {
+                throw new IllegalStateException("Брокер недоступен");
+            }
+            if (events.stream().anyMatch(event -> event.aggregateId() == poisonId.get())) {
+                throw new IllegalArgumentException("Событие не принимается");
+            }
+            published.addAll(events);
+        }
+    }
+}
@@ -12,17 +12,22 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.ShareItServer;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestFeedPage;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.version.Versioned;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static ru.practicum.shareit.constants.HttpHeaders.NEXT_CURSOR;
 import static ru.practicum.shareit.constants.HttpHeaders.SHARER_USER_ID;
 
 @SpringBootTest(classes = ShareItServer.class)
@@ -84,7 +89,8 @@ public class ItemRequestControllerTest {
     @Test
     void getAllRequestsByRequestor_ShouldReturnListOfRequests() throws Exception {
         List<ItemRequestDto> requests = List.of(requestDto);
-        when(itemRequestService.getAllRequestsByRequestor(userId)).thenReturn(requests);
+        when(itemRequestService.getRequestorRequestsEtag(userId)).thenReturn("\"requests-1\"");
+        when(itemRequestService.getAllRequestsByRequestor(userId, "\"requests-1\"")).thenReturn(requests);
 
         mockMvc.perform(get("/requests")
                         .header(SHARER_USER_ID, userId))
@@ -96,7 +102,7 @@ public class ItemRequestControllerTest {
 
     @Test
     void getAllRequestsByRequestor_ShouldReturn404_WhenUserNotFound() throws Exception {
-        when(itemRequestService.getAllRequestsByRequestor(userId)).thenThrow(new NotFoundException("Пользователь не найден"));
+        when(itemRequestService.getRequestorRequestsEtag(userId)).thenThrow(new NotFoundException("Пользователь не найден"));
 
         mockMvc.perform(get("/requests")
                         .header(SHARER_USER_ID, userId))
@@ -106,7 +112,8 @@ public class ItemRequestControllerTest {
     @Test
     void getAllRequests_ShouldReturnPagedListOfRequests() throws Exception {
         List<ItemRequestDto> requests = List.of(requestDto);
-        when(itemRequestService.getAllRequests(userId, 0, 10)).thenReturn(requests);
+        when(itemRequestService.getAllRequestsPage(userId, 0, 10, null))
+                .thenReturn(new Versioned<>(new ItemRequestFeedPage(requests, null), "\"requests-all-1\""));
 
         mockMvc.perform(get("/requests/all")
                         .header(SHARER_USER_ID, userId)
@@ -114,12 +121,40 @@ public class ItemRequestControllerTest {
                         .param("size", "10"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist(NEXT_CURSOR))
+                .andExpect(header().string("ETag", "\"requests-all-1\""))
+                .andExpect(jsonPath("$[0].id").value(requestId));
+    }
+
+    @Test
+    void getAllRequests_ShouldReturn304_WhenEtagMatches() throws Exception {
+        when(itemRequestService.getAllRequestsPage(userId, 0, 10, null))
+                .thenReturn(new Versioned<>(new ItemRequestFeedPage(List.of(requestDto), null), "\"requests-all-1\""));
+
+        mockMvc.perform(get("/requests/all")
+                        .header(SHARER_USER_ID, userId)
+                        .header("If-None-Match", "\"requests-all-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getAllRequests_ShouldPassCursorAndReturnNext() throws Exception {
+        when(itemRequestService.getAllRequestsPage(userId, 0, 1, "prev"))
+                .thenReturn(new Versioned<>(new ItemRequestFeedPage(List.of(requestDto), "next"), null));
+
+        mockMvc.perform(get("/requests/all")
+                        .header(SHARER_USER_ID, userId)
+                        .param("size", "1")
+                        .param("cursor", "prev"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(NEXT_CURSOR, "next"))
                 .andExpect(jsonPath("$[0].id").value(requestId));
     }
 
     @Test
     void getAllRequests_ShouldReturn400_WhenInvalidPagination() throws Exception {
-        when(itemRequestService.getAllRequests(userId, -1, 0))
+        when(itemRequestService.getAllRequestsPage(userId, -1, 0, null))
                 .thenThrow(new jakarta.validation.ValidationException("Параметры пагинации должны быть from >= 0 и size > 0"));
 
         mockMvc.perform(get("/requests/all")
@@ -140,6 +175,18 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.id").value(requestId));
     }
 
+    @Test
+    void getRequestById_ShouldReturn304_WhenEtagMatches() throws Exception {
+        when(itemRequestService.getRequestEtag(requestId, userId)).thenReturn("\"request-1-1.0.1.0-0.0.0.0\"");
+
+        mockMvc.perform(get("/requests/{requestId}", requestId)
+                        .header(SHARER_USER_ID, userId)
+                        .header("If-None-Match", "\"request-1-1.0.1.0-0.0.0.0\""))
+                .andExpect(status().isNotModified());
+
+        verify(itemRequestService, never()).getRequestById(any(), any());
+    }
+
     @Test
     void getRequestById_ShouldReturn404_WhenRequestNotFound() throws Exception {
         when(itemRequestService.getRequestById(requestId, userId)).thenThrow(new NotFoundException("Запрос не найден"));
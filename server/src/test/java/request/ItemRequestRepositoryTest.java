@@ -0,0 +1,54 @@
+package request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repisitory.ItemRequestRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = ShareItServer.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemRequestRepositoryTest {
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Test
+    @Sql(scripts = "/test-data/requests-feed.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findByRequestorIdNotOrderByCreatedDescIdDesc_ShouldBreakTiesById() {
+        List<ItemRequest> result = itemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc(
+                1L, PageRequest.of(0, 10));
+
+        assertThat(result).extracting(ItemRequest::getId).containsExactly(5L, 3L, 2L, 1L);
+    }
+
+    @Test
+    @Sql(scripts = "/test-data/requests-feed.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findByRequestorIdNotBefore_ShouldWalkWholeFeedWithoutGapsOrDuplicates() {
+        // Страница из двух строк разрывает пару запросов с одинаковым created
+        List<ItemRequest> page = itemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc(
+                1L, PageRequest.of(0, 2));
+        List<Long> seen = new ArrayList<>();
+        while (!page.isEmpty()) {
+            page.forEach(request -> seen.add(request.getId()));
+            ItemRequest last = page.get(page.size() - 1);
+            page = itemRequestRepository.findByRequestorIdNotBefore(
+                    1L, last.getCreated(), last.getId(), PageRequest.of(0, 2));
+        }
+
+        assertThat(seen).containsExactly(5L, 3L, 2L, 1L);
+    }
+}
@@ -12,19 +12,30 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.EventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestFeedPage;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repisitory.ItemRequestRepository;
 import ru.practicum.shareit.request.service.ItemRequestServiceIml;
+import ru.practicum.shareit.request.service.RequestFeedCursor;
+import ru.practicum.shareit.request.service.RequestorViewCache;
+import ru.practicum.shareit.stream.EventBroadcaster;
+import ru.practicum.shareit.stream.Topic;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+import ru.practicum.shareit.version.VersionStamp;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -39,6 +50,9 @@ class ItemRequestServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExistenceChecker userExistenceChecker;
+
     @Mock
     private ItemRepository itemRepository;
 
@@ -48,6 +62,15 @@ class ItemRequestServiceImplTest {
     @Mock
     private ItemMapper itemMapper;
 
+    @Mock
+    private RequestorViewCache requestorViewCache;
+
+    @Mock
+    private EventBroadcaster eventBroadcaster;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private ItemRequestServiceIml itemRequestService;
 
@@ -82,6 +105,7 @@ class ItemRequestServiceImplTest {
         item = new Item();
         item.setId(1L);
         item.setRequestId(requestId);
+        item.setVersion(0L);
     }
 
     @Test
@@ -99,6 +123,92 @@ class ItemRequestServiceImplTest {
         verify(userRepository).findById(userId);
         verify(itemRequestRepository).save(any(ItemRequest.class));
         verify(itemRequestMapper).toDto(any(ItemRequest.class), eq(Collections.emptyList()));
+        verify(outboxWriter).append(EventType.REQUEST_CREATED, requestId, itemRequestDto);
+    }
+
+    @Test
+    void createRequest_ShouldPatchCachedView_WhenRequestorViewCached() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRequestMapper.toEntity(itemRequestDto, user)).thenReturn(itemRequest);
+        when(itemRequestRepository.save(itemRequest)).thenReturn(itemRequest);
+        when(itemRequestMapper.toDto(itemRequest, Collections.emptyList())).thenReturn(itemRequestDto);
+        when(requestorViewCache.contains(userId)).thenReturn(true);
+        VersionStamp before = new VersionStamp(1L, 0L, 1L);
+        VersionStamp after = new VersionStamp(2L, 0L, 2L);
+        VersionStamp answers = new VersionStamp(0L, 0L, 0L);
+        when(itemRequestRepository.findVersionStampByRequestorId(userId)).thenReturn(before, after);
+        when(itemRepository.findVersionStampOfAnswersToRequestor(userId)).thenReturn(answers);
+
+        itemRequestService.createRequest(itemRequestDto, userId);
+
+        // Отпечаток до записи снимается раньше INSERT, чтобы кэш мог проверить, что его представление актуально
+        verify(requestorViewCache).requestCreated(userId, itemRequestDto,
+                VersionStamp.etag("requests", "requestor", userId, before, answers),
+                VersionStamp.etag("requests", "requestor", userId, after, answers));
+    }
+
+    @Test
+    void getAllRequestsByRequestor_WithEtag_ShouldDelegateToViewCache() {
+        when(requestorViewCache.get(eq(userId), eq("\"etag\""), any())).thenReturn(List.of(itemRequestDto));
+
+        List<ItemRequestDto> result = itemRequestService.getAllRequestsByRequestor(userId, "\"etag\"");
+
+        assertEquals(List.of(itemRequestDto), result);
+        verify(itemRequestRepository, never()).findByRequestorIdOrderByCreatedDesc(anyLong());
+    }
+
+    @Test
+    void publishAnswers_ShouldNotifyRequestor_WhenItemAnswersRequest() {
+        User requestor = new User(5L, "Requestor", "requestor@example.com", 0L);
+        itemRequest.setRequestor(requestor);
+        ItemDto answer = new ItemDto();
+        answer.setId(10L);
+        answer.setRequestId(requestId);
+        ItemDto unrelated = new ItemDto();
+        unrelated.setId(11L);
+        when(itemRequestRepository.findAllById(Set.of(requestId))).thenReturn(List.of(itemRequest));
+
+        itemRequestService.publishAnswers(List.of(answer, unrelated), Map.of());
+
+        verify(eventBroadcaster).publish(Topic.REQUEST_ANSWERS, 10L, answer, 5L);
+        verify(eventBroadcaster, never()).publish(any(), eq(11L), any(), any());
+        verify(requestorViewCache).invalidate(5L);
+    }
+
+    @Test
+    void publishAnswers_ShouldPatchCachedView_WhenEtagWasTakenBeforeWrite() {
+        User requestor = new User(5L, "Requestor", "requestor@example.com", 0L);
+        itemRequest.setRequestor(requestor);
+        ItemDto answer = new ItemDto();
+        answer.setId(10L);
+        answer.setRequestId(requestId);
+        when(itemRequestRepository.findAllById(Set.of(requestId))).thenReturn(List.of(itemRequest));
+        when(itemRequestRepository.findVersionStampByRequestorId(5L)).thenReturn(new VersionStamp(1L, 0L, 1L));
+        when(itemRepository.findVersionStampOfAnswersToRequestor(5L)).thenReturn(new VersionStamp(1L, 0L, 10L));
+
+        itemRequestService.publishAnswers(List.of(answer), Map.of(5L, "\"before\""));
+
+        verify(requestorViewCache).answersSaved(5L, List.of(answer), "\"before\"",
+                "\"requests-requestor-5-1.0.1.0-1.0.10.0\"");
+        verify(requestorViewCache, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void getRequestorViewEtags_ShouldSnapshotOnlyCachedViews() {
+        User requestor = new User(5L, "Requestor", "requestor@example.com", 0L);
+        itemRequest.setRequestor(requestor);
+        when(itemRequestRepository.findAllById(List.of(requestId))).thenReturn(List.of(itemRequest));
+        when(requestorViewCache.contains(5L)).thenReturn(false);
+
+        assertTrue(itemRequestService.getRequestorViewEtags(List.of(requestId)).isEmpty());
+        verify(itemRequestRepository, never()).findVersionStampByRequestorId(anyLong());
+    }
+
+    @Test
+    void publishAnswers_ShouldSkipLookup_WhenNoItemAnswersRequest() {
+        itemRequestService.publishAnswers(List.of(itemDto), Map.of());
+
+        verifyNoInteractions(itemRequestRepository, eventBroadcaster);
     }
 
     @Test
@@ -129,7 +239,6 @@ class ItemRequestServiceImplTest {
         List<Item> items = List.of(item);
         Map<Long, List<ItemDto>> itemsByRequest = Map.of(requestId, List.of(itemDto));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findByRequestorIdOrderByCreatedDesc(userId)).thenReturn(requests);
         when(itemRepository.findByRequestIdIn(requestIds)).thenReturn(items);
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
@@ -145,7 +254,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getAllRequestsByRequestor_ShouldThrowNotFoundException_WhenUserNotFound() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).requireExists(userId);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> itemRequestService.getAllRequestsByRequestor(userId));
@@ -157,7 +266,6 @@ class ItemRequestServiceImplTest {
     void getAllRequestsByRequestor_ShouldReturnEmptyList_WhenNoRequests() {
         List<ItemRequest> emptyRequests = Collections.emptyList();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findByRequestorIdOrderByCreatedDesc(userId)).thenReturn(emptyRequests);
 
         List<ItemRequestDto> result = itemRequestService.getAllRequestsByRequestor(userId);
@@ -175,17 +283,81 @@ class ItemRequestServiceImplTest {
         List<Item> items = List.of(item);
         Map<Long, List<ItemDto>> itemsByRequest = Map.of(requestId, List.of(itemDto));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findByRequestorIdNotOrderByCreatedDesc(eq(userId), any())).thenReturn(requests);
+        when(itemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc(eq(userId), any())).thenReturn(requests);
         when(itemRepository.findByRequestIdIn(requestIds)).thenReturn(items);
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
         when(itemRequestMapper.toDto(itemRequest, List.of(itemDto))).thenReturn(itemRequestDto);
 
-        List<ItemRequestDto> result = itemRequestService.getAllRequests(userId, from, size);
+        ItemRequestFeedPage result = itemRequestService.getAllRequests(userId, from, size, null);
 
-        assertEquals(1, result.size());
-        assertEquals(requestId, result.get(0).getId());
-        verify(itemRequestRepository).findByRequestorIdNotOrderByCreatedDesc(eq(userId), any());
+        assertEquals(1, result.requests().size());
+        assertEquals(requestId, result.requests().get(0).getId());
+        assertNull(result.nextCursor());
+        verify(itemRequestRepository).findByRequestorIdNotOrderByCreatedDescIdDesc(eq(userId), any());
+    }
+
+    @Test
+    void getAllRequestsPage_etagFollowsPageRequestsAndAnswers() {
+        when(itemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc(eq(userId), any()))
+                .thenReturn(List.of(itemRequest));
+        when(itemRepository.findByRequestIdIn(List.of(requestId))).thenReturn(List.of(item));
+        when(itemMapper.toItemDto(item)).thenReturn(itemDto);
+        when(itemRequestMapper.toDto(itemRequest, List.of(itemDto))).thenReturn(itemRequestDto);
+
+        String before = itemRequestService.getAllRequestsPage(userId, 0, 10, null).etag();
+        item.setVersion(1L);
+        String afterAnswerChanged = itemRequestService.getAllRequestsPage(userId, 0, 10, null).etag();
+
+        assertEquals("\"requests-all-1-1.0.1.0-1.0.1.0\"", before);
+        assertEquals("\"requests-all-1-1.0.1.0-1.1.1.0\"", afterAnswerChanged);
+    }
+
+    @Test
+    void getAllRequests_ShouldReturnCursor_WhenPageIsFull() {
+        when(itemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc(eq(userId), any()))
+                .thenReturn(List.of(itemRequest));
+        when(itemRepository.findByRequestIdIn(List.of(requestId))).thenReturn(Collections.emptyList());
+        when(itemRequestMapper.toDto(itemRequest, Collections.emptyList())).thenReturn(itemRequestDto);
+
+        ItemRequestFeedPage result = itemRequestService.getAllRequests(userId, 0, 1, null);
+
+        RequestFeedCursor cursor = RequestFeedCursor.decode(result.nextCursor());
+        assertEquals(itemRequest.getCreated(), cursor.created());
+        assertEquals(requestId, cursor.id());
+    }
+
+    @Test
+    void getAllRequests_ShouldSeekAfterCursor_WhenCursorGiven() {
+        LocalDateTime created = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+        String cursor = new RequestFeedCursor(created, 7L).encode();
+
+        when(itemRequestRepository.findByRequestorIdNotBefore(eq(userId), eq(created), eq(7L), any()))
+                .thenReturn(Collections.emptyList());
+
+        ItemRequestFeedPage result = itemRequestService.getAllRequests(userId, 30, 10, cursor);
+
+        assertTrue(result.requests().isEmpty());
+        assertNull(result.nextCursor());
+        verify(itemRequestRepository, never()).findByRequestorIdNotOrderByCreatedDescIdDesc(anyLong(), any());
+    }
+
+    @Test
+    void getAllRequests_ShouldThrowValidationException_WhenCursorMalformed() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> itemRequestService.getAllRequests(userId, 0, 10, "not-a-cursor"));
+        assertEquals("Некорректный курсор", exception.getMessage());
+    }
+
+    @Test
+    void getAllRequests_ShouldOffsetByFrom_WhenFromNotMultipleOfSize() {
+        when(itemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc(userId, OffsetPageRequest.of(5, 10)))
+                .thenReturn(Collections.emptyList());
+
+        ItemRequestFeedPage result = itemRequestService.getAllRequests(userId, 5, 10, null);
+
+        assertTrue(result.requests().isEmpty());
+        verify(itemRequestRepository)
+                .findByRequestorIdNotOrderByCreatedDescIdDesc(userId, OffsetPageRequest.of(5, 10));
     }
 
     @Test
@@ -193,34 +365,32 @@ class ItemRequestServiceImplTest {
         int from = -1;
         int size = 0;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         ValidationException exception = assertThrows(ValidationException.class,
-                () -> itemRequestService.getAllRequests(userId, from, size));
+                () -> itemRequestService.getAllRequests(userId, from, size, null));
         assertEquals("Параметры пагинации должны быть from >= 0 и size > 0", exception.getMessage());
-        verify(itemRequestRepository, never()).findByRequestorIdNotOrderByCreatedDesc(anyLong(), any());
+        verify(itemRequestRepository, never()).findByRequestorIdNotOrderByCreatedDescIdDesc(anyLong(), any());
     }
 
     @Test
     void getAllRequests_ShouldThrowNotFoundException_WhenUserNotFound() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).requireExists(userId);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
-                () -> itemRequestService.getAllRequests(userId, 0, 10));
+                () -> itemRequestService.getAllRequests(userId, 0, 10, null));
         assertEquals("Пользователь не найден", exception.getMessage());
-        verify(itemRequestRepository, never()).findByRequestorIdNotOrderByCreatedDesc(anyLong(), any());
+        verify(itemRequestRepository, never()).findByRequestorIdNotOrderByCreatedDescIdDesc(anyLong(), any());
     }
 
     @Test
     void getAllRequests_ShouldReturnEmptyList_WhenNoRequests() {
         List<ItemRequest> emptyRequests = Collections.emptyList();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findByRequestorIdNotOrderByCreatedDesc(eq(userId), any())).thenReturn(emptyRequests);
+        when(itemRequestRepository.findByRequestorIdNotOrderByCreatedDescIdDesc(eq(userId), any())).thenReturn(emptyRequests);
 
-        List<ItemRequestDto> result = itemRequestService.getAllRequests(userId, 0, 10);
+        ItemRequestFeedPage result = itemRequestService.getAllRequests(userId, 0, 10, null);
 
-        assertTrue(result.isEmpty());
+        assertTrue(result.requests().isEmpty());
         verify(itemRepository, never()).findByRequestIdIn(anyList());
     }
 
@@ -228,7 +398,6 @@ class ItemRequestServiceImplTest {
     void getRequestById_ShouldReturnRequest_WhenExists() {
         List<Item> items = List.of(item);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(requestId)).thenReturn(Optional.of(itemRequest));
         when(itemRepository.findByRequestId(requestId)).thenReturn(items);
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
@@ -244,7 +413,6 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getRequestById_ShouldThrowNotFoundException_WhenRequestNotFound() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(requestId)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -255,7 +423,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getRequestById_ShouldThrowNotFoundException_WhenUserNotFound() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).requireExists(userId);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> itemRequestService.getRequestById(requestId, userId));
@@ -0,0 +1,115 @@
+package request;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.RequestorViewCache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestorViewCacheTest {
+    private final RequestorViewCache cache = new RequestorViewCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_sameEtag_servedWithoutLoading() {
+        load("\"v1\"", List.of(request(1L, List.of())));
+        load("\"v1\"", List.of());
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_changedEtag_reloads() {
+        load("\"v1\"", List.of(request(1L, List.of())));
+        List<ItemRequestDto> reloaded = load("\"v2\"", List.of(request(2L, List.of())));
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(reloaded).extracting(ItemRequestDto::getId).containsExactly(2L);
+    }
+
+    @Test
+    void invalidate_dropsViewSoNextGetReloads() {
+        load("\"v1\"", List.of(request(1L, List.of())));
+
+        cache.invalidate(5L);
+        load("\"v1\"", List.of(request(1L, List.of())));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void requestCreated_prependsRequestToCurrentView() {
+        load("\"v1\"", List.of(request(1L, List.of())));
+
+        cache.requestCreated(5L, request(2L, List.of()), "\"v1\"", "\"v2\"");
+
+        assertThat(load("\"v2\"", List.of())).extracting(ItemRequestDto::getId).containsExactly(2L, 1L);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void requestCreated_outdatedView_isDroppedInsteadOfRelabelled() {
+        // Представление v1 построено до записи другого экземпляра (v1b), которую этот кэш не видел
+        load("\"v1\"", List.of(request(1L, List.of())));
+
+        cache.requestCreated(5L, request(3L, List.of()), "\"v1b\"", "\"v2\"");
+        List<ItemRequestDto> current = load("\"v2\"", List.of(request(3L, List.of()), request(2L, List.of()),
+                request(1L, List.of())));
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(current).extracting(ItemRequestDto::getId).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void answersSaved_addsAndReplacesAnswersInCurrentView() {
+        load("\"v1\"", List.of(request(1L, List.of(answer(10L, "Дрель", 1L))), request(2L, List.of())));
+
+        cache.answersSaved(5L, List.of(answer(10L, "Дрель ударная", 1L), answer(11L, "Лестница", 2L)),
+                "\"v1\"", "\"v2\"");
+        List<ItemRequestDto> current = load("\"v2\"", List.of());
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(current.get(0).getItems()).extracting(ItemDto::getName).containsExactly("Дрель ударная");
+        assertThat(current.get(1).getItems()).extracting(ItemDto::getId).containsExactly(11L);
+    }
+
+    @Test
+    void answersSaved_outdatedView_isDropped() {
+        load("\"v1\"", List.of(request(1L, List.of())));
+
+        cache.answersSaved(5L, List.of(answer(10L, "Дрель", 1L)), "\"v1b\"", "\"v2\"");
+
+        assertThat(cache.contains(5L)).isFalse();
+    }
+
+    @Test
+    void patch_withoutCachedView_doesNothing() {
+        cache.requestCreated(5L, request(2L, List.of()), "\"v1\"", "\"v2\"");
+
+        assertThat(cache.contains(5L)).isFalse();
+    }
+
+    private List<ItemRequestDto> load(String etag, List<ItemRequestDto> fromDb) {
+        return cache.get(5L, etag, () -> {
+            loads.incrementAndGet();
+            return fromDb;
+        });
+    }
+
+    private static ItemRequestDto request(Long id, List<ItemDto> items) {
+        return new ItemRequestDto(id, "Запрос " + id, 5L, LocalDateTime.of(2024, 1, 1, 12, 0), items);
+    }
+
+    private static ItemDto answer(Long id, String name, Long requestId) {
+        ItemDto item = new ItemDto();
+        item.setId(id);
+        item.setName(name);
+        item.setRequestId(requestId);
+        return item;
+    }
+}
@@ -6,14 +6,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.error.exception.EmailAlreadyExistsException;
 import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -49,6 +57,21 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.name").value("Test"));
     }
 
+    @Test
+    void testCreateUser_duplicateEmail() throws Exception {
+        NewUserDto dto = new NewUserDto();
+        dto.setName("Test");
+        dto.setEmail("test@example.com");
+
+        when(userService.addNewUser(any(NewUserDto.class)))
+                .thenThrow(new EmailAlreadyExistsException("Пользователь с email test@example.com уже существует"));
+
+        mockMvc.perform(post("/users")
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testGetUserById() throws Exception {
         UserDto dto = new UserDto(1L, "Test", "test@example.com");
@@ -60,6 +83,40 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("test@example.com"));
     }
 
+    @Test
+    void testFindAllWithCursor() throws Exception {
+        UserDto dto = new UserDto(11L, "Test", "test@example.com");
+
+        when(userService.getUsers(0, 5, 10L)).thenReturn(List.of(dto));
+
+        mockMvc.perform(get("/users").param("size", "5").param("after", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(11));
+    }
+
+    @Test
+    void testExportUsers() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(new UserDto(1L, "First", "first@example.com"));
+            consumer.accept(new UserDto(2L, "Second", "second@example.com"));
+            return null;
+        }).when(userService).exportUsers(any());
+
+        MvcResult result = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], UserDto.class).getId());
+        assertEquals(2L, objectMapper.readValue(lines[1], UserDto.class).getId());
+    }
+
     @Test
     void testUpdateUser() throws Exception {
         UserDto dto = new UserDto(1L, "Updated", "test@example.com");
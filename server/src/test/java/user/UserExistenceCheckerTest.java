@@ -0,0 +1,67 @@
+package user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceCheckerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserExistenceChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        checker = new UserExistenceChecker(userRepository);
+    }
+
+    @Test
+    void exists_ShouldQueryDatabaseOnlyOnce_WhenUserExists() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertTrue(checker.exists(1L));
+        assertTrue(checker.exists(1L));
+
+        verify(userRepository, times(1)).existsById(1L);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void exists_ShouldNotCacheMissingUser() {
+        when(userRepository.existsById(1L)).thenReturn(false, true);
+
+        assertFalse(checker.exists(1L));
+        assertTrue(checker.exists(1L));
+
+        verify(userRepository, times(2)).existsById(1L);
+    }
+
+    @Test
+    void requireExists_ShouldThrowNotFoundException_WhenUserMissing() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> checker.requireExists(1L));
+        assertEquals("Пользователь не найден", exception.getMessage());
+    }
+
+    @Test
+    void forget_ShouldRecheckDatabase() {
+        when(userRepository.existsById(1L)).thenReturn(true, false);
+
+        assertTrue(checker.exists(1L));
+        checker.forget(1L);
+
+        assertFalse(checker.exists(1L));
+    }
+}
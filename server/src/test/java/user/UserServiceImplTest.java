@@ -1,5 +1,10 @@
 package user;
 
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,18 +13,25 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
 import ru.practicum.shareit.error.exception.ConflictException;
+import ru.practicum.shareit.error.exception.EmailAlreadyExistsException;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 import ru.practicum.shareit.user.service.UserServiceIml;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,6 +46,18 @@ public class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private UserExistenceChecker userExistenceChecker;
+
     @InjectMocks
     private UserServiceIml userService;
 
@@ -63,68 +87,113 @@ public class UserServiceImplTest {
 
     @Test
     void getUsers_ShouldReturnListOfUserDtos() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.findByIdGreaterThanOrderById(0L, OffsetPageRequest.of(0, 10))).thenReturn(List.of(user));
         when(userMapper.toDto(user)).thenReturn(userDto);
 
-        var result = userService.getUsers();
+        var result = userService.getUsers(0, 10, null);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(userDto, result.iterator().next());
-        verify(userRepository).findAll();
         verify(userMapper).toDto(user);
     }
 
     @Test
     void getUsers_ShouldReturnEmptyList_WhenNoUsers() {
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
+        when(userRepository.findByIdGreaterThanOrderById(0L, OffsetPageRequest.of(0, 10)))
+                .thenReturn(Collections.emptyList());
 
-        var result = userService.getUsers();
+        var result = userService.getUsers(0, 10, null);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(userRepository).findAll();
+    }
+
+    @Test
+    void getUsers_ShouldSeekPastCursor_WhenAfterGiven() {
+        when(userRepository.findByIdGreaterThanOrderById(40L, OffsetPageRequest.of(0, 20))).thenReturn(List.of(user));
+        when(userMapper.toDto(user)).thenReturn(userDto);
+
+        var result = userService.getUsers(100, 20, 40L);
+
+        assertEquals(List.of(userDto), result);
+    }
+
+    @Test
+    void getUsers_ShouldOffsetByFrom_WhenFromNotMultipleOfSize() {
+        when(userRepository.findByIdGreaterThanOrderById(0L, OffsetPageRequest.of(5, 10))).thenReturn(List.of(user));
+        when(userMapper.toDto(user)).thenReturn(userDto);
+
+        var result = userService.getUsers(5, 10, null);
+
+        assertEquals(List.of(userDto), result);
+    }
+
+    @Test
+    void getUsers_ShouldThrowValidationException_WhenSizeIsNotPositive() {
+        assertThrows(ValidationException.class, () -> userService.getUsers(0, 0, null));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void exportUsers_ShouldPassEveryUserAndDetachIt() {
+        when(userRepository.streamAllOrderById()).thenReturn(Stream.of(user));
+        when(userMapper.toDto(user)).thenReturn(userDto);
+        List<UserDto> exported = new ArrayList<>();
+
+        userService.exportUsers(exported::add);
+
+        assertEquals(List.of(userDto), exported);
+        verify(entityManager).detach(user);
     }
 
     @Test
     void addNewUser_ShouldReturnUserDto_WhenValid() {
-        when(userRepository.existsByEmail(newUserDto.getEmail())).thenReturn(false);
         when(userMapper.toEntity(newUserDto)).thenReturn(user);
-        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
         when(userMapper.toDto(user)).thenReturn(userDto);
 
         var result = userService.addNewUser(newUserDto);
 
         assertEquals(userDto, result);
-        verify(userRepository).existsByEmail("new@example.com");
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
         verify(userMapper).toEntity(newUserDto);
         verify(userMapper).toDto(user);
+        verifyNoMoreInteractions(userRepository);
     }
 
     @Test
-    void addNewUser_ShouldThrowRuntimeException_WhenEmailExists() {
-        when(userRepository.existsByEmail(newUserDto.getEmail())).thenReturn(true);
+    void addNewUser_ShouldThrowEmailAlreadyExistsException_WhenEmailExists() {
+        when(userMapper.toEntity(newUserDto)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenThrow(emailViolation());
 
-        var exception = assertThrows(RuntimeException.class, () -> userService.addNewUser(newUserDto));
+        var exception = assertThrows(EmailAlreadyExistsException.class, () -> userService.addNewUser(newUserDto));
         assertEquals("Пользователь с email new@example.com уже существует", exception.getMessage());
-        verify(userRepository).existsByEmail("new@example.com");
-        verify(userRepository, never()).save(any());
+        verify(userMapper, never()).toDto(any());
+    }
+
+    @Test
+    void addNewUser_ShouldRethrow_WhenOtherConstraintViolated() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("NOT NULL");
+        when(userMapper.toEntity(newUserDto)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenThrow(violation);
+
+        var exception = assertThrows(DataIntegrityViolationException.class,
+                () -> userService.addNewUser(newUserDto));
+        assertSame(violation, exception);
     }
 
     @Test
     void updateUser_ShouldReturnUpdatedUserDto_WhenValid() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.existsByEmail("updated@example.com")).thenReturn(false);
-        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
         when(userMapper.toDto(user)).thenReturn(userDto);
 
         var result = userService.updateUser(updateUserDto);
 
         assertEquals(userDto, result);
         verify(userRepository).findById(1L);
-        verify(userRepository).existsByEmail("updated@example.com");
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
         verify(userMapper).updateUserFromDto(updateUserDto, user);
         verify(userMapper).toDto(user);
     }
@@ -136,48 +205,29 @@ public class UserServiceImplTest {
         var exception = assertThrows(NotFoundException.class, () -> userService.updateUser(updateUserDto));
         assertEquals("Пользователь с ID 1 не найден", exception.getMessage());
         verify(userRepository).findById(1L);
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void updateUser_ShouldThrowConflictException_WhenEmailExists() {
         updateUserDto.setEmail("existing@example.com");
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(user)).thenThrow(emailViolation());
 
         var exception = assertThrows(ConflictException.class, () -> userService.updateUser(updateUserDto));
         assertEquals("Пользователь с таким email уже существует", exception.getMessage());
         verify(userRepository).findById(1L);
-        verify(userRepository).existsByEmail("existing@example.com");
-        verify(userRepository, never()).save(any());
     }
 
     @Test
     void updateUser_ShouldThrowConflictException_WhenDataIntegrityViolation() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.existsByEmail("updated@example.com")).thenReturn(false);
-        when(userRepository.save(user)).thenThrow(new DataIntegrityViolationException("Email already exists"));
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException("Email already exists"));
 
         var exception = assertThrows(ConflictException.class, () -> userService.updateUser(updateUserDto));
         assertEquals("Ошибка обновления: возможно, email уже используется", exception.getMessage());
         verify(userRepository).findById(1L);
-        verify(userRepository).existsByEmail("updated@example.com");
-        verify(userRepository).save(user);
-    }
-
-    @Test
-    void updateUser_ShouldNotCheckEmail_WhenEmailUnchanged() {
-        updateUserDto.setEmail("test@example.com"); // Тот же email
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.save(user)).thenReturn(user);
-        when(userMapper.toDto(user)).thenReturn(userDto);
-
-        var result = userService.updateUser(updateUserDto);
-
-        assertEquals(userDto, result);
-        verify(userRepository).findById(1L);
-        verify(userRepository, never()).existsByEmail(anyString());
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
     }
 
     @Test
@@ -204,11 +254,14 @@ public class UserServiceImplTest {
     @Test
     void deleteUser_ShouldDelete_WhenExists() {
         when(userRepository.existsById(1L)).thenReturn(true);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
 
         userService.deleteUser(1L);
 
         verify(userRepository).existsById(1L);
         verify(userRepository).deleteById(1L);
+        verify(cache).evict(Item.class);
+        verify(userExistenceChecker).forget(1L);
     }
 
     @Test
@@ -220,4 +273,10 @@ public class UserServiceImplTest {
         verify(userRepository).existsById(1L);
         verify(userRepository, never()).deleteById(anyLong());
     }
-}
\ No newline at end of file
+
+    private static DataIntegrityViolationException emailViolation() {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key"),
+                        "uq_user_email_lower"));
+    }
+}
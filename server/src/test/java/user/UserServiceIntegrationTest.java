@@ -5,11 +5,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.error.exception.EmailAlreadyExistsException;
 import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -74,4 +78,43 @@ public class UserServiceIntegrationTest {
         assertThatThrownBy(() -> userService.getUserById(created.getId()))
                 .isInstanceOf(RuntimeException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAddNewUser_duplicateEmailDifferentCase() {
+        NewUserDto first = new NewUserDto();
+        first.setName("First");
+        first.setEmail("Duplicate@Example.com");
+        userService.addNewUser(first);
+
+        NewUserDto second = new NewUserDto();
+        second.setName("Second");
+        second.setEmail("duplicate@example.com");
+
+        assertThatThrownBy(() -> userService.addNewUser(second))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+    }
+
+    @Test
+    void testGetUsersWithCursorAndExport() {
+        List<UserDto> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            NewUserDto dto = new NewUserDto();
+            dto.setName("Page " + i);
+            dto.setEmail("page" + i + "@example.com");
+            created.add(userService.addNewUser(dto));
+        }
+        Long beforeFirst = created.get(0).getId() - 1;
+
+        List<UserDto> firstPage = userService.getUsers(0, 2, beforeFirst);
+        List<UserDto> secondPage = userService.getUsers(0, 2, firstPage.get(1).getId());
+
+        assertThat(firstPage).containsExactly(created.get(0), created.get(1));
+        assertThat(secondPage).first().isEqualTo(created.get(2));
+
+        List<UserDto> exported = new ArrayList<>();
+        userService.exportUsers(exported::add);
+
+        assertThat(exported).containsSubsequence(created);
+        assertThat(exported).extracting(UserDto::getId).isSorted();
+    }
+}
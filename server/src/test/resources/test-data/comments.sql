@@ -1,4 +1,4 @@
-INSERT INTO users (name, email) VALUES ('User1', 'user1@example.com');
-INSERT INTO items (name, description, is_available, owner_id) VALUES ('Item1', 'Description1', true, 1);
-INSERT INTO comments (text, author_id, item_id, created) VALUES ('Comment 1 Text', 1, 1, '2023-10-01 12:00:00');
-INSERT INTO comments (text, author_id, item_id, created) VALUES ('Comment 2 Text', 1, 1, '2023-10-02 12:00:00');
+INSERT INTO users (id, name, email) VALUES (1, 'User1', 'user1@example.com');
+INSERT INTO items (id, name, description, is_available, owner_id) VALUES (1, 'Item1', 'Description1', true, 1);
+INSERT INTO comments (id, text, author_id, item_id, created) VALUES (1, 'Comment 1 Text', 1, 1, '2023-10-01 12:00:00');
+INSERT INTO comments (id, text, author_id, item_id, created) VALUES (2, 'Comment 2 Text', 1, 1, '2023-10-02 12:00:00');
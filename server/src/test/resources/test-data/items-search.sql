@@ -0,0 +1,5 @@
+INSERT INTO users (id, name, email) VALUES (1, 'User1', 'user1@example.com');
+INSERT INTO items (id, name, description, is_available, owner_id) VALUES (1, 'Battery', 'Spare for the drill', true, 1);
+INSERT INTO items (id, name, description, is_available, owner_id) VALUES (2, 'Hammer drill', 'Powerful', true, 1);
+INSERT INTO items (id, name, description, is_available, owner_id) VALUES (3, 'Drill bits', 'Set of ten', false, 1);
+INSERT INTO items (id, name, description, is_available, owner_id) VALUES (4, 'DRILL', 'Cordless', true, 1);
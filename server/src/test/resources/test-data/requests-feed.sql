@@ -0,0 +1,7 @@
+INSERT INTO users (id, name, email) VALUES (1, 'Reader', 'reader@example.com');
+INSERT INTO users (id, name, email) VALUES (2, 'Author', 'author@example.com');
+INSERT INTO requests (id, description, requestor_id, created) VALUES (1, 'Request 1', 2, '2023-10-01 12:00:00');
+INSERT INTO requests (id, description, requestor_id, created) VALUES (2, 'Request 2', 2, '2023-10-02 12:00:00');
+INSERT INTO requests (id, description, requestor_id, created) VALUES (3, 'Request 3', 2, '2023-10-02 12:00:00');
+INSERT INTO requests (id, description, requestor_id, created) VALUES (4, 'Own request', 1, '2023-10-03 12:00:00');
+INSERT INTO requests (id, description, requestor_id, created) VALUES (5, 'Request 5', 2, '2023-10-04 12:00:00');